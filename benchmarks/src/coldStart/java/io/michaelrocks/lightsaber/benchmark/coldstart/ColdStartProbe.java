@@ -0,0 +1,115 @@
+/*
+ * Copyright 2017 Michael Rozumyanskiy
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.michaelrocks.lightsaber.benchmark.coldstart;
+
+import io.michaelrocks.lightsaber.Injector;
+import io.michaelrocks.lightsaber.Lightsaber;
+
+import java.lang.management.ClassLoadingMXBean;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+
+// Runs in a fresh JVM and reports every startup phase to the standard output as a tab-separated line:
+// phase, duration in nanoseconds, number of loaded classes and number of allocated bytes. Management beans are
+// obtained before the first phase so their own initialization isn't attributed to Lightsaber.
+public class ColdStartProbe {
+  public static final String PHASE_PREFIX = "phase";
+  public static final String UPTIME_PREFIX = "uptime";
+
+  private static final String INJECTION_DISPATCHER_CLASS_NAME = "io.michaelrocks.lightsaber.InjectionDispatcher";
+  private static final String KEY_REGISTRY_CLASS_NAME = "io.michaelrocks.lightsaber.KeyRegistry";
+
+  private final ClassLoadingMXBean classLoadingBean = ManagementFactory.getClassLoadingMXBean();
+  private final ThreadMXBean threadBean = ManagementFactory.getThreadMXBean();
+  private final long threadId = Thread.currentThread().getId();
+
+  private String phase;
+  private long startTime;
+  private long startClassCount;
+  private long startAllocatedBytes;
+
+  public static void main(final String[] args) throws Exception {
+    new ColdStartProbe().run();
+  }
+
+  private void run() throws Exception {
+    if (threadBean instanceof com.sun.management.ThreadMXBean) {
+      ((com.sun.management.ThreadMXBean) threadBean).setThreadAllocatedMemoryEnabled(true);
+    }
+    getAllocatedBytes();
+
+    startPhase("lightsaberInit");
+    final Lightsaber lightsaber = Lightsaber.get();
+
+    startPhase("injectionDispatcherInit");
+    Class.forName(INJECTION_DISPATCHER_CLASS_NAME);
+
+    startPhase("keyRegistryInit");
+    initializeKeyRegistry();
+
+    startPhase("createInjector");
+    final Injector injector = Graph.createInjector(lightsaber);
+
+    startPhase("firstGetInstance");
+    final Object instance = injector.getInstance(Graph.getRootType());
+    endPhase();
+
+    if (instance == null) {
+      throw new AssertionError("Root instance is null");
+    }
+    System.out.println(UPTIME_PREFIX + '\t' + ManagementFactory.getRuntimeMXBean().getUptime());
+  }
+
+  private static void initializeKeyRegistry() throws ClassNotFoundException {
+    // Keys of large projects are split between KeyRegistry, KeyRegistry$Part1, KeyRegistry$Part2 and so on.
+    Class.forName(KEY_REGISTRY_CLASS_NAME);
+    for (int index = 1; ; ++index) {
+      try {
+        Class.forName(KEY_REGISTRY_CLASS_NAME + "$Part" + index);
+      } catch (final ClassNotFoundException exception) {
+        return;
+      }
+    }
+  }
+
+  private void startPhase(final String name) {
+    endPhase();
+    phase = name;
+    startClassCount = classLoadingBean.getTotalLoadedClassCount();
+    startAllocatedBytes = getAllocatedBytes();
+    startTime = System.nanoTime();
+  }
+
+  private void endPhase() {
+    if (phase == null) {
+      return;
+    }
+
+    final long duration = System.nanoTime() - startTime;
+    final long allocatedBytes = getAllocatedBytes() - startAllocatedBytes;
+    final long classCount = classLoadingBean.getTotalLoadedClassCount() - startClassCount;
+    System.out.println(PHASE_PREFIX + '\t' + phase + '\t' + duration + '\t' + classCount + '\t' + allocatedBytes);
+    phase = null;
+  }
+
+  private long getAllocatedBytes() {
+    if (threadBean instanceof com.sun.management.ThreadMXBean) {
+      return ((com.sun.management.ThreadMXBean) threadBean).getThreadAllocatedBytes(threadId);
+    }
+    return -1;
+  }
+}
@@ -0,0 +1,64 @@
+/*
+ * Copyright 2017 Michael Rozumyanskiy
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.michaelrocks.lightsaber.benchmark;
+
+import io.michaelrocks.lightsaber.Injector;
+import io.michaelrocks.lightsaber.Lightsaber;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Fork(1)
+@Warmup(iterations = 5)
+@Measurement(iterations = 5)
+public class ChildInjectorBenchmark {
+  private Injector parentInjector;
+  private Injector childInjector;
+
+  @Setup
+  public void setUp() {
+    parentInjector = Lightsaber.get().createInjector(new BenchmarkComponent());
+    childInjector = Lightsaber.get().createChildInjector(parentInjector, new ChildBenchmarkComponent());
+  }
+
+  @Benchmark
+  public Injector createChildInjector() {
+    return Lightsaber.get().createChildInjector(parentInjector, new ChildBenchmarkComponent());
+  }
+
+  @Benchmark
+  public ChildService getOwnInstance() {
+    return childInjector.getInstance(ChildService.class);
+  }
+
+  @Benchmark
+  public Service getInheritedInstance() {
+    return childInjector.getInstance(Service.class);
+  }
+}
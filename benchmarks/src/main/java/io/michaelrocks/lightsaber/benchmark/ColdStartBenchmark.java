@@ -0,0 +1,222 @@
+/*
+ * Copyright 2017 Michael Rozumyanskiy
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.michaelrocks.lightsaber.benchmark;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.PrintStream;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+// Forks a fresh JVM running ColdStartProbe for every iteration and reports medians of every startup phase. Graphs are
+// passed as size=classpath arguments where the classpath contains the processed graph of the given size.
+// Usage: ColdStartBenchmark [-i iterations] [-w warmupIterations] [-j jvmArgument]... [-csv file] size=classpath...
+public class ColdStartBenchmark {
+  private static final String PROBE_CLASS_NAME = "io.michaelrocks.lightsaber.benchmark.coldstart.ColdStartProbe";
+  // Must match the prefixes printed by ColdStartProbe.
+  private static final String PHASE_PREFIX = "phase";
+  private static final String UPTIME_PREFIX = "uptime";
+
+  private static final int DEFAULT_ITERATIONS = 10;
+  private static final int DEFAULT_WARMUP_ITERATIONS = 1;
+  private static final String TOTAL_PHASE = "total";
+
+  private final List<String> jvmArguments = new ArrayList<String>();
+  private final Map<Integer, String> classpaths = new LinkedHashMap<Integer, String>();
+  private int iterations = DEFAULT_ITERATIONS;
+  private int warmupIterations = DEFAULT_WARMUP_ITERATIONS;
+  private File csvFile;
+
+  public static void main(final String[] args) throws Exception {
+    final ColdStartBenchmark benchmark = new ColdStartBenchmark();
+    benchmark.parseArguments(args);
+    benchmark.run(System.out);
+  }
+
+  private void parseArguments(final String[] args) {
+    for (int i = 0; i < args.length; ++i) {
+      final String arg = args[i];
+      if ("-i".equals(arg)) {
+        iterations = Integer.parseInt(args[++i]);
+      } else if ("-w".equals(arg)) {
+        warmupIterations = Integer.parseInt(args[++i]);
+      } else if ("-j".equals(arg)) {
+        jvmArguments.add(args[++i]);
+      } else if ("-csv".equals(arg)) {
+        csvFile = new File(args[++i]);
+      } else {
+        final int separator = arg.indexOf('=');
+        if (separator <= 0) {
+          throw new IllegalArgumentException("Expected size=classpath but got " + arg);
+        }
+        classpaths.put(Integer.parseInt(arg.substring(0, separator)), arg.substring(separator + 1));
+      }
+    }
+
+    if (classpaths.isEmpty()) {
+      throw new IllegalArgumentException("No graphs to benchmark");
+    }
+  }
+
+  private void run(final PrintStream output) throws IOException, InterruptedException {
+    final Writer csvWriter = csvFile == null ? null : new FileWriter(csvFile);
+    try {
+      if (csvWriter != null) {
+        csvWriter.write("size,iteration,phase,nanos,classes,allocatedBytes\n");
+      }
+
+      for (final Map.Entry<Integer, String> entry : classpaths.entrySet()) {
+        final int size = entry.getKey();
+        // Warmup iterations only bring the probe's files into the OS page cache.
+        for (int i = 0; i < warmupIterations; ++i) {
+          runProbe(entry.getValue());
+        }
+
+        final List<Sample> samples = new ArrayList<Sample>(iterations);
+        for (int i = 0; i < iterations; ++i) {
+          final Sample sample = runProbe(entry.getValue());
+          samples.add(sample);
+          if (csvWriter != null) {
+            writeCsv(csvWriter, size, i, sample);
+          }
+        }
+        report(output, size, samples);
+      }
+    } finally {
+      if (csvWriter != null) {
+        csvWriter.close();
+      }
+    }
+  }
+
+  private Sample runProbe(final String classpath) throws IOException, InterruptedException {
+    final List<String> command = new ArrayList<String>();
+    command.add(new File(new File(System.getProperty("java.home"), "bin"), "java").getPath());
+    command.addAll(jvmArguments);
+    command.add("-cp");
+    command.add(classpath);
+    command.add(PROBE_CLASS_NAME);
+
+    final Sample sample = new Sample();
+    final long startTime = System.nanoTime();
+    final Process process = new ProcessBuilder(command).redirectErrorStream(true).start();
+    final BufferedReader reader = new BufferedReader(new InputStreamReader(process.getInputStream(), "UTF-8"));
+    try {
+      String line;
+      while ((line = reader.readLine()) != null) {
+        parseLine(sample, line);
+      }
+    } finally {
+      reader.close();
+    }
+
+    final int exitCode = process.waitFor();
+    sample.processNanos = System.nanoTime() - startTime;
+    if (exitCode != 0) {
+      throw new IllegalStateException("Probe exited with code " + exitCode);
+    }
+    return sample;
+  }
+
+  private static void parseLine(final Sample sample, final String line) {
+    final String[] fields = line.split("\t");
+    if (fields.length == 5 && PHASE_PREFIX.equals(fields[0])) {
+      sample.phases.put(fields[1],
+          new long[] { Long.parseLong(fields[2]), Long.parseLong(fields[3]), Long.parseLong(fields[4]) });
+    } else if (fields.length == 2 && UPTIME_PREFIX.equals(fields[0])) {
+      sample.uptimeMillis = Long.parseLong(fields[1]);
+    } else {
+      System.err.println(line);
+    }
+  }
+
+  private static void writeCsv(final Writer writer, final int size, final int iteration, final Sample sample)
+      throws IOException {
+    for (final Map.Entry<String, long[]> phase : sample.phases.entrySet()) {
+      final long[] values = phase.getValue();
+      writer.write(size + "," + iteration + "," + phase.getKey() + "," + values[0] + "," + values[1] + ","
+          + values[2] + "\n");
+    }
+    writer.write(size + "," + iteration + ",process," + sample.processNanos + ",,\n");
+  }
+
+  private static void report(final PrintStream output, final int size, final List<Sample> samples) {
+    output.println(String.format(Locale.US, "Graph of %d bindings, medians of %d forks", size, samples.size()));
+    output.println(String.format(Locale.US, "  %-24s %12s %10s %16s", "phase", "time, ms", "classes", "allocated, KB"));
+
+    final List<String> phases = new ArrayList<String>(samples.get(0).phases.keySet());
+    phases.add(TOTAL_PHASE);
+    for (final String phase : phases) {
+      final long[] nanos = new long[samples.size()];
+      final long[] classes = new long[samples.size()];
+      final long[] bytes = new long[samples.size()];
+      for (int i = 0; i < samples.size(); ++i) {
+        final long[] values = samples.get(i).getPhase(phase);
+        nanos[i] = values[0];
+        classes[i] = values[1];
+        bytes[i] = values[2];
+      }
+      output.println(String.format(Locale.US, "  %-24s %12.3f %10d %16.1f",
+          phase, median(nanos) / 1000000.0, median(classes), median(bytes) / 1024.0));
+    }
+
+    final long[] processNanos = new long[samples.size()];
+    final long[] uptimes = new long[samples.size()];
+    for (int i = 0; i < samples.size(); ++i) {
+      processNanos[i] = samples.get(i).processNanos;
+      uptimes[i] = samples.get(i).uptimeMillis;
+    }
+    output.println(String.format(Locale.US, "  process wall time %.3f ms, JVM uptime at first instance %d ms",
+        median(processNanos) / 1000000.0, median(uptimes)));
+    output.println();
+  }
+
+  private static long median(final long[] values) {
+    final long[] sortedValues = values.clone();
+    Arrays.sort(sortedValues);
+    return sortedValues[sortedValues.length / 2];
+  }
+
+  private static class Sample {
+    final Map<String, long[]> phases = new LinkedHashMap<String, long[]>();
+    long processNanos;
+    long uptimeMillis;
+
+    long[] getPhase(final String phase) {
+      if (!TOTAL_PHASE.equals(phase)) {
+        final long[] values = phases.get(phase);
+        return values != null ? values : new long[3];
+      }
+
+      final long[] total = new long[3];
+      for (final long[] values : phases.values()) {
+        for (int i = 0; i < total.length; ++i) {
+          total[i] += values[i];
+        }
+      }
+      return total;
+    }
+  }
+}
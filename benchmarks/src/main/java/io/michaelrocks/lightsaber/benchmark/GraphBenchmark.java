@@ -0,0 +1,78 @@
+/*
+ * Copyright 2017 Michael Rozumyanskiy
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.michaelrocks.lightsaber.benchmark;
+
+import io.michaelrocks.lightsaber.Injector;
+import io.michaelrocks.lightsaber.Lightsaber;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import javax.inject.Provider;
+import java.util.concurrent.TimeUnit;
+
+// Runs on components generated at build time. The sizes must match the benchmarkGraphSizes Gradle property.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Fork(1)
+@Warmup(iterations = 5)
+@Measurement(iterations = 5)
+public class GraphBenchmark {
+  @Param({ "10", "100", "1000" })
+  public int graphSize;
+
+  private Injector injector;
+  private Class<?>[] types;
+  private int index;
+
+  @Setup
+  public void setUp() {
+    injector = GeneratedGraphs.createInjector(Lightsaber.get(), graphSize);
+    types = GeneratedGraphs.getTypes(graphSize);
+  }
+
+  @Benchmark
+  public Injector createInjector() {
+    return GeneratedGraphs.createInjector(Lightsaber.get(), graphSize);
+  }
+
+  // Cycles through all the bindings so that lookups aren't served by a single hot entry of the provider table.
+  @Benchmark
+  public Object getInstance() {
+    return injector.getInstance(nextType());
+  }
+
+  @Benchmark
+  public Provider<?> getProvider() {
+    return injector.getProvider(nextType());
+  }
+
+  private Class<?> nextType() {
+    final int nextIndex = index + 1;
+    index = nextIndex == types.length ? 0 : nextIndex;
+    return types[index];
+  }
+}
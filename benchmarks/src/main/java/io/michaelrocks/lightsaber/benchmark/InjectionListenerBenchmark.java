@@ -0,0 +1,129 @@
+/*
+ * Copyright 2017 Michael Rozumyanskiy
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.michaelrocks.lightsaber.benchmark;
+
+import io.michaelrocks.lightsaber.InjectionListener;
+import io.michaelrocks.lightsaber.InjectionMetrics;
+import io.michaelrocks.lightsaber.Injector;
+import io.michaelrocks.lightsaber.Key;
+import io.michaelrocks.lightsaber.Lightsaber;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import java.util.concurrent.TimeUnit;
+
+// Compares injectors without a listener, which must perform exactly like before listeners were introduced, with
+// injectors that report every provision to a no-op listener and to InjectionMetrics.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Fork(1)
+@Warmup(iterations = 5)
+@Measurement(iterations = 5)
+public class InjectionListenerBenchmark {
+  private Injector injectorWithoutListener;
+  private Injector injectorWithNoOpListener;
+  private Injector injectorWithMetrics;
+
+  @Setup
+  public void setUp() {
+    injectorWithoutListener = Lightsaber.get().createInjector(new BenchmarkComponent());
+    injectorWithNoOpListener = new Lightsaber.Builder()
+        .setInjectionListener(new NoOpInjectionListener())
+        .build()
+        .createInjector(new BenchmarkComponent());
+    injectorWithMetrics = new Lightsaber.Builder()
+        .setInjectionListener(new InjectionMetrics())
+        .build()
+        .createInjector(new BenchmarkComponent());
+  }
+
+  @Benchmark
+  public Object getInstanceWithoutListener() {
+    return injectorWithoutListener.getInstance(Service.class);
+  }
+
+  @Benchmark
+  public Object getInstanceWithNoOpListener() {
+    return injectorWithNoOpListener.getInstance(Service.class);
+  }
+
+  @Benchmark
+  public Object getInstanceWithMetrics() {
+    return injectorWithMetrics.getInstance(Service.class);
+  }
+
+  private static class NoOpInjectionListener implements InjectionListener {
+    @Override
+    public boolean isProvisionMonitored() {
+      return true;
+    }
+
+    @Nullable
+    @Override
+    public Object onProvisionStarted(@Nonnull final Key<?> key) {
+      return null;
+    }
+
+    @Override
+    public void onProvision(@Nonnull final Key<?> key, @Nullable final Object token, final long durationNanos) {
+    }
+
+    @Nullable
+    @Override
+    public Object onSingletonCreationStarted(@Nonnull final Key<?> key) {
+      return null;
+    }
+
+    @Override
+    public void onSingletonCreated(@Nonnull final Key<?> key, @Nullable final Object token,
+        final long durationNanos) {
+    }
+
+    @Nullable
+    @Override
+    public Object onMembersInjectionStarted(@Nonnull final Object target) {
+      return null;
+    }
+
+    @Override
+    public void onMembersInjected(@Nonnull final Object target, @Nullable final Object token,
+        final long durationNanos) {
+    }
+
+    @Nullable
+    @Override
+    public Object onInjectorCreationStarted(@Nullable final Injector parentInjector, @Nonnull final Object component) {
+      return null;
+    }
+
+    @Override
+    public void onInjectorCreated(@Nonnull final Injector injector, @Nullable final Injector parentInjector,
+        @Nonnull final Object component, @Nullable final Object token, final long durationNanos) {
+    }
+  }
+}
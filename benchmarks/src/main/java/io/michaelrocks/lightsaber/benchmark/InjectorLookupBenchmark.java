@@ -0,0 +1,90 @@
+/*
+ * Copyright 2017 Michael Rozumyanskiy
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.michaelrocks.lightsaber.benchmark;
+
+import io.michaelrocks.lightsaber.Injector;
+import io.michaelrocks.lightsaber.Key;
+import io.michaelrocks.lightsaber.Lightsaber;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import javax.inject.Named;
+import javax.inject.Provider;
+import java.lang.reflect.Method;
+import java.lang.reflect.Type;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Fork(1)
+@Warmup(iterations = 5)
+@Measurement(iterations = 5)
+public class InjectorLookupBenchmark {
+  private Injector injector;
+  private Type serviceListType;
+  private Key<Service> qualifiedServiceKey;
+
+  @Setup
+  public void setUp() throws NoSuchMethodException {
+    injector = Lightsaber.get().createInjector(new BenchmarkComponent());
+    // The generic type and the qualifier are taken from the module to match the keys registered by the processor.
+    serviceListType = LookupModule.class.getMethod("provideServices", Service.class).getGenericReturnType();
+    final Method qualifiedServiceMethod =
+        LookupModule.class.getMethod("provideQualifiedService", ServiceDependency.class);
+    qualifiedServiceKey = Key.of(Service.class, qualifiedServiceMethod.getAnnotation(Named.class));
+  }
+
+  @Benchmark
+  public Service getInstanceByClass() {
+    return injector.getInstance(Service.class);
+  }
+
+  @Benchmark
+  public List<Service> getInstanceByType() {
+    return injector.getInstance(serviceListType);
+  }
+
+  @Benchmark
+  public Service getInstanceByKey() {
+    return injector.getInstance(qualifiedServiceKey);
+  }
+
+  @Benchmark
+  public Provider<Service> getProviderByClass() {
+    return injector.getProvider(Service.class);
+  }
+
+  @Benchmark
+  public Provider<List<Service>> getProviderByType() {
+    return injector.getProvider(serviceListType);
+  }
+
+  @Benchmark
+  public Provider<Service> getProviderByKey() {
+    return injector.getProvider(qualifiedServiceKey);
+  }
+}
@@ -0,0 +1,71 @@
+/*
+ * Copyright 2017 Michael Rozumyanskiy
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.michaelrocks.lightsaber.benchmark;
+
+import io.michaelrocks.lightsaber.Injector;
+import io.michaelrocks.lightsaber.Lightsaber;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Date;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Threads(8)
+@Fork(1)
+@Warmup(iterations = 5)
+@Measurement(iterations = 5)
+public class ThreadScopeBenchmark {
+  private final Date date = new Date(0);
+  private Injector injector;
+
+  @Setup
+  public void setUp() {
+    injector = Lightsaber.get().createInjector(new BenchmarkComponent());
+  }
+
+  @Benchmark
+  public DateFormatter getUnscoped() {
+    return injector.getInstance(UnscopedDateFormatter.class);
+  }
+
+  @Benchmark
+  public DateFormatter getThreadScoped() {
+    return injector.getInstance(ThreadScopedDateFormatter.class);
+  }
+
+  @Benchmark
+  public String formatUnscoped() {
+    return injector.getInstance(UnscopedDateFormatter.class).format(date);
+  }
+
+  @Benchmark
+  public String formatThreadScoped() {
+    return injector.getInstance(ThreadScopedDateFormatter.class).format(date);
+  }
+}
@@ -0,0 +1,236 @@
+/*
+ * Copyright 2017 Michael Rozumyanskiy
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.michaelrocks.lightsaber.benchmark.processor;
+
+import io.michaelrocks.lightsaber.processor.ClassProcessor;
+import io.michaelrocks.lightsaber.processor.ProcessingPhase;
+import io.michaelrocks.lightsaber.processor.ProcessingPhaseListener;
+
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.io.Writer;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+// Generates a synthetic project for every size and runs the processor on it reporting the time and the peak heap usage
+// of every processing phase. The classpath of the benchmark is used to compile and to process the synthetic projects.
+// Usage: ProcessorBenchmark [-w workDirectory] [-csv file] size...
+public class ProcessorBenchmark {
+  private static final String DEFAULT_WORK_DIRECTORY = "build/processor-benchmark";
+
+  private final List<Integer> sizes = new ArrayList<Integer>();
+  private File workDir = new File(DEFAULT_WORK_DIRECTORY);
+  private File csvFile;
+
+  public static void main(final String[] args) throws Exception {
+    final ProcessorBenchmark benchmark = new ProcessorBenchmark();
+    benchmark.parseArguments(args);
+    benchmark.run(System.out);
+  }
+
+  private void parseArguments(final String[] args) {
+    for (int i = 0; i < args.length; ++i) {
+      final String arg = args[i];
+      if ("-w".equals(arg)) {
+        workDir = new File(args[++i]);
+      } else if ("-csv".equals(arg)) {
+        csvFile = new File(args[++i]);
+      } else {
+        sizes.add(Integer.parseInt(arg));
+      }
+    }
+
+    if (sizes.isEmpty()) {
+      throw new IllegalArgumentException("No project sizes to benchmark");
+    }
+  }
+
+  private void run(final PrintStream output) throws IOException {
+    final List<File> classpath = toFiles(System.getProperty("java.class.path"));
+    final List<File> bootClasspath = toFiles(System.getProperty("sun.boot.class.path"));
+    final Writer csvWriter = csvFile == null ? null : new FileWriter(csvFile);
+    try {
+      if (csvWriter != null) {
+        csvWriter.write("size,phase,nanos,peakHeapBytes,error\n");
+      }
+
+      for (final int size : sizes) {
+        final File projectDir = new File(workDir, String.valueOf(size));
+        deleteRecursively(projectDir);
+        final SyntheticProjectGenerator generator = new SyntheticProjectGenerator(size);
+        final long startTime = System.nanoTime();
+        generator.generate(new File(projectDir, "src"), new File(projectDir, "classes"), classpath);
+        final long generationMillis = (System.nanoTime() - startTime) / 1000000;
+        output.println(String.format(Locale.US, "Generated %d classes, %d modules and %d components in %d ms",
+            size, generator.getModuleCount(), generator.getComponentCount(), generationMillis));
+
+        final PhaseRecorder recorder = new PhaseRecorder();
+        process(projectDir, classpath, bootClasspath, recorder);
+        report(output, recorder);
+        if (csvWriter != null) {
+          writeCsv(csvWriter, size, recorder);
+        }
+      }
+    } finally {
+      if (csvWriter != null) {
+        csvWriter.close();
+      }
+    }
+  }
+
+  private static void process(final File projectDir, final List<File> classpath, final List<File> bootClasspath,
+      final PhaseRecorder recorder) {
+    final ClassProcessor processor = new ClassProcessor(
+        Collections.singletonList(new File(projectDir, "classes")),
+        Collections.singletonList(new File(projectDir, "processed")),
+        new File(projectDir, "generated-src"),
+        new File(projectDir, "generated-classes"),
+        classpath,
+        bootClasspath,
+        recorder
+    );
+    try {
+      processor.processClasses();
+    } catch (final Exception exception) {
+      // A failed phase is reported instead of aborting the benchmark, so larger projects still get a partial result.
+      recorder.onPhaseFailed(exception);
+    } finally {
+      processor.close();
+    }
+  }
+
+  private static void report(final PrintStream output, final PhaseRecorder recorder) {
+    output.println(String.format(Locale.US, "  %-12s %12s %16s", "phase", "time, ms", "peak heap, MB"));
+    long totalNanos = 0;
+    for (final PhaseResult result : recorder.results.values()) {
+      totalNanos += result.nanos;
+      if (result.error == null) {
+        output.println(String.format(Locale.US, "  %-12s %12.1f %16.1f",
+            result.phase, result.nanos / 1000000.0, result.peakHeapBytes / (1024.0 * 1024.0)));
+      } else {
+        output.println(String.format(Locale.US, "  %-12s failed: %s", result.phase, result.error));
+      }
+    }
+    output.println(String.format(Locale.US, "  %-12s %12.1f", "total", totalNanos / 1000000.0));
+    output.println();
+  }
+
+  private static void writeCsv(final Writer writer, final int size, final PhaseRecorder recorder) throws IOException {
+    for (final PhaseResult result : recorder.results.values()) {
+      final String error = result.error == null ? "" : '"' + result.error.replace("\"", "\"\"") + '"';
+      writer.write(size + "," + result.phase + "," + result.nanos + "," + result.peakHeapBytes + "," + error + "\n");
+    }
+  }
+
+  private static List<File> toFiles(final String path) {
+    final List<File> files = new ArrayList<File>();
+    if (path != null) {
+      for (final String entry : path.split(File.pathSeparator)) {
+        if (entry.length() != 0) {
+          files.add(new File(entry));
+        }
+      }
+    }
+    return files;
+  }
+
+  private static void deleteRecursively(final File file) throws IOException {
+    final File[] children = file.listFiles();
+    if (children != null) {
+      for (final File child : children) {
+        deleteRecursively(child);
+      }
+    }
+    if (file.exists() && !file.delete()) {
+      throw new IOException("Cannot delete " + file);
+    }
+  }
+
+  private static class PhaseRecorder implements ProcessingPhaseListener {
+    private final Map<ProcessingPhase, PhaseResult> results = new LinkedHashMap<ProcessingPhase, PhaseResult>();
+    private final List<MemoryPoolMXBean> heapPools = new ArrayList<MemoryPoolMXBean>();
+    private ProcessingPhase currentPhase;
+    private long startTime;
+
+    PhaseRecorder() {
+      for (final MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()) {
+        if (pool.getType() == MemoryType.HEAP) {
+          heapPools.add(pool);
+        }
+      }
+    }
+
+    @Override
+    public void onPhaseStarted(final ProcessingPhase phase) {
+      // Garbage left by the previous phases shouldn't be attributed to this one. The listener is called before the
+      // processor starts timing the phase, so the collection doesn't affect the phase duration.
+      System.gc();
+      for (final MemoryPoolMXBean pool : heapPools) {
+        pool.resetPeakUsage();
+      }
+      currentPhase = phase;
+      startTime = System.nanoTime();
+    }
+
+    @Override
+    public void onPhaseFinished(final ProcessingPhase phase, final long durationNanos) {
+      results.put(phase, new PhaseResult(phase, durationNanos, getPeakHeapBytes(), null));
+      currentPhase = null;
+    }
+
+    void onPhaseFailed(final Exception exception) {
+      if (currentPhase != null) {
+        final String error = exception.getClass().getSimpleName() + ": " + exception.getMessage();
+        results.put(currentPhase,
+            new PhaseResult(currentPhase, System.nanoTime() - startTime, getPeakHeapBytes(), error));
+      } else {
+        throw new IllegalStateException("Processing failed outside of a phase", exception);
+      }
+    }
+
+    private long getPeakHeapBytes() {
+      long peakHeapBytes = 0;
+      for (final MemoryPoolMXBean pool : heapPools) {
+        peakHeapBytes += pool.getPeakUsage().getUsed();
+      }
+      return peakHeapBytes;
+    }
+  }
+
+  private static class PhaseResult {
+    final ProcessingPhase phase;
+    final long nanos;
+    final long peakHeapBytes;
+    final String error;
+
+    PhaseResult(final ProcessingPhase phase, final long nanos, final long peakHeapBytes, final String error) {
+      this.phase = phase;
+      this.nanos = nanos;
+      this.peakHeapBytes = peakHeapBytes;
+      this.error = error;
+    }
+  }
+}
@@ -0,0 +1,260 @@
+/*
+ * Copyright 2017 Michael Rozumyanskiy
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.michaelrocks.lightsaber.benchmark.processor;
+
+import javax.tools.JavaCompiler;
+import javax.tools.JavaFileObject;
+import javax.tools.StandardJavaFileManager;
+import javax.tools.ToolProvider;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+// Generates and compiles a project of the given number of classes. Most classes have injectable constructors and form
+// short dependency chains, every 4th class is provided by a module instead, every 8th one is additionally bound with a
+// qualifier, and every 16th one is bound as a generic List<T> too. Modules are grouped into components which form
+// parent chains. Classes are compiled package by package to keep the memory footprint of javac low.
+class SyntheticProjectGenerator {
+  private static final String PACKAGE_NAME = "io.michaelrocks.lightsaber.benchmark.synthetic";
+  private static final String INJECT = "@javax.inject.Inject";
+  private static final String SINGLETON = "@javax.inject.Singleton";
+  private static final String PROVIDES = "@io.michaelrocks.lightsaber.Provides";
+
+  private static final int PACKAGE_SIZE = 1000;
+  private static final int CHAIN_LENGTH = 8;
+  private static final int PROVIDED_FREQUENCY = 4;
+  private static final int QUALIFIED_FREQUENCY = 8;
+  private static final int GENERIC_FREQUENCY = 16;
+  private static final int FIELD_INJECTION_FREQUENCY = 16;
+  private static final int SINGLETON_FREQUENCY = 5;
+  private static final int MODULE_SIZE = 25;
+  private static final int COMPONENT_SIZE = 10;
+  private static final int PARENT_CHAIN_LENGTH = 4;
+
+  private final int classCount;
+
+  SyntheticProjectGenerator(final int classCount) {
+    if (classCount % (PROVIDED_FREQUENCY * MODULE_SIZE) != 0) {
+      throw new IllegalArgumentException(
+          "Class count must be a multiple of " + PROVIDED_FREQUENCY * MODULE_SIZE + " but got " + classCount);
+    }
+    this.classCount = classCount;
+  }
+
+  int getModuleCount() {
+    return classCount / PROVIDED_FREQUENCY / MODULE_SIZE;
+  }
+
+  int getComponentCount() {
+    return (getModuleCount() + COMPONENT_SIZE - 1) / COMPONENT_SIZE;
+  }
+
+  void generate(final File sourcesDir, final File classesDir, final List<File> classpath) throws IOException {
+    final JavaCompiler compiler = ToolProvider.getSystemJavaCompiler();
+    if (compiler == null) {
+      throw new IllegalStateException("Java compiler isn't available, the benchmark must be run with a JDK");
+    }
+
+    final List<File> compilationClasspath = new ArrayList<File>(classpath);
+    compilationClasspath.add(classesDir);
+    classesDir.mkdirs();
+    final StandardJavaFileManager fileManager = compiler.getStandardFileManager(null, null, null);
+    try {
+      final int packageCount = (classCount + PACKAGE_SIZE - 1) / PACKAGE_SIZE;
+      for (int packageIndex = 0; packageIndex < packageCount; ++packageIndex) {
+        compile(compiler, fileManager, generatePackage(sourcesDir, packageIndex), classesDir, compilationClasspath);
+      }
+      compile(compiler, fileManager, generateComponents(sourcesDir), classesDir, compilationClasspath);
+    } finally {
+      fileManager.close();
+    }
+  }
+
+  private List<File> generatePackage(final File sourcesDir, final int packageIndex) throws IOException {
+    final List<File> files = new ArrayList<File>();
+    final int from = packageIndex * PACKAGE_SIZE;
+    final int to = Math.min(classCount, from + PACKAGE_SIZE);
+    for (int i = from; i < to; ++i) {
+      files.add(writeSource(sourcesDir, getPackageName(i), getSimpleClassName(i), generateClass(i)));
+    }
+
+    final int moduleSize = PROVIDED_FREQUENCY * MODULE_SIZE;
+    for (int module = from / moduleSize; module < to / moduleSize; ++module) {
+      files.add(writeSource(sourcesDir, getPackageName(module * moduleSize), getSimpleModuleName(module),
+          generateModule(module)));
+    }
+    return files;
+  }
+
+  private String generateClass(final int index) {
+    final StringBuilder builder = new StringBuilder();
+    builder.append("package ").append(getPackageName(index)).append(";\n\n");
+    if (!isProvided(index) && index % SINGLETON_FREQUENCY == 0) {
+      builder.append(SINGLETON).append('\n');
+    }
+    builder.append("public class ").append(getSimpleClassName(index)).append(" {\n");
+    if (!isProvided(index) && index % FIELD_INJECTION_FREQUENCY == 1) {
+      builder.append("  ").append(INJECT).append('\n');
+      builder.append("  ").append(getClassName(index - 1)).append(" field;\n\n");
+    }
+    if (!isProvided(index)) {
+      builder.append("  ").append(INJECT).append('\n');
+    }
+    builder.append("  public ").append(getSimpleClassName(index)).append('(');
+    final int dependency = getDependency(index);
+    if (dependency >= 0) {
+      builder.append("final ").append(getClassName(dependency)).append(" dependency");
+    }
+    builder.append(") {\n  }\n}\n");
+    return builder.toString();
+  }
+
+  private String generateModule(final int module) {
+    final StringBuilder builder = new StringBuilder();
+    final int from = module * PROVIDED_FREQUENCY * MODULE_SIZE;
+    builder.append("package ").append(getPackageName(from)).append(";\n\n");
+    builder.append("@io.michaelrocks.lightsaber.Module\n");
+    builder.append("public class ").append(getSimpleModuleName(module)).append(" {\n");
+    for (int i = from + PROVIDED_FREQUENCY - 1; i < from + PROVIDED_FREQUENCY * MODULE_SIZE; i += PROVIDED_FREQUENCY) {
+      final String className = getClassName(i);
+      final String dependency = "final " + getClassName(getDependency(i)) + " dependency";
+      final String qualifier = "@javax.inject.Named(\"" + getSimpleClassName(i) + "\")";
+      appendProvidesMethod(builder, i % SINGLETON_FREQUENCY == 0 ? SINGLETON : null, className,
+          "provide" + getSimpleClassName(i), dependency, "new " + className + "(dependency)");
+      if (i % QUALIFIED_FREQUENCY == QUALIFIED_FREQUENCY - 1) {
+        appendProvidesMethod(builder, qualifier, className,
+            "provideQualified" + getSimpleClassName(i), dependency, "new " + className + "(dependency)");
+      }
+      if (i % GENERIC_FREQUENCY == GENERIC_FREQUENCY - 1) {
+        appendProvidesMethod(builder, null, "java.util.List<" + className + ">",
+            "provide" + getSimpleClassName(i) + "List", qualifier + " final " + className + " value",
+            "java.util.Collections.singletonList(value)");
+      }
+    }
+    builder.append("}\n");
+    return builder.toString();
+  }
+
+  private static void appendProvidesMethod(final StringBuilder builder, final String annotation,
+      final String returnType, final String name, final String parameter, final String expression) {
+    if (builder.charAt(builder.length() - 2) != '{') {
+      builder.append('\n');
+    }
+    builder.append("  ").append(PROVIDES).append('\n');
+    if (annotation != null) {
+      builder.append("  ").append(annotation).append('\n');
+    }
+    builder.append("  public ").append(returnType).append(' ').append(name).append('(').append(parameter)
+        .append(") {\n");
+    builder.append("    return ").append(expression).append(";\n");
+    builder.append("  }\n");
+  }
+
+  private List<File> generateComponents(final File sourcesDir) throws IOException {
+    final List<File> files = new ArrayList<File>();
+    for (int component = 0; component < getComponentCount(); ++component) {
+      final StringBuilder builder = new StringBuilder();
+      builder.append("package ").append(PACKAGE_NAME).append(";\n\n");
+      builder.append("@io.michaelrocks.lightsaber.Component");
+      if (component % PARENT_CHAIN_LENGTH != 0) {
+        builder.append("(parents = Component").append(component - 1).append(".class)");
+      }
+      builder.append('\n');
+      builder.append("public class Component").append(component).append(" {\n");
+      final int from = component * COMPONENT_SIZE;
+      final int to = Math.min(getModuleCount(), from + COMPONENT_SIZE);
+      for (int module = from; module < to; ++module) {
+        final String moduleName =
+            getPackageName(module * PROVIDED_FREQUENCY * MODULE_SIZE) + '.' + getSimpleModuleName(module);
+        appendProvidesMethod(builder, null, moduleName, "provide" + getSimpleModuleName(module), "",
+            "new " + moduleName + "()");
+      }
+      builder.append("}\n");
+      files.add(writeSource(sourcesDir, PACKAGE_NAME, "Component" + component, builder.toString()));
+    }
+    return files;
+  }
+
+  // Injectable classes depend only on other injectable classes since they're bound in the package component.
+  private static int getDependency(final int index) {
+    if (index % CHAIN_LENGTH == 0) {
+      return -1;
+    }
+    return isProvided(index - 1) ? index - 2 : index - 1;
+  }
+
+  private static boolean isProvided(final int index) {
+    return index % PROVIDED_FREQUENCY == PROVIDED_FREQUENCY - 1;
+  }
+
+  private static String getPackageName(final int index) {
+    return PACKAGE_NAME + ".p" + index / PACKAGE_SIZE;
+  }
+
+  private static String getSimpleClassName(final int index) {
+    return "Type" + index;
+  }
+
+  private static String getClassName(final int index) {
+    return getPackageName(index) + '.' + getSimpleClassName(index);
+  }
+
+  private static String getSimpleModuleName(final int module) {
+    return "Module" + module;
+  }
+
+  private static File writeSource(final File sourcesDir, final String packageName, final String simpleName,
+      final String source) throws IOException {
+    final File packageDir = new File(sourcesDir, packageName.replace('.', File.separatorChar));
+    packageDir.mkdirs();
+    final File file = new File(packageDir, simpleName + ".java");
+    final Writer writer = new OutputStreamWriter(new FileOutputStream(file), "UTF-8");
+    try {
+      writer.write(source);
+    } finally {
+      writer.close();
+    }
+    return file;
+  }
+
+  private static void compile(final JavaCompiler compiler, final StandardJavaFileManager fileManager,
+      final List<File> files, final File classesDir, final List<File> classpath) throws IOException {
+    // The processor reads class files with ASM 5 which supports class files of Java 8 at most.
+    final List<String> options = Arrays.asList("-nowarn", "-Xlint:-options", "-proc:none", "-source", "1.8",
+        "-target", "1.8", "-d", classesDir.getPath(), "-classpath", toPath(classpath));
+    final Iterable<? extends JavaFileObject> units = fileManager.getJavaFileObjectsFromFiles(files);
+    if (!compiler.getTask(null, fileManager, null, options, null, units).call()) {
+      throw new IOException("Failed to compile generated sources in " + files.get(0).getParent());
+    }
+  }
+
+  private static String toPath(final List<File> files) {
+    final StringBuilder builder = new StringBuilder();
+    for (final File file : files) {
+      if (builder.length() != 0) {
+        builder.append(File.pathSeparatorChar);
+      }
+      builder.append(file.getPath());
+    }
+    return builder.toString();
+  }
+}
@@ -0,0 +1,140 @@
+/*
+ * Copyright 2017 Michael Rozumyanskiy
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.michaelrocks.lightsaber.jfr;
+
+import io.michaelrocks.lightsaber.InjectionListener;
+import io.michaelrocks.lightsaber.Injector;
+import io.michaelrocks.lightsaber.Key;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import java.util.concurrent.TimeUnit;
+
+// Events are begun when an operation starts and committed when it completes, so JFR measures their durations. Plain
+// provisions aren't recorded, so the listener opts out of provision monitoring and doesn't slow them down.
+public class FlightRecorderInjectionListener implements InjectionListener {
+  public static final long DEFAULT_SLOW_MEMBERS_INJECTION_NANOS = TimeUnit.MILLISECONDS.toNanos(1);
+
+  private final long slowMembersInjectionNanos;
+
+  public FlightRecorderInjectionListener() {
+    this(DEFAULT_SLOW_MEMBERS_INJECTION_NANOS);
+  }
+
+  public FlightRecorderInjectionListener(final long slowMembersInjectionNanos) {
+    this.slowMembersInjectionNanos = slowMembersInjectionNanos;
+  }
+
+  // Event classes are loaded only when the listener is notified of an operation, so checking availability of JFR before
+  // creating the listener is enough to run on JVMs without JFR.
+  public static boolean isFlightRecorderAvailable() {
+    try {
+      Class.forName("jdk.jfr.Event", false, FlightRecorderInjectionListener.class.getClassLoader());
+      return true;
+    } catch (final ClassNotFoundException exception) {
+      return false;
+    } catch (final LinkageError error) {
+      return false;
+    }
+  }
+
+  @Nullable
+  public static InjectionListener createIfAvailable() {
+    return isFlightRecorderAvailable() ? new FlightRecorderInjectionListener() : null;
+  }
+
+  @Override
+  public boolean isProvisionMonitored() {
+    return false;
+  }
+
+  @Nullable
+  @Override
+  public Object onProvisionStarted(@Nonnull final Key<?> key) {
+    return null;
+  }
+
+  @Override
+  public void onProvision(@Nonnull final Key<?> key, @Nullable final Object token, final long durationNanos) {
+  }
+
+  @Nullable
+  @Override
+  public Object onSingletonCreationStarted(@Nonnull final Key<?> key) {
+    final SingletonCreationEvent event = new SingletonCreationEvent();
+    if (!event.isEnabled()) {
+      return null;
+    }
+
+    event.begin();
+    return event;
+  }
+
+  @Override
+  public void onSingletonCreated(@Nonnull final Key<?> key, @Nullable final Object token, final long durationNanos) {
+    if (token != null) {
+      final SingletonCreationEvent event = (SingletonCreationEvent) token;
+      event.key = key.toString();
+      event.commit();
+    }
+  }
+
+  @Nullable
+  @Override
+  public Object onMembersInjectionStarted(@Nonnull final Object target) {
+    final MembersInjectionEvent event = new MembersInjectionEvent();
+    if (!event.isEnabled()) {
+      return null;
+    }
+
+    event.begin();
+    return event;
+  }
+
+  @Override
+  public void onMembersInjected(@Nonnull final Object target, @Nullable final Object token,
+      final long durationNanos) {
+    if (token != null && durationNanos >= slowMembersInjectionNanos) {
+      final MembersInjectionEvent event = (MembersInjectionEvent) token;
+      event.target = target.getClass();
+      event.commit();
+    }
+  }
+
+  @Nullable
+  @Override
+  public Object onInjectorCreationStarted(@Nullable final Injector parentInjector, @Nonnull final Object component) {
+    final InjectorCreationEvent event = new InjectorCreationEvent();
+    if (!event.isEnabled()) {
+      return null;
+    }
+
+    event.begin();
+    return event;
+  }
+
+  @Override
+  public void onInjectorCreated(@Nonnull final Injector injector, @Nullable final Injector parentInjector,
+      @Nonnull final Object component, @Nullable final Object token, final long durationNanos) {
+    if (token != null) {
+      final InjectorCreationEvent event = (InjectorCreationEvent) token;
+      event.component = component.getClass();
+      event.child = parentInjector != null;
+      event.commit();
+    }
+  }
+}
@@ -0,0 +1,121 @@
+/*
+ * Copyright 2017 Michael Rozumyanskiy
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.michaelrocks.lightsaber.jfr;
+
+import io.michaelrocks.lightsaber.Key;
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class FlightRecorderInjectionListenerTest {
+  private static final String SINGLETON_CREATION = "io.michaelrocks.lightsaber.SingletonCreation";
+  private static final String SLOW_MEMBERS_INJECTION = "io.michaelrocks.lightsaber.SlowMembersInjection";
+  private static final long CREATION_NANOS = TimeUnit.MILLISECONDS.toNanos(1);
+
+  @Test
+  public void testFlightRecorderIsAvailable() throws Exception {
+    assertTrue(FlightRecorderInjectionListener.isFlightRecorderAvailable());
+  }
+
+  @Test
+  public void testSingletonCreationIsRecorded() throws Exception {
+    final FlightRecorderInjectionListener listener = new FlightRecorderInjectionListener();
+    final List<RecordedEvent> events = record(SINGLETON_CREATION, new Runnable() {
+      @Override
+      public void run() {
+        final Object token = listener.onSingletonCreationStarted(Key.of(String.class));
+        spin(CREATION_NANOS);
+        listener.onSingletonCreated(Key.of(String.class), token, CREATION_NANOS);
+      }
+    });
+
+    assertEquals(1, events.size());
+    assertEquals(Key.of(String.class).toString(), events.get(0).getString("key"));
+    assertTrue(events.get(0).getDuration().toNanos() >= CREATION_NANOS);
+  }
+
+  @Test
+  public void testProvisionsAreNotMonitored() throws Exception {
+    assertFalse(new FlightRecorderInjectionListener().isProvisionMonitored());
+  }
+
+  @Test
+  public void testFastMembersInjectionIsNotRecorded() throws Exception {
+    final FlightRecorderInjectionListener listener = new FlightRecorderInjectionListener(1000);
+    final List<RecordedEvent> events = record(SLOW_MEMBERS_INJECTION, new Runnable() {
+      @Override
+      public void run() {
+        listener.onMembersInjected("Fast", listener.onMembersInjectionStarted("Fast"), 999);
+        listener.onMembersInjected("Slow", listener.onMembersInjectionStarted("Slow"), 1000);
+      }
+    });
+
+    assertEquals(1, events.size());
+    assertEquals(String.class.getName(), events.get(0).getClass("target").getName());
+  }
+
+  @Test
+  public void testDisabledEventIsNotBegun() throws Exception {
+    assertNull(new FlightRecorderInjectionListener().onSingletonCreationStarted(Key.of(String.class)));
+  }
+
+  private static void spin(final long nanos) {
+    final long startTime = System.nanoTime();
+    while (System.nanoTime() - startTime < nanos) {
+      Thread.yield();
+    }
+  }
+
+  private static List<RecordedEvent> record(final String eventName, final Runnable action) throws IOException {
+    final File file = File.createTempFile("lightsaber", ".jfr");
+    try {
+      final Recording recording = new Recording();
+      try {
+        recording.enable(eventName);
+        recording.start();
+        action.run();
+        recording.stop();
+        recording.dump(file.toPath());
+      } finally {
+        recording.close();
+      }
+
+      final List<RecordedEvent> events = new ArrayList<RecordedEvent>();
+      for (final RecordedEvent event : RecordingFile.readAllEvents(file.toPath())) {
+        if (eventName.equals(event.getEventType().getName())) {
+          events.add(event);
+        }
+      }
+      return events;
+    } finally {
+      // noinspection ResultOfMethodCallIgnored
+      file.delete();
+    }
+  }
+}
@@ -32,10 +32,10 @@ fun <T : Any> Injector.getInstance(type: KClass<out T>, annotation: Annotation):
     Lightsaber.getInstance(this, type.java, annotation)
 
 inline fun <reified T : Any> Injector.getInstance(): T =
-    getInstance(T::class)
+    Lightsaber.getInstance(this, T::class.java)
 
 inline fun <reified T : Any> Injector.getInstance(annotation: Annotation): T =
-    getInstance(T::class, annotation)
+    Lightsaber.getInstance(this, T::class.java, annotation)
 
 fun <T : Any> Injector.getProvider(type: Class<out T>, annotation: Annotation): Provider<T> =
     Lightsaber.getProvider(this, type, annotation)
@@ -47,10 +47,10 @@ fun <T : Any> Injector.getProvider(type: KClass<out T>, annotation: Annotation):
     Lightsaber.getProvider(this, type.java, annotation)
 
 inline fun <reified T : Any> Injector.getProvider(): Provider<T> =
-    getProvider(T::class)
+    Lightsaber.getProvider(this, T::class.java)
 
 inline fun <reified T : Any> Injector.getProvider(annotation: Annotation): Provider<T> =
-    getProvider(T::class, annotation)
+    Lightsaber.getProvider(this, T::class.java, annotation)
 
 @Suppress("NOTHING_TO_INLINE", "UNCHECKED_CAST")
 inline fun <T> inject(): T = null as T
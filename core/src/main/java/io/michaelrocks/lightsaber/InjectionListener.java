@@ -0,0 +1,51 @@
+/*
+ * Copyright 2017 Michael Rozumyanskiy
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.michaelrocks.lightsaber;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+
+// Listener methods are called on the threads performing injection so they have to be fast and thread-safe. A start
+// callback is called before an operation begins and the object it returns is passed to the completion callback of the
+// same operation, so the operation can be measured by the listener itself, e.g. with a JFR event. Completion callbacks
+// aren't called for operations that fail.
+public interface InjectionListener {
+  // When provisions aren't monitored providers aren't wrapped and neither onProvisionStarted() nor onProvision() is
+  // called, so provisions cost the same as without a listener. Singleton creations are reported anyway.
+  boolean isProvisionMonitored();
+
+  @Nullable
+  Object onProvisionStarted(@Nonnull Key<?> key);
+
+  void onProvision(@Nonnull Key<?> key, @Nullable Object token, long durationNanos);
+
+  @Nullable
+  Object onSingletonCreationStarted(@Nonnull Key<?> key);
+
+  void onSingletonCreated(@Nonnull Key<?> key, @Nullable Object token, long durationNanos);
+
+  @Nullable
+  Object onMembersInjectionStarted(@Nonnull Object target);
+
+  void onMembersInjected(@Nonnull Object target, @Nullable Object token, long durationNanos);
+
+  @Nullable
+  Object onInjectorCreationStarted(@Nullable Injector parentInjector, @Nonnull Object component);
+
+  void onInjectorCreated(@Nonnull Injector injector, @Nullable Injector parentInjector, @Nonnull Object component,
+      @Nullable Object token, long durationNanos);
+}
@@ -0,0 +1,160 @@
+/*
+ * Copyright 2017 Michael Rozumyanskiy
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.michaelrocks.lightsaber;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+// An InjectionListener that aggregates counts and total durations of provisions and singleton creations per key.
+public class InjectionMetrics implements InjectionListener {
+  private final ConcurrentMap<Key<?>, Counter> provisions = new ConcurrentHashMap<Key<?>, Counter>();
+  private final ConcurrentMap<Key<?>, Counter> singletonCreations = new ConcurrentHashMap<Key<?>, Counter>();
+  private final Counter membersInjections = new Counter();
+  private final Counter injectorCreations = new Counter();
+
+  @Override
+  public boolean isProvisionMonitored() {
+    return true;
+  }
+
+  @Nullable
+  @Override
+  public Object onProvisionStarted(@Nonnull final Key<?> key) {
+    return null;
+  }
+
+  @Override
+  public void onProvision(@Nonnull final Key<?> key, @Nullable final Object token, final long durationNanos) {
+    getCounter(provisions, key).add(durationNanos);
+  }
+
+  @Nullable
+  @Override
+  public Object onSingletonCreationStarted(@Nonnull final Key<?> key) {
+    return null;
+  }
+
+  @Override
+  public void onSingletonCreated(@Nonnull final Key<?> key, @Nullable final Object token, final long durationNanos) {
+    getCounter(singletonCreations, key).add(durationNanos);
+  }
+
+  @Nullable
+  @Override
+  public Object onMembersInjectionStarted(@Nonnull final Object target) {
+    return null;
+  }
+
+  @Override
+  public void onMembersInjected(@Nonnull final Object target, @Nullable final Object token,
+      final long durationNanos) {
+    membersInjections.add(durationNanos);
+  }
+
+  @Nullable
+  @Override
+  public Object onInjectorCreationStarted(@Nullable final Injector parentInjector, @Nonnull final Object component) {
+    return null;
+  }
+
+  @Override
+  public void onInjectorCreated(@Nonnull final Injector injector, @Nullable final Injector parentInjector,
+      @Nonnull final Object component, @Nullable final Object token, final long durationNanos) {
+    injectorCreations.add(durationNanos);
+  }
+
+  @Nonnull
+  public Map<Key<?>, Metric> getProvisionMetrics() {
+    return snapshot(provisions);
+  }
+
+  @Nonnull
+  public Map<Key<?>, Metric> getSingletonCreationMetrics() {
+    return snapshot(singletonCreations);
+  }
+
+  @Nonnull
+  public Metric getMembersInjectionMetric() {
+    return membersInjections.snapshot();
+  }
+
+  @Nonnull
+  public Metric getInjectorCreationMetric() {
+    return injectorCreations.snapshot();
+  }
+
+  private static Counter getCounter(final ConcurrentMap<Key<?>, Counter> counters, final Key<?> key) {
+    final Counter counter = counters.get(key);
+    if (counter != null) {
+      return counter;
+    }
+
+    final Counter newCounter = new Counter();
+    final Counter oldCounter = counters.putIfAbsent(key, newCounter);
+    return oldCounter != null ? oldCounter : newCounter;
+  }
+
+  private static Map<Key<?>, Metric> snapshot(final Map<Key<?>, Counter> counters) {
+    final Map<Key<?>, Metric> metrics = new HashMap<Key<?>, Metric>(counters.size());
+    for (final Map.Entry<Key<?>, Counter> entry : counters.entrySet()) {
+      metrics.put(entry.getKey(), entry.getValue().snapshot());
+    }
+    return metrics;
+  }
+
+  public static final class Metric {
+    private final long count;
+    private final long totalNanos;
+
+    Metric(final long count, final long totalNanos) {
+      this.count = count;
+      this.totalNanos = totalNanos;
+    }
+
+    public long getCount() {
+      return count;
+    }
+
+    public long getTotalNanos() {
+      return totalNanos;
+    }
+
+    @Override
+    public String toString() {
+      return "Metric{count=" + count + ", totalNanos=" + totalNanos + '}';
+    }
+  }
+
+  private static final class Counter {
+    private final AtomicLong count = new AtomicLong();
+    private final AtomicLong totalNanos = new AtomicLong();
+
+    void add(final long durationNanos) {
+      count.incrementAndGet();
+      totalNanos.addAndGet(durationNanos);
+    }
+
+    Metric snapshot() {
+      return new Metric(count.get(), totalNanos.get());
+    }
+  }
+}
@@ -36,4 +36,6 @@ public interface Injector {
   <T> Provider<T> getProvider(@Nonnull Type type);
   @Nonnull
   <T> Provider<T> getProvider(@Nonnull Key<? extends T> key);
+
+  void close();
 }
@@ -26,7 +26,20 @@ class InjectorOverridingProvider<T> extends AbstractInjectingProvider<T> {
 
   InjectorOverridingProvider(@Nonnull final InjectingProvider<T> provider, @Nonnull final Injector injector) {
     super(injector);
-    this.provider = provider;
+    this.provider = unwrap(provider);
+  }
+
+  @Nonnull
+  private static <T> InjectingProvider<T> unwrap(@Nonnull final InjectingProvider<T> provider) {
+    if (provider instanceof InjectorOverridingProvider<?>) {
+      return ((InjectorOverridingProvider<T>) provider).provider;
+    }
+    return provider;
+  }
+
+  @Nonnull
+  InjectingProvider<T> getProvider() {
+    return provider;
   }
 
   @Nonnull
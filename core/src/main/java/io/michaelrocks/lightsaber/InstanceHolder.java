@@ -0,0 +1,129 @@
+/*
+ * Copyright 2017 Michael Rozumyanskiy
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.michaelrocks.lightsaber;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicReferenceFieldUpdater;
+
+abstract class InstanceHolder<T> {
+  // noinspection rawtypes
+  private static final AtomicReferenceFieldUpdater<InstanceHolder, Object> STATE_UPDATER =
+      AtomicReferenceFieldUpdater.newUpdater(InstanceHolder.class, Object.class, "state");
+
+  private static final Marker DISPOSED = new Marker();
+
+  // Either null, a Construction when the instance is being created, DISPOSED, or the instance itself.
+  private volatile Object state;
+
+  @Nonnull
+  final T getInstance(@Nullable final Injector injector) {
+    final Object state = this.state;
+    if (state != null && !(state instanceof Marker)) {
+      // noinspection unchecked
+      return (T) state;
+    }
+
+    return getOrCreateInstance(injector);
+  }
+
+  @Nonnull
+  abstract T createInstance(@Nullable Injector injector);
+
+  private T getOrCreateInstance(final Injector injector) {
+    while (true) {
+      final Object state = this.state;
+      if (state == null) {
+        final Construction construction = new Construction();
+        if (STATE_UPDATER.compareAndSet(this, null, construction)) {
+          return constructInstance(injector, construction);
+        }
+      } else if (state instanceof Construction) {
+        ((Construction) state).await();
+      } else if (state == DISPOSED) {
+        throw new IllegalStateException("Instance has already been disposed");
+      } else {
+        // noinspection unchecked
+        return (T) state;
+      }
+    }
+  }
+
+  // Returns the instance if it has been created and makes the holder unusable, so the instance can be collected.
+  @Nullable
+  final T dispose() {
+    while (true) {
+      final Object state = this.state;
+      if (state instanceof Construction) {
+        ((Construction) state).await();
+      } else if (state == DISPOSED) {
+        return null;
+      } else if (STATE_UPDATER.compareAndSet(this, state, DISPOSED)) {
+        // noinspection unchecked
+        return (T) state;
+      }
+    }
+  }
+
+  private T constructInstance(final Injector injector, final Construction construction) {
+    boolean created = false;
+    try {
+      final T instance = createInstance(injector);
+      state = instance;
+      created = instance != null;
+      return instance;
+    } finally {
+      if (!created) {
+        state = null;
+      }
+      construction.release();
+    }
+  }
+
+  private static class Marker {
+  }
+
+  private static final class Construction extends Marker {
+    private final Thread owner = Thread.currentThread();
+    private final CountDownLatch latch = new CountDownLatch(1);
+
+    void await() {
+      if (owner == Thread.currentThread()) {
+        throw new ConfigurationException("Instance is requested recursively while it's being created");
+      }
+
+      boolean interrupted = false;
+      while (true) {
+        try {
+          latch.await();
+          break;
+        } catch (final InterruptedException exception) {
+          interrupted = true;
+        }
+      }
+
+      if (interrupted) {
+        Thread.currentThread().interrupt();
+      }
+    }
+
+    void release() {
+      latch.countDown();
+    }
+  }
+}
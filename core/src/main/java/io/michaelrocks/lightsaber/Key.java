@@ -22,10 +22,19 @@ import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
 import java.lang.annotation.Annotation;
 import java.lang.reflect.Type;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 
 public class Key<T> {
+  // Only keys created by the generated KeyRegistry are registered. They're static constants of a class that lives in
+  // this package and hence in the class loader of this class, so the map is bounded by the number of qualified keys in
+  // the project and doesn't retain anything KeyRegistry doesn't retain already.
+  private static final ConcurrentMap<Annotation, ConcurrentMap<Type, Key<?>>> registeredKeys =
+      new ConcurrentHashMap<Annotation, ConcurrentMap<Type, Key<?>>>();
+
   private final Type type;
   private final Annotation qualifier;
+  private final int hashCode;
 
   public Key(@Nonnull final Type type) {
     this(type, null);
@@ -34,24 +43,55 @@ public class Key<T> {
   public Key(@Nonnull final Type type, @Nullable final Annotation qualifier) {
     this.type = type;
     this.qualifier = qualifier;
+    this.hashCode = computeHashCode(type, qualifier);
   }
 
   public static <T> Key<T> of(@Nonnull final Class<T> type) {
-    return new Key<T>(type);
+    return of(type, null);
   }
 
   public static <T> Key<T> of(@Nonnull final Class<T> type, @Nullable final Annotation annotation) {
-    return new Key<T>(type, annotation);
+    return of((Type) type, annotation);
   }
 
   public static <T> Key<T> of(@Nonnull final Type type) {
-    return new Key<T>(type);
+    return of(type, null);
   }
 
   public static <T> Key<T> of(@Nonnull final Type type, @Nullable final Annotation annotation) {
+    // A key registered by KeyRegistry is returned as is, so it doesn't allocate and matches the key the injector has
+    // been configured with by identity.
+    if (annotation != null) {
+      final ConcurrentMap<Type, Key<?>> keys = registeredKeys.get(annotation);
+      final Key<?> key = keys != null ? keys.get(type) : null;
+      if (key != null) {
+        // noinspection unchecked
+        return (Key<T>) key;
+      }
+    }
+
     return new Key<T>(type, annotation);
   }
 
+  // Called from the static initializer of the generated KeyRegistry only.
+  static <T> Key<T> register(@Nonnull final Type type, @Nullable final Annotation annotation) {
+    if (annotation == null) {
+      return new Key<T>(type, null);
+    }
+
+    ConcurrentMap<Type, Key<?>> keys = registeredKeys.get(annotation);
+    if (keys == null) {
+      final ConcurrentMap<Type, Key<?>> newKeys = new ConcurrentHashMap<Type, Key<?>>();
+      final ConcurrentMap<Type, Key<?>> oldKeys = registeredKeys.putIfAbsent(annotation, newKeys);
+      keys = oldKeys != null ? oldKeys : newKeys;
+    }
+
+    final Key<T> newKey = new Key<T>(type, annotation);
+    final Key<?> oldKey = keys.putIfAbsent(type, newKey);
+    // noinspection unchecked
+    return oldKey != null ? (Key<T>) oldKey : newKey;
+  }
+
   @Nonnull
   public Type getType() {
     return type;
@@ -73,12 +113,17 @@ public class Key<T> {
     }
 
     final Key<?> key = (Key<?>) object;
-    return TypeUtils.equals(type, key.type)
+    return hashCode == key.hashCode
+        && TypeUtils.equals(type, key.type)
         && (qualifier != null ? qualifier.equals(key.qualifier) : key.qualifier == null);
   }
 
   @Override
   public int hashCode() {
+    return hashCode;
+  }
+
+  private static int computeHashCode(final Type type, final Annotation qualifier) {
     int result = 1;
     result = 31 * result + TypeUtils.hashCode(type);
     result = 31 * result + (qualifier != null ? qualifier.hashCode() : 0);
@@ -17,12 +17,11 @@
 package io.michaelrocks.lightsaber;
 
 import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
 import javax.inject.Provider;
 
-public class LazyAdapter<T> implements Lazy<T> {
-  private final Provider<T> provider;
-  private volatile T instance;
-  private final Object instanceLock = new Object();
+public class LazyAdapter<T> extends InstanceHolder<T> implements Lazy<T> {
+  private Provider<T> provider;
 
   public LazyAdapter(@Nonnull final Provider<T> provider) {
     this.provider = provider;
@@ -31,12 +30,16 @@ public class LazyAdapter<T> implements Lazy<T> {
   @Nonnull
   @Override
   public T get() {
-    if (instance == null) {
-      synchronized (instanceLock) {
-        if (instance == null) {
-          instance = provider.get();
-        }
-      }
+    return getInstance(null);
+  }
+
+  @Nonnull
+  @Override
+  T createInstance(@Nullable final Injector injector) {
+    final T instance = provider.get();
+    // noinspection ConstantConditions
+    if (instance != null) {
+      provider = null;
     }
     return instance;
   }
@@ -17,24 +17,30 @@
 package io.michaelrocks.lightsaber;
 
 import io.michaelrocks.lightsaber.internal.InjectingProvider;
-import io.michaelrocks.lightsaber.internal.MapIterator;
 
 import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
 import javax.inject.Provider;
 import java.lang.annotation.Annotation;
+import java.util.concurrent.Executor;
 
 public class Lightsaber {
   private static final Configurator DEFAULT_CONFIGURATOR = new DefaultConfigurator();
 
   private final Configurator configurator;
+  private final InjectionListener listener;
 
   Lightsaber() {
     this(DEFAULT_CONFIGURATOR);
   }
 
   Lightsaber(final Configurator configurator) {
+    this(configurator, null);
+  }
+
+  Lightsaber(final Configurator configurator, @Nullable final InjectionListener listener) {
     this.configurator = configurator;
+    this.listener = listener;
   }
 
   @Nonnull
@@ -44,9 +50,7 @@ public class Lightsaber {
 
   @Nonnull
   public Injector createInjector(@Nonnull final Object component) {
-    final LightsaberInjector injector = createInjectorInternal(null, component);
-    configurator.configureInjector(injector, null);
-    return injector;
+    return createInjectorInternal(null, component);
   }
 
   @Nonnull
@@ -68,56 +72,146 @@ public class Lightsaber {
       throw new NullPointerException("Trying to create an injector with a null component");
     }
 
-    final LightsaberInjector parent = (LightsaberInjector) parentInjector;
-    final LightsaberInjector injector = new LightsaberInjector(this);
-    if (parent != null) {
-      overrideProviders(injector, parent);
+    if (listener == null) {
+      return new LightsaberInjector(this, (LightsaberInjector) parentInjector, component);
     }
-    configurator.configureInjector(injector, component);
+
+    final Object token = listener.onInjectorCreationStarted(parentInjector, component);
+    final long startTime = System.nanoTime();
+    final LightsaberInjector injector = new LightsaberInjector(this, (LightsaberInjector) parentInjector, component);
+    listener.onInjectorCreated(injector, parentInjector, component, token, System.nanoTime() - startTime);
     return injector;
   }
 
-  private static void overrideProviders(final LightsaberInjector injector, final LightsaberInjector parent) {
-    final MapIterator<Object, InjectingProvider<?>> iterator = parent.getProviders().iterator();
-    while (iterator.hasNext()) {
-      final Object key = iterator.next();
-      if (!Injector.class.equals(key)) {
-        // noinspection unchecked
-        overrideProvider(injector, key, iterator.getValue());
-      }
-    }
+  @Nullable
+  InjectionListener getListener() {
+    return listener;
   }
 
-  private static <T> void overrideProvider(final LightsaberInjector injector, final Object key,
-      final InjectingProvider<T> provider) {
-    final InjectingProvider<T> overriddenProvider = new InjectorOverridingProvider<T>(provider, injector);
-    injector.registerProviderInternal(key, overriddenProvider);
+  void configureInjector(final LightsaberInjector injector, final Object component) {
+    configurator.configureInjector(injector, component);
   }
 
   void injectMembers(final Injector injector, final Object object) {
+    if (listener == null) {
+      configurator.injectMembers(injector, object);
+      return;
+    }
+
+    final Object token = listener.onMembersInjectionStarted(object);
+    final long startTime = System.nanoTime();
     configurator.injectMembers(injector, object);
+    listener.onMembersInjected(object, token, System.nanoTime() - startTime);
   }
 
   @Nonnull
   public static <T> T getInstance(@Nonnull final Injector injector, @Nonnull final Class<? extends T> type) {
-    return injector.getInstance(Key.of(type));
+    return injector.getInstance(type);
   }
 
   @Nonnull
   public static <T> T getInstance(@Nonnull final Injector injector, @Nonnull final Class<? extends T> type,
       @Nullable final Annotation annotation) {
-    return injector.getInstance(Key.of(type, annotation));
+    if (annotation == null) {
+      return injector.getInstance(type);
+    } else {
+      return injector.getInstance(Key.of(type, annotation));
+    }
   }
 
   @Nonnull
   public static <T> Provider<T> getProvider(@Nonnull final Injector injector, @Nonnull final Class<? extends T> type) {
-    return injector.getProvider(Key.of(type));
+    return injector.getProvider(type);
   }
 
   @Nonnull
   public static <T> Provider<T> getProvider(@Nonnull final Injector injector, @Nonnull final Class<? extends T> type,
       @Nullable final Annotation annotation) {
-    return injector.getProvider(Key.of(type, annotation));
+    if (annotation == null) {
+      return injector.getProvider(type);
+    } else {
+      return injector.getProvider(Key.of(type, annotation));
+    }
+  }
+
+  public static void warmUpSingletons(@Nonnull final Injector injector, @Nonnull final Executor executor)
+      throws InterruptedException {
+    if (!(injector instanceof LightsaberInjector)) {
+      throw new IllegalArgumentException("Cannot warm up singletons of a non-Lightsaber injector");
+    }
+
+    SingletonInitializer.initializeSingletons((LightsaberInjector) injector, executor);
+  }
+
+  public static void closeInjector(@Nonnull final Injector injector, @Nonnull final DisposalHook hook,
+      @Nullable final Executor executor) throws InterruptedException {
+    if (!(injector instanceof LightsaberInjector)) {
+      throw new IllegalArgumentException("Cannot close a non-Lightsaber injector");
+    }
+
+    ((LightsaberInjector) injector).close(hook, executor);
+  }
+
+  @Nonnull
+  public static RequestContext openRequestContext(@Nonnull final Injector injector) {
+    if (!(injector instanceof LightsaberInjector)) {
+      throw new IllegalArgumentException("Cannot open a request context for a non-Lightsaber injector");
+    }
+
+    return new RequestContext((LightsaberInjector) injector);
+  }
+
+  public static void clearThreadScope() {
+    ThreadScopeProvider.clearCurrentThread();
+  }
+
+  public static <T> void releasePooledInstance(@Nonnull final Injector injector, @Nonnull final Class<T> type,
+      @Nonnull final T instance) {
+    releasePooledInstance(injector.<T>getProvider(type), instance);
+  }
+
+  public static <T> void releasePooledInstance(@Nonnull final Provider<T> provider, @Nonnull final T instance) {
+    // noinspection ConstantConditions
+    if (instance == null) {
+      throw new NullPointerException("Cannot release a null instance");
+    }
+
+    getPooledProvider(provider).release(instance);
+  }
+
+  @Nonnull
+  public static PoolStatistics getPoolStatistics(@Nonnull final Provider<?> provider) {
+    return getPooledProvider(provider).getStatistics();
+  }
+
+  private static <T> PooledProvider<T> getPooledProvider(final Provider<T> provider) {
+    Provider<?> target = provider instanceof InjectorOverridingProvider<?>
+        ? ((InjectorOverridingProvider<T>) provider).getProvider()
+        : provider;
+    if (target instanceof InjectingProvider<?>) {
+      target = MonitoringProvider.unwrap((InjectingProvider<?>) target);
+    }
+    if (!(target instanceof PooledProvider<?>)) {
+      throw new IllegalArgumentException("Provider " + provider + " doesn't provide pooled instances");
+    }
+
+    // noinspection unchecked
+    return (PooledProvider<T>) target;
+  }
+
+  public static class Builder {
+    private InjectionListener listener;
+
+    @Nonnull
+    public Builder setInjectionListener(@Nullable final InjectionListener listener) {
+      this.listener = listener;
+      return this;
+    }
+
+    @Nonnull
+    public Lightsaber build() {
+      return new Lightsaber(DEFAULT_CONFIGURATOR, listener);
+    }
   }
 
   interface Configurator {
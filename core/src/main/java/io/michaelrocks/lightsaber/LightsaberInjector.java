@@ -16,51 +16,36 @@
 
 package io.michaelrocks.lightsaber;
 
+import io.michaelrocks.lightsaber.internal.IndexedInjector;
 import io.michaelrocks.lightsaber.internal.InjectingProvider;
-import io.michaelrocks.lightsaber.internal.IterableMap;
-import io.michaelrocks.lightsaber.internal.LightweightHashMap;
-import io.michaelrocks.lightsaber.internal.TypeUtils;
 
 import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
 import javax.inject.Provider;
 import java.lang.reflect.Type;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executor;
 
-class LightsaberInjector implements Injector {
+class LightsaberInjector implements IndexedInjector {
   private final Lightsaber lightsaber;
-  private final IterableMap<Object, InjectingProvider<?>> providers =
-      new LightweightHashMap<Object, InjectingProvider<?>>() {
-        @Override
-        protected int hashCode(final Object key) {
-          if (key instanceof Class<?>) {
-            return key.hashCode();
-          }
-          if (key instanceof Type) {
-            return TypeUtils.hashCode((Type) key);
-          } else {
-            return key.hashCode();
-          }
-        }
+  private final LightsaberInjector parent;
+  private final int inheritedSlotLimit;
+  private final ProviderTable providers;
+  private final ConcurrentMap<InjectingProvider<?>, InjectingProvider<?>> overridingProviders;
 
-        @Override
-        protected boolean areKeysEqual(final Object key1, final Object key2) {
-          if (key1 == key2) {
-            return true;
-          }
-
-          if (key1 instanceof Class<?> && key2 instanceof Class<?>) {
-            return key1.equals(key2);
-          }
-          if (key1 instanceof Type && key2 instanceof Type) {
-            return TypeUtils.equals((Type) key1, (Type) key2);
-          } else {
-            return key1.equals(key2);
-          }
-        }
-      };
+  private ProviderTable.Builder providersBuilder = new ProviderTable.Builder();
+  private boolean closed;
 
-  LightsaberInjector(@Nonnull final Lightsaber lightsaber) {
+  LightsaberInjector(@Nonnull final Lightsaber lightsaber, @Nullable final LightsaberInjector parent,
+      @Nonnull final Object component) {
     this.lightsaber = lightsaber;
-    registerProvider(Injector.class, new InjectingProvider<Injector>() {
+    this.parent = parent;
+    this.inheritedSlotLimit = parent == null ? 0 : parent.getInheritableSlotLimit();
+    this.overridingProviders =
+        parent == null ? null : new ConcurrentHashMap<InjectingProvider<?>, InjectingProvider<?>>();
+    registerProvider(INJECTOR_SLOT, Injector.class, new InjectingProvider<Injector>() {
       @Override
       public Injector get() {
         return LightsaberInjector.this;
@@ -72,6 +57,15 @@ class LightsaberInjector implements Injector {
         return LightsaberInjector.this;
       }
     });
+
+    lightsaber.configureInjector(this, component);
+    if (parent == null) {
+      lightsaber.configureInjector(this, null);
+    }
+
+    // The table is published via final fields so the injector can be shared between threads without synchronization.
+    this.providers = providersBuilder.build(parent == null);
+    providersBuilder = null;
   }
 
   @Override
@@ -82,20 +76,36 @@ class LightsaberInjector implements Injector {
   @Nonnull
   @Override
   public <T> T getInstance(@Nonnull final Class<? extends T> type) {
-    return getProvider(type).get();
+    return getInstanceInternal(type);
   }
 
   @Nonnull
   @Override
   public <T> T getInstance(@Nonnull final Type type) {
-    // noinspection unchecked
-    return (T) getProvider(type).get();
+    return getInstanceInternal(type);
   }
 
   @Nonnull
   @Override
   public <T> T getInstance(@Nonnull final Key<? extends T> key) {
-    return getProvider(key).get();
+    if (key.getQualifier() == null) {
+      return getInstanceInternal(key.getType());
+    } else {
+      return getInstanceInternal(key);
+    }
+  }
+
+  @Nonnull
+  @Override
+  public <T> T getInstance(final int slot) {
+    final InjectingProvider<?> provider = getOwnProvider(slot);
+    if (provider != null) {
+      // noinspection unchecked
+      return (T) provider.get();
+    }
+
+    // noinspection unchecked
+    return (T) findInheritedProvider(slot).getWithInjector(this);
   }
 
   @Nonnull
@@ -120,18 +130,176 @@ class LightsaberInjector implements Injector {
     }
   }
 
+  @Nonnull
+  @Override
+  public <T> Provider<T> getProvider(final int slot) {
+    final InjectingProvider<?> provider = getOwnProvider(slot);
+    if (provider != null) {
+      // noinspection unchecked
+      return (Provider<T>) provider;
+    }
+
+    return getInheritedProvider(slot);
+  }
+
+  @Override
+  public void close() {
+    try {
+      close(SingletonDisposer.CLOSEABLE_DISPOSAL_HOOK, null);
+    } catch (final InterruptedException exception) {
+      // Disposal without an executor never waits.
+      Thread.currentThread().interrupt();
+    }
+  }
+
+  void close(@Nonnull final DisposalHook hook, @Nullable final Executor executor) throws InterruptedException {
+    synchronized (this) {
+      if (closed) {
+        return;
+      }
+      closed = true;
+    }
+
+    if (overridingProviders != null) {
+      overridingProviders.clear();
+    }
+    // Thread-scoped instances can be released only for the closing thread, other threads keep them until they die
+    // or call Lightsaber.clearThreadScope().
+    ThreadScopeProvider.clearCurrentThread(this);
+    SingletonDisposer.disposeSingletons(this, hook, executor);
+  }
+
+  @Nonnull
+  InjectingProvider<?> findProvider(@Nonnull final Object key) {
+    final InjectingProvider<?> provider = providers.get(key);
+    return provider != null ? provider : findInheritedProvider(key);
+  }
+
+  @Nonnull
+  InjectingProvider<?> findProvider(final int slot) {
+    final InjectingProvider<?> provider = getOwnProvider(slot);
+    return provider != null ? provider : findInheritedProvider(slot);
+  }
+
+  @Nonnull
+  Lightsaber getLightsaber() {
+    return lightsaber;
+  }
+
+  private <T> T getInstanceInternal(final Object key) {
+    final InjectingProvider<?> provider = providers.get(key);
+    if (provider != null) {
+      // noinspection unchecked
+      return (T) provider.get();
+    }
+
+    // noinspection unchecked
+    return (T) findInheritedProvider(key).getWithInjector(this);
+  }
+
   private <T> Provider<T> getProviderInternal(final Object key) {
+    final InjectingProvider<?> provider = providers.get(key);
+    if (provider != null) {
+      // noinspection unchecked
+      return (Provider<T>) provider;
+    }
+
+    return getInjectorOverridingProvider(findInheritedProvider(key));
+  }
+
+  // Inherited providers are looked up in the tables of the parents directly and the overriding providers are cached
+  // per binding, so nothing in a child injector is sized by the slots of its parents.
+  private <T> Provider<T> getInheritedProvider(final int slot) {
+    return getInjectorOverridingProvider(findInheritedProvider(slot));
+  }
+
+  // Overriding providers are shared between lookups by key and by slot, so the same binding always yields the same
+  // provider instance.
+  private <T> InjectingProvider<T> getInjectorOverridingProvider(final InjectingProvider<?> provider) {
+    final InjectingProvider<?> cachedProvider = overridingProviders.get(provider);
+    if (cachedProvider != null) {
+      // noinspection unchecked
+      return (InjectingProvider<T>) cachedProvider;
+    }
+
     // noinspection unchecked
-    final Provider<T> provider = (Provider<T>) providers.get(key);
-    if (provider == null) {
-      throw new ConfigurationException("Provider for " + key + " not found in " + this);
+    final InjectingProvider<T> newProvider = new InjectorOverridingProvider<T>((InjectingProvider<T>) provider, this);
+    final InjectingProvider<?> oldProvider = overridingProviders.putIfAbsent(provider, newProvider);
+    // noinspection unchecked
+    return oldProvider != null ? (InjectingProvider<T>) oldProvider : newProvider;
+  }
+
+  private InjectingProvider<?> findInheritedProvider(final int slot) {
+    if (slot >= 0 && slot < inheritedSlotLimit) {
+      for (LightsaberInjector injector = parent; injector != null; injector = injector.parent) {
+        final InjectingProvider<?> provider = injector.getOwnProvider(slot);
+        if (provider != null) {
+          return provider;
+        }
+      }
     }
-    return provider;
+
+    throw new ConfigurationException("Provider for slot " + slot + " not found in " + this);
+  }
+
+  private InjectingProvider<?> findInheritedProvider(final Object key) {
+    for (LightsaberInjector injector = parent; injector != null; injector = injector.parent) {
+      final InjectingProvider<?> provider = injector.providers.get(key);
+      if (provider != null) {
+        return provider;
+      }
+    }
+
+    throw new ConfigurationException("Provider for " + key + " not found in " + this);
+  }
+
+  @Nullable
+  InjectingProvider<?> getOwnProvider(final int slot) {
+    return providers.getSlotProvider(slot);
+  }
+
+  private int getInheritableSlotLimit() {
+    return Math.max(providers.getSlotLimit(), inheritedSlotLimit);
+  }
+
+  @Nonnull
+  List<InjectingProvider<?>> getOwnProviders() {
+    return providers.getProviders();
   }
 
   @Nonnull
-  public IterableMap<Object, InjectingProvider<?>> getProviders() {
-    return providers;
+  int[][] getSingletonLevels() {
+    return providers.getSingletonLevels();
+  }
+
+  void registerSingletonLevels(@Nonnull final int[][] singletonLevels) {
+    getProvidersBuilder().setSingletonLevels(singletonLevels);
+  }
+
+  @Nonnull
+  int[][] getDisposalLevels() {
+    return providers.getDisposalLevels();
+  }
+
+  void registerDisposalLevels(@Nonnull final int[][] disposalLevels) {
+    getProvidersBuilder().setDisposalLevels(disposalLevels);
+  }
+
+  <T> void registerProvider(final int slot, final Class<? extends T> type,
+      final InjectingProvider<? extends T> provider) {
+    registerProviderInternal(type, provider);
+    registerSlot(slot, type);
+  }
+
+  <T> void registerProvider(final int slot, final Type type, final InjectingProvider<? extends T> provider) {
+    registerProviderInternal(type, provider);
+    registerSlot(slot, type);
+  }
+
+  <T> void registerProvider(final int slot, final Key<T> key, final InjectingProvider<? extends T> provider) {
+    final Object internalKey = key.getQualifier() == null ? key.getType() : key;
+    registerProviderInternal(internalKey, provider);
+    registerSlot(slot, internalKey);
   }
 
   <T> void registerProvider(final Class<? extends T> type, final InjectingProvider<? extends T> provider) {
@@ -151,9 +319,49 @@ class LightsaberInjector implements Injector {
   }
 
   <T> void registerProviderInternal(final Object key, final InjectingProvider<? extends T> provider) {
-    final Provider<?> oldProvider = providers.put(key, provider);
+    final ProviderTable.Builder builder = getProvidersBuilder();
+    final InjectionListener listener = lightsaber.getListener();
+    if (!Injector.class.equals(key)) {
+      for (LightsaberInjector injector = parent; injector != null; injector = injector.parent) {
+        if (injector.providers.get(key) != null) {
+          throw new ConfigurationException("Provider for " + key + " already registered in " + injector);
+        }
+      }
+    }
+
+    // Providers are wrapped only when a listener is installed so injectors without a listener aren't affected.
+    final InjectingProvider<?> registeredProvider = listener == null ? provider : monitor(key, provider, listener);
+    final Provider<?> oldProvider = builder.put(key, registeredProvider);
     if (oldProvider != null) {
       throw new ConfigurationException("Provider for " + key + " already registered in " + this);
     }
   }
+
+  private void registerSlot(final int slot, final Object key) {
+    final ProviderTable.Builder builder = getProvidersBuilder();
+    final InjectingProvider<?> provider = builder.get(key);
+    if (provider == null) {
+      throw new ConfigurationException("Provider for " + key + " not found in " + this);
+    }
+
+    builder.putSlot(slot, key, provider);
+  }
+
+  private static InjectingProvider<?> monitor(final Object key, final InjectingProvider<?> provider,
+      final InjectionListener listener) {
+    if (Injector.class.equals(key)) {
+      return provider;
+    }
+
+    final Key<?> monitoredKey = key instanceof Key<?> ? (Key<?>) key : Key.of((Type) key);
+    return MonitoringProvider.monitor(monitoredKey, provider, listener);
+  }
+
+  private ProviderTable.Builder getProvidersBuilder() {
+    final ProviderTable.Builder builder = providersBuilder;
+    if (builder == null) {
+      throw new ConfigurationException("Injector " + this + " has already been configured");
+    }
+    return builder;
+  }
 }
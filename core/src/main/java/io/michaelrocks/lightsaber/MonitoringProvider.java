@@ -0,0 +1,88 @@
+/*
+ * Copyright 2017 Michael Rozumyanskiy
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.michaelrocks.lightsaber;
+
+import io.michaelrocks.lightsaber.internal.InjectingProvider;
+
+import javax.annotation.Nonnull;
+
+class MonitoringProvider<T> implements InjectingProvider<T> {
+  private final Key<?> key;
+  private final InjectingProvider<T> provider;
+  private final InjectionListener listener;
+  private final boolean singletonCreation;
+
+  private MonitoringProvider(@Nonnull final Key<?> key, @Nonnull final InjectingProvider<T> provider,
+      @Nonnull final InjectionListener listener, final boolean singletonCreation) {
+    this.key = key;
+    this.provider = provider;
+    this.listener = listener;
+    this.singletonCreation = singletonCreation;
+  }
+
+  @Nonnull
+  static <T> InjectingProvider<T> monitor(@Nonnull final Key<?> key, @Nonnull final InjectingProvider<T> provider,
+      @Nonnull final InjectionListener listener) {
+    if (provider instanceof SingletonProvider<?>) {
+      ((SingletonProvider<T>) provider).monitorCreation(key, listener);
+    }
+    return listener.isProvisionMonitored() ? new MonitoringProvider<T>(key, provider, listener, false) : provider;
+  }
+
+  @Nonnull
+  static <T> InjectingProvider<T> monitorSingletonCreation(@Nonnull final Key<?> key,
+      @Nonnull final InjectingProvider<T> provider, @Nonnull final InjectionListener listener) {
+    return new MonitoringProvider<T>(key, provider, listener, true);
+  }
+
+  @Nonnull
+  static InjectingProvider<?> unwrap(@Nonnull final InjectingProvider<?> provider) {
+    return provider instanceof MonitoringProvider<?> ? ((MonitoringProvider<?>) provider).provider : provider;
+  }
+
+  @Nonnull
+  @Override
+  public T get() {
+    final Object token = start();
+    final long startTime = System.nanoTime();
+    final T instance = provider.get();
+    report(token, System.nanoTime() - startTime);
+    return instance;
+  }
+
+  @Nonnull
+  @Override
+  public T getWithInjector(@Nonnull final Injector injector) {
+    final Object token = start();
+    final long startTime = System.nanoTime();
+    final T instance = provider.getWithInjector(injector);
+    report(token, System.nanoTime() - startTime);
+    return instance;
+  }
+
+  private Object start() {
+    return singletonCreation ? listener.onSingletonCreationStarted(key) : listener.onProvisionStarted(key);
+  }
+
+  private void report(final Object token, final long durationNanos) {
+    if (singletonCreation) {
+      listener.onSingletonCreated(key, token, durationNanos);
+    } else {
+      listener.onProvision(key, token, durationNanos);
+    }
+  }
+}
@@ -0,0 +1,65 @@
+/*
+ * Copyright 2017 Michael Rozumyanskiy
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.michaelrocks.lightsaber;
+
+public final class PoolStatistics {
+  private final long hitCount;
+  private final long missCount;
+  private final long releaseCount;
+  private final long discardCount;
+  private final int idleCount;
+
+  PoolStatistics(final long hitCount, final long missCount, final long releaseCount, final long discardCount,
+      final int idleCount) {
+    this.hitCount = hitCount;
+    this.missCount = missCount;
+    this.releaseCount = releaseCount;
+    this.discardCount = discardCount;
+    this.idleCount = idleCount;
+  }
+
+  public long getHitCount() {
+    return hitCount;
+  }
+
+  public long getMissCount() {
+    return missCount;
+  }
+
+  public long getReleaseCount() {
+    return releaseCount;
+  }
+
+  public long getDiscardCount() {
+    return discardCount;
+  }
+
+  public int getIdleCount() {
+    return idleCount;
+  }
+
+  @Override
+  public String toString() {
+    return "PoolStatistics{"
+        + "hitCount=" + hitCount
+        + ", missCount=" + missCount
+        + ", releaseCount=" + releaseCount
+        + ", discardCount=" + discardCount
+        + ", idleCount=" + idleCount
+        + '}';
+  }
+}
@@ -0,0 +1,210 @@
+/*
+ * Copyright 2017 Michael Rozumyanskiy
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.michaelrocks.lightsaber;
+
+import io.michaelrocks.lightsaber.internal.InjectingProvider;
+
+import javax.annotation.Nonnull;
+
+class PooledProvider<T> implements InjectingProvider<T> {
+  private static final int MAX_STRIPE_COUNT = 16;
+  static final int STRIPE_CAPACITY = 4;
+
+  private final InjectingProvider<T> provider;
+  private final Stripe[] stripes;
+
+  public PooledProvider(@Nonnull final InjectingProvider<T> provider) {
+    this(provider, getDefaultStripeCount());
+  }
+
+  PooledProvider(@Nonnull final InjectingProvider<T> provider, final int stripeCount) {
+    this.provider = provider;
+    this.stripes = new Stripe[stripeCount];
+    for (int i = 0; i < stripeCount; ++i) {
+      stripes[i] = new Stripe();
+    }
+  }
+
+  @Nonnull
+  @Override
+  public T get() {
+    final Stripe stripe = getStripe();
+    final T instance = borrow(stripe);
+    return instance != null ? instance : lend(stripe, provider.get());
+  }
+
+  @Nonnull
+  @Override
+  public T getWithInjector(@Nonnull final Injector injector) {
+    final Stripe stripe = getStripe();
+    final T instance = borrow(stripe);
+    return instance != null ? instance : lend(stripe, provider.getWithInjector(injector));
+  }
+
+  void release(@Nonnull final T instance) {
+    // An instance released twice would be lent to two borrowers at once, so only lent instances are accepted. Instances
+    // are usually released by the thread that borrowed them, so the stripe of the current thread is checked first.
+    final Stripe currentStripe = getStripe();
+    if (release(currentStripe, instance)) {
+      return;
+    }
+
+    for (final Stripe stripe : stripes) {
+      if (stripe != currentStripe && release(stripe, instance)) {
+        return;
+      }
+    }
+
+    throw new IllegalArgumentException(
+        "Instance " + instance + " hasn't been borrowed from the pool or has already been released");
+  }
+
+  @Nonnull
+  PoolStatistics getStatistics() {
+    long hitCount = 0;
+    long missCount = 0;
+    long releaseCount = 0;
+    long discardCount = 0;
+    int idleCount = 0;
+    for (final Stripe stripe : stripes) {
+      synchronized (stripe) {
+        hitCount += stripe.hitCount;
+        missCount += stripe.missCount;
+        releaseCount += stripe.releaseCount;
+        discardCount += stripe.discardCount;
+        idleCount += stripe.size;
+      }
+    }
+    return new PoolStatistics(hitCount, missCount, releaseCount, discardCount, idleCount);
+  }
+
+  private T borrow(final Stripe stripe) {
+    synchronized (stripe) {
+      if (stripe.size == 0) {
+        return null;
+      }
+
+      stripe.hitCount += 1;
+      final int index = --stripe.size;
+      // noinspection unchecked
+      final T instance = (T) stripe.instances[index];
+      stripe.instances[index] = null;
+      stripe.addLentInstance(instance);
+      return instance;
+    }
+  }
+
+  private T lend(final Stripe stripe, final T instance) {
+    synchronized (stripe) {
+      stripe.missCount += 1;
+      stripe.addLentInstance(instance);
+    }
+    return instance;
+  }
+
+  private static boolean release(final Stripe stripe, final Object instance) {
+    synchronized (stripe) {
+      if (!stripe.removeLentInstance(instance)) {
+        return false;
+      }
+
+      if (stripe.size < STRIPE_CAPACITY) {
+        stripe.instances[stripe.size++] = instance;
+        stripe.releaseCount += 1;
+      } else {
+        stripe.discardCount += 1;
+      }
+      return true;
+    }
+  }
+
+  private Stripe getStripe() {
+    // The stripe count is a power of two, so a mask is enough to pick a stripe.
+    return stripes[(int) Thread.currentThread().getId() & (stripes.length - 1)];
+  }
+
+  private static int getDefaultStripeCount() {
+    final int processorCount = Math.min(Runtime.getRuntime().availableProcessors(), MAX_STRIPE_COUNT);
+    return Integer.highestOneBit(processorCount * 2 - 1);
+  }
+
+  private static final class Stripe {
+    private static final int INITIAL_LENT_CAPACITY = 8;
+
+    final Object[] instances = new Object[STRIPE_CAPACITY];
+    int size;
+    long hitCount;
+    long missCount;
+    long releaseCount;
+    long discardCount;
+
+    // An open-addressed identity set of lent instances that is at most half full. It grows with the number of
+    // instances borrowed at once, so a steady borrow and release cycle doesn't allocate.
+    private Object[] lentInstances = new Object[INITIAL_LENT_CAPACITY];
+    private int lentCount;
+
+    void addLentInstance(final Object instance) {
+      if ((lentCount + 1) * 2 > lentInstances.length) {
+        final Object[] oldLentInstances = lentInstances;
+        lentInstances = new Object[oldLentInstances.length * 2];
+        for (final Object oldInstance : oldLentInstances) {
+          if (oldInstance != null) {
+            lentInstances[findFreeIndex(oldInstance)] = oldInstance;
+          }
+        }
+      }
+
+      lentInstances[findFreeIndex(instance)] = instance;
+      lentCount += 1;
+    }
+
+    boolean removeLentInstance(final Object instance) {
+      final int mask = lentInstances.length - 1;
+      int index = System.identityHashCode(instance) & mask;
+      while (lentInstances[index] != instance) {
+        if (lentInstances[index] == null) {
+          return false;
+        }
+        index = (index + 1) & mask;
+      }
+
+      // Instances following the removed one are shifted back, so every instance stays reachable from its hash index.
+      int freeIndex = index;
+      index = (index + 1) & mask;
+      while (lentInstances[index] != null) {
+        final int hashIndex = System.identityHashCode(lentInstances[index]) & mask;
+        if (((index - hashIndex) & mask) >= ((index - freeIndex) & mask)) {
+          lentInstances[freeIndex] = lentInstances[index];
+          freeIndex = index;
+        }
+        index = (index + 1) & mask;
+      }
+      lentInstances[freeIndex] = null;
+      lentCount -= 1;
+      return true;
+    }
+
+    private int findFreeIndex(final Object instance) {
+      final int mask = lentInstances.length - 1;
+      int index = System.identityHashCode(instance) & mask;
+      while (lentInstances[index] != null) {
+        index = (index + 1) & mask;
+      }
+      return index;
+    }
+  }
+}
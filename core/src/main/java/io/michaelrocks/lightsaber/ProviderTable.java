@@ -0,0 +1,340 @@
+/*
+ * Copyright 2017 Michael Rozumyanskiy
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.michaelrocks.lightsaber;
+
+import io.michaelrocks.lightsaber.internal.InjectingProvider;
+import io.michaelrocks.lightsaber.internal.IterableMap;
+import io.michaelrocks.lightsaber.internal.LightweightHashMap;
+import io.michaelrocks.lightsaber.internal.MapIterator;
+import io.michaelrocks.lightsaber.internal.PerfectHash;
+import io.michaelrocks.lightsaber.internal.TypeUtils;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import java.lang.reflect.Type;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+final class ProviderTable {
+  private final IterableMap<Object, InjectingProvider<?>> keyMap;
+  private final int[] seeds;
+  private final int[] hashes;
+  private final Object[] keys;
+  private final InjectingProvider<?>[] providers;
+  private final Object[] overflowKeys;
+  private final InjectingProvider<?>[] overflowProviders;
+  private final int slotBase;
+  private final InjectingProvider<?>[] slotProviders;
+  private final int[] sparseSlots;
+  private final InjectingProvider<?>[] sparseSlotProviders;
+  private final int[][] singletonLevels;
+  private final int[][] disposalLevels;
+
+  private ProviderTable(final IterableMap<Object, InjectingProvider<?>> keyMap, final int[] seeds,
+      final int[] hashes, final Object[] keys,
+      final InjectingProvider<?>[] providers, final Object[] overflowKeys,
+      final InjectingProvider<?>[] overflowProviders, final int slotBase, final InjectingProvider<?>[] slotProviders,
+      final int[] sparseSlots, final InjectingProvider<?>[] sparseSlotProviders, final int[][] singletonLevels,
+      final int[][] disposalLevels) {
+    this.keyMap = keyMap;
+    this.seeds = seeds;
+    this.hashes = hashes;
+    this.keys = keys;
+    this.providers = providers;
+    this.overflowKeys = overflowKeys;
+    this.overflowProviders = overflowProviders;
+    this.slotBase = slotBase;
+    this.slotProviders = slotProviders;
+    this.sparseSlots = sparseSlots;
+    this.sparseSlotProviders = sparseSlotProviders;
+    this.singletonLevels = singletonLevels;
+    this.disposalLevels = disposalLevels;
+  }
+
+  @Nullable
+  InjectingProvider<?> get(@Nonnull final Object key) {
+    if (keyMap != null) {
+      return keyMap.get(key);
+    }
+
+    if (keys.length != 0) {
+      final int hash = hashCode(key);
+      final int index = PerfectHash.getIndex(hash, seeds, keys.length);
+      if (hashes[index] == hash) {
+        final Object candidate = keys[index];
+        if (candidate != null && areKeysEqual(candidate, key)) {
+          return providers[index];
+        }
+      }
+    }
+
+    for (int i = 0; i < overflowKeys.length; ++i) {
+      if (areKeysEqual(overflowKeys[i], key)) {
+        return overflowProviders[i];
+      }
+    }
+
+    return null;
+  }
+
+  @Nonnull
+  List<InjectingProvider<?>> getProviders() {
+    if (keyMap != null) {
+      final List<InjectingProvider<?>> result = new ArrayList<InjectingProvider<?>>(keyMap.size());
+      final MapIterator<Object, InjectingProvider<?>> iterator = keyMap.iterator();
+      while (iterator.hasNext()) {
+        iterator.next();
+        result.add(iterator.getValue());
+      }
+      return result;
+    }
+
+    final List<InjectingProvider<?>> result = new ArrayList<InjectingProvider<?>>(keys.length + overflowKeys.length);
+    for (final InjectingProvider<?> provider : providers) {
+      if (provider != null) {
+        result.add(provider);
+      }
+    }
+    result.addAll(Arrays.asList(overflowProviders));
+    return result;
+  }
+
+  @Nullable
+  InjectingProvider<?> getSlotProvider(final int slot) {
+    final int index = slot - slotBase;
+    if (index >= 0 && index < slotProviders.length) {
+      return slotProviders[index];
+    }
+
+    if (sparseSlots.length != 0) {
+      final int sparseIndex = Arrays.binarySearch(sparseSlots, slot);
+      if (sparseIndex >= 0) {
+        return sparseSlotProviders[sparseIndex];
+      }
+    }
+    return null;
+  }
+
+  int getSlotLimit() {
+    final int denseLimit = slotProviders.length == 0 ? 0 : slotBase + slotProviders.length;
+    final int sparseLimit = sparseSlots.length == 0 ? 0 : sparseSlots[sparseSlots.length - 1] + 1;
+    return Math.max(denseLimit, sparseLimit);
+  }
+
+  @Nonnull
+  int[][] getSingletonLevels() {
+    return singletonLevels;
+  }
+
+  @Nonnull
+  int[][] getDisposalLevels() {
+    return disposalLevels;
+  }
+
+  static int hashCode(final Object key) {
+    if (key instanceof Class<?>) {
+      return key.hashCode();
+    }
+    if (key instanceof Type) {
+      return TypeUtils.hashCode((Type) key);
+    } else {
+      return key.hashCode();
+    }
+  }
+
+  static boolean areKeysEqual(final Object key1, final Object key2) {
+    if (key1 == key2) {
+      return true;
+    }
+
+    if (key1 instanceof Class<?> && key2 instanceof Class<?>) {
+      return key1.equals(key2);
+    }
+    if (key1 instanceof Type && key2 instanceof Type) {
+      return TypeUtils.equals((Type) key1, (Type) key2);
+    } else {
+      return key1.equals(key2);
+    }
+  }
+
+  static class Builder {
+    private static final int INITIAL_SLOT_COUNT = 16;
+    private static final int DENSE_SLOT_FACTOR = 2;
+    private static final int MAX_LINEAR_KEY_COUNT = 8;
+    private static final int[] NO_SEEDS = new int[0];
+    private static final int[][] NO_SINGLETON_LEVELS = new int[0][];
+
+    private final IterableMap<Object, InjectingProvider<?>> providers =
+        new LightweightHashMap<Object, InjectingProvider<?>>() {
+          @Override
+          protected int hashCode(final Object key) {
+            return ProviderTable.hashCode(key);
+          }
+
+          @Override
+          protected boolean areKeysEqual(final Object key1, final Object key2) {
+            return ProviderTable.areKeysEqual(key1, key2);
+          }
+        };
+
+    private int[] slots = new int[INITIAL_SLOT_COUNT];
+    private Object[] slotKeys = new Object[INITIAL_SLOT_COUNT];
+    private InjectingProvider<?>[] slotProviders = new InjectingProvider<?>[INITIAL_SLOT_COUNT];
+    private int slotCount;
+    private int[][] singletonLevels = NO_SINGLETON_LEVELS;
+    private int[][] disposalLevels = NO_SINGLETON_LEVELS;
+
+    @Nullable
+    InjectingProvider<?> get(@Nonnull final Object key) {
+      return providers.get(key);
+    }
+
+    @Nullable
+    InjectingProvider<?> put(@Nonnull final Object key, @Nonnull final InjectingProvider<?> provider) {
+      return providers.put(key, provider);
+    }
+
+    // Slots are stored in the order of registration since they're global for the whole project and an array indexed
+    // by slot would be as large as the whole graph. Slots bound twice are reported when the table is built.
+    void putSlot(final int slot, @Nonnull final Object key, @Nonnull final InjectingProvider<?> provider) {
+      if (slotCount == slots.length) {
+        final int slotCapacity = slots.length * 2;
+        slots = Arrays.copyOf(slots, slotCapacity);
+        slotKeys = Arrays.copyOf(slotKeys, slotCapacity);
+        slotProviders = Arrays.copyOf(slotProviders, slotCapacity);
+      }
+
+      slots[slotCount] = slot;
+      slotKeys[slotCount] = key;
+      slotProviders[slotCount] = provider;
+      slotCount += 1;
+    }
+
+    void setSingletonLevels(@Nonnull final int[][] singletonLevels) {
+      this.singletonLevels = singletonLevels;
+    }
+
+    void setDisposalLevels(@Nonnull final int[][] disposalLevels) {
+      this.disposalLevels = disposalLevels;
+    }
+
+    @Nonnull
+    ProviderTable build(final boolean isRoot) {
+      // Only root injectors, which are created once, pay for a perfect hash. Small tables are scanned linearly and
+      // larger tables of child injectors keep the map they've been configured with, so creating a child stays cheap.
+      final boolean isLinear = providers.size() <= MAX_LINEAR_KEY_COUNT;
+      final IterableMap<Object, InjectingProvider<?>> keyMap = isRoot || isLinear ? null : providers;
+      final int count = keyMap == null ? providers.size() : 0;
+      final Object[] allKeys = new Object[count];
+      final InjectingProvider<?>[] allProviders = new InjectingProvider<?>[count];
+      final int[] allHashes = new int[count];
+      final MapIterator<Object, InjectingProvider<?>> iterator = providers.iterator();
+      for (int i = 0; i < count && iterator.hasNext(); ++i) {
+        allKeys[i] = iterator.next();
+        allProviders[i] = iterator.getValue();
+        allHashes[i] = ProviderTable.hashCode(allKeys[i]);
+      }
+
+      // Keys which don't get an index in the perfect hash, e.g. keys with equal hash codes, are looked up linearly.
+      final PerfectHash perfectHash = isLinear || keyMap != null ? null : PerfectHash.create(allHashes);
+      final int size = perfectHash == null ? 0 : perfectHash.getSize();
+      final int[] hashes = new int[size];
+      final Object[] keys = new Object[size];
+      final InjectingProvider<?>[] providers = new InjectingProvider<?>[size];
+      final Object[] overflowKeys = new Object[count];
+      final InjectingProvider<?>[] overflowProviders = new InjectingProvider<?>[count];
+      int overflowCount = 0;
+      for (int i = 0; i < count; ++i) {
+        final int index = perfectHash == null ? PerfectHash.NO_INDEX : perfectHash.getIndex(i);
+        if (index == PerfectHash.NO_INDEX) {
+          overflowKeys[overflowCount] = allKeys[i];
+          overflowProviders[overflowCount] = allProviders[i];
+          overflowCount += 1;
+        } else {
+          hashes[index] = allHashes[i];
+          keys[index] = allKeys[i];
+          providers[index] = allProviders[i];
+        }
+      }
+
+      final int[] positions = sortSlotPositions();
+      final int[] denseRange = findDenseSlotRange(positions);
+      final int denseFrom = denseRange[0];
+      final int denseTo = denseRange[1];
+      final int slotBase = denseFrom == denseTo ? 0 : slots[positions[denseFrom]];
+      final int denseSize = denseFrom == denseTo ? 0 : slots[positions[denseTo - 1]] - slotBase + 1;
+      final InjectingProvider<?>[] denseSlotProviders = new InjectingProvider<?>[denseSize];
+      final int[] sparseSlots = new int[slotCount - (denseTo - denseFrom)];
+      final InjectingProvider<?>[] sparseSlotProviders = new InjectingProvider<?>[sparseSlots.length];
+      int sparseCount = 0;
+      for (int i = 0; i < slotCount; ++i) {
+        final int position = positions[i];
+        if (i >= denseFrom && i < denseTo) {
+          denseSlotProviders[slots[position] - slotBase] = slotProviders[position];
+        } else {
+          sparseSlots[sparseCount] = slots[position];
+          sparseSlotProviders[sparseCount] = slotProviders[position];
+          sparseCount += 1;
+        }
+      }
+
+      final int[] seeds = perfectHash == null ? NO_SEEDS : perfectHash.getSeeds();
+      return new ProviderTable(keyMap, seeds, hashes, keys, providers,
+          Arrays.copyOf(overflowKeys, overflowCount), Arrays.copyOf(overflowProviders, overflowCount),
+          slotBase, denseSlotProviders, sparseSlots, sparseSlotProviders, singletonLevels, disposalLevels);
+    }
+
+    private int[] sortSlotPositions() {
+      final long[] sortedSlots = new long[slotCount];
+      for (int i = 0; i < slotCount; ++i) {
+        sortedSlots[i] = ((long) slots[i] << 32) | i;
+      }
+      Arrays.sort(sortedSlots);
+
+      final int[] positions = new int[slotCount];
+      for (int i = 0; i < slotCount; ++i) {
+        positions[i] = (int) sortedSlots[i];
+        if (i > 0 && (sortedSlots[i] >> 32) == (sortedSlots[i - 1] >> 32)) {
+          throw new ConfigurationException("Slot " + slots[positions[i]] + " is already bound to "
+              + slotKeys[positions[i - 1]] + ", cannot bind it to " + slotKeys[positions[i]]);
+        }
+      }
+      return positions;
+    }
+
+    // Slots of a component are numbered contiguously, so the table of a child injector covers its own bindings only
+    // and doesn't grow with the graph. The largest range of sorted slots which is at least half full is stored in an
+    // array, the rest, e.g. the injector itself and bindings shared with other components, are searched for.
+    private int[] findDenseSlotRange(final int[] positions) {
+      int bestFrom = 0;
+      int bestTo = 0;
+      int from = 0;
+      for (int to = 1; to <= slotCount; ++to) {
+        final int lastSlot = slots[positions[to - 1]];
+        while (lastSlot - slots[positions[from]] + 1 > DENSE_SLOT_FACTOR * (to - from)) {
+          from += 1;
+        }
+        if (to - from > bestTo - bestFrom) {
+          bestFrom = from;
+          bestTo = to;
+        }
+      }
+      return new int[] { bestFrom, bestTo };
+    }
+  }
+}
@@ -0,0 +1,186 @@
+/*
+ * Copyright 2017 Michael Rozumyanskiy
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.michaelrocks.lightsaber;
+
+import io.michaelrocks.lightsaber.internal.IndexedInjector;
+import io.michaelrocks.lightsaber.internal.InjectingProvider;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import javax.inject.Provider;
+import java.io.Closeable;
+import java.lang.reflect.Type;
+import java.util.Arrays;
+
+// A lightweight injector that resolves bindings via its parent injector but keeps instances of request-scoped
+// bindings in its own array indexed by request slots assigned by the processor.
+public final class RequestContext implements IndexedInjector, Closeable {
+  private static final Object[] NO_INSTANCES = new Object[0];
+  private static final Provider<?>[] NO_PROVIDERS = new Provider<?>[0];
+
+  private final LightsaberInjector injector;
+  private Object[] instances = NO_INSTANCES;
+  // Providers returned by slot are created on the first request and reused, including the one for the context itself.
+  private Provider<?>[] slotProviders = NO_PROVIDERS;
+  private boolean closed;
+
+  RequestContext(@Nonnull final LightsaberInjector injector) {
+    this.injector = injector;
+  }
+
+  @Override
+  public void injectMembers(@Nonnull final Object target) {
+    injector.getLightsaber().injectMembers(this, target);
+  }
+
+  @Nonnull
+  @Override
+  public <T> T getInstance(@Nonnull final Class<? extends T> type) {
+    return getInstanceInternal(injector.findProvider(type));
+  }
+
+  @Nonnull
+  @Override
+  public <T> T getInstance(@Nonnull final Type type) {
+    return getInstanceInternal(injector.findProvider(type));
+  }
+
+  @Nonnull
+  @Override
+  public <T> T getInstance(@Nonnull final Key<? extends T> key) {
+    return getInstanceInternal(injector.findProvider(key.getQualifier() == null ? key.getType() : key));
+  }
+
+  @Nonnull
+  @Override
+  public <T> T getInstance(final int slot) {
+    if (slot == INJECTOR_SLOT) {
+      // noinspection unchecked
+      return (T) this;
+    }
+
+    return getInstanceInternal(injector.findProvider(slot));
+  }
+
+  @Nonnull
+  @Override
+  public <T> Provider<T> getProvider(@Nonnull final Class<? extends T> type) {
+    return newContextProvider(injector.findProvider(type));
+  }
+
+  @Nonnull
+  @Override
+  public <T> Provider<T> getProvider(@Nonnull final Type type) {
+    return newContextProvider(injector.findProvider(type));
+  }
+
+  @Nonnull
+  @Override
+  public <T> Provider<T> getProvider(@Nonnull final Key<? extends T> key) {
+    return newContextProvider(injector.findProvider(key.getQualifier() == null ? key.getType() : key));
+  }
+
+  @Nonnull
+  @Override
+  public <T> Provider<T> getProvider(final int slot) {
+    final Provider<?> cachedProvider = getSlotProvider(slot);
+    if (cachedProvider != null) {
+      // noinspection unchecked
+      return (Provider<T>) cachedProvider;
+    }
+
+    final Provider<?> provider =
+        slot == INJECTOR_SLOT ? newInjectorProvider() : newContextProvider(injector.findProvider(slot));
+    // noinspection unchecked
+    return (Provider<T>) putSlotProvider(slot, provider);
+  }
+
+  @Override
+  public synchronized void close() {
+    closed = true;
+    instances = NO_INSTANCES;
+    slotProviders = NO_PROVIDERS;
+  }
+
+  @Nullable
+  synchronized Object getScopedInstance(final int requestSlot) {
+    checkNotClosed();
+    return requestSlot < instances.length ? instances[requestSlot] : null;
+  }
+
+  // Returns the instance that ends up in the context, which is a previously stored one if another thread won the race.
+  @Nonnull
+  synchronized Object putScopedInstance(final int requestSlot, @Nonnull final Object instance) {
+    checkNotClosed();
+    if (requestSlot >= instances.length) {
+      instances = Arrays.copyOf(instances, Math.max(requestSlot + 1, instances.length * 2));
+    }
+
+    final Object oldInstance = instances[requestSlot];
+    if (oldInstance != null) {
+      return oldInstance;
+    }
+
+    instances[requestSlot] = instance;
+    return instance;
+  }
+
+  @Nullable
+  private synchronized Provider<?> getSlotProvider(final int slot) {
+    return slot < slotProviders.length ? slotProviders[slot] : null;
+  }
+
+  @Nonnull
+  private synchronized Provider<?> putSlotProvider(final int slot, @Nonnull final Provider<?> provider) {
+    if (slot >= slotProviders.length) {
+      slotProviders = Arrays.copyOf(slotProviders, Math.max(slot + 1, slotProviders.length * 2));
+    }
+
+    final Provider<?> oldProvider = slotProviders[slot];
+    if (oldProvider != null) {
+      return oldProvider;
+    }
+
+    slotProviders[slot] = provider;
+    return provider;
+  }
+
+  private void checkNotClosed() {
+    if (closed) {
+      throw new IllegalStateException("Request context " + this + " has already been closed");
+    }
+  }
+
+  private <T> T getInstanceInternal(final InjectingProvider<?> provider) {
+    // noinspection unchecked
+    return (T) provider.getWithInjector(this);
+  }
+
+  private <T> Provider<T> newContextProvider(final InjectingProvider<?> provider) {
+    // noinspection unchecked
+    return new InjectorOverridingProvider<T>((InjectingProvider<T>) provider, this);
+  }
+
+  private Provider<RequestContext> newInjectorProvider() {
+    return new Provider<RequestContext>() {
+      @Override
+      public RequestContext get() {
+        return RequestContext.this;
+      }
+    };
+  }
+}
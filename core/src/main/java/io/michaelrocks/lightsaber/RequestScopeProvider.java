@@ -0,0 +1,55 @@
+/*
+ * Copyright 2017 Michael Rozumyanskiy
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.michaelrocks.lightsaber;
+
+import io.michaelrocks.lightsaber.internal.InjectingProvider;
+
+import javax.annotation.Nonnull;
+
+class RequestScopeProvider<T> implements InjectingProvider<T> {
+  private final InjectingProvider<T> provider;
+  private final int requestSlot;
+
+  public RequestScopeProvider(@Nonnull final InjectingProvider<T> provider, final int requestSlot) {
+    this.provider = provider;
+    this.requestSlot = requestSlot;
+  }
+
+  @Nonnull
+  @Override
+  public T get() {
+    throw new ConfigurationException("Request-scoped instances can only be provided by a request context");
+  }
+
+  @Nonnull
+  @Override
+  public T getWithInjector(@Nonnull final Injector injector) {
+    if (!(injector instanceof RequestContext)) {
+      return get();
+    }
+
+    final RequestContext context = (RequestContext) injector;
+    final Object instance = context.getScopedInstance(requestSlot);
+    if (instance != null) {
+      // noinspection unchecked
+      return (T) instance;
+    }
+
+    // noinspection unchecked
+    return (T) context.putScopedInstance(requestSlot, provider.getWithInjector(context));
+  }
+}
@@ -0,0 +1,55 @@
+/*
+ * Copyright 2017 Michael Rozumyanskiy
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.michaelrocks.lightsaber;
+
+import io.michaelrocks.lightsaber.internal.InjectingProvider;
+
+import javax.annotation.Nonnull;
+
+class ReusableProvider<T> implements InjectingProvider<T> {
+  private final InjectingProvider<T> provider;
+  // Racy single-check: the field is neither volatile nor guarded, so concurrent callers may create a few instances.
+  // The instance is published through a data race too, so other threads may observe it partially constructed unless
+  // the type is immutable and keeps all of its state in final fields. Reusable bindings must be safe to publish so.
+  private T instance;
+
+  public ReusableProvider(@Nonnull final InjectingProvider<T> provider) {
+    this.provider = provider;
+  }
+
+  @Nonnull
+  @Override
+  public T get() {
+    T instance = this.instance;
+    if (instance == null) {
+      instance = provider.get();
+      this.instance = instance;
+    }
+    return instance;
+  }
+
+  @Nonnull
+  @Override
+  public T getWithInjector(@Nonnull final Injector injector) {
+    T instance = this.instance;
+    if (instance == null) {
+      instance = provider.getWithInjector(injector);
+      this.instance = instance;
+    }
+    return instance;
+  }
+}
@@ -0,0 +1,132 @@
+/*
+ * Copyright 2017 Michael Rozumyanskiy
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.michaelrocks.lightsaber;
+
+import io.michaelrocks.lightsaber.internal.InjectingProvider;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import java.io.Closeable;
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicReference;
+
+final class SingletonDisposer {
+  static final DisposalHook CLOSEABLE_DISPOSAL_HOOK = new DisposalHook() {
+    @Override
+    public void dispose(@Nonnull final Object instance) throws Exception {
+      if (instance instanceof Closeable) {
+        ((Closeable) instance).close();
+      }
+    }
+  };
+
+  private SingletonDisposer() {
+  }
+
+  static void disposeSingletons(@Nonnull final LightsaberInjector injector, @Nonnull final DisposalHook hook,
+      @Nullable final Executor executor) throws InterruptedException {
+    final Map<SingletonProvider<?>, Boolean> leveledSingletons = new IdentityHashMap<SingletonProvider<?>, Boolean>();
+    final int[][] levels = injector.getDisposalLevels();
+    final List<List<SingletonProvider<?>>> groups = new ArrayList<List<SingletonProvider<?>>>(levels.length + 1);
+    for (final int[] level : levels) {
+      final List<SingletonProvider<?>> group = new ArrayList<SingletonProvider<?>>(level.length);
+      for (final int slot : level) {
+        final InjectingProvider<?> provider = unwrap(injector.getOwnProvider(slot));
+        if (provider instanceof SingletonProvider<?>) {
+          group.add((SingletonProvider<?>) provider);
+          leveledSingletons.put((SingletonProvider<?>) provider, Boolean.TRUE);
+        }
+      }
+      groups.add(group);
+    }
+
+    // Singletons without a level may depend on any other singleton so they're disposed first.
+    final List<SingletonProvider<?>> unleveledSingletons = new ArrayList<SingletonProvider<?>>();
+    for (final InjectingProvider<?> ownProvider : injector.getOwnProviders()) {
+      final InjectingProvider<?> provider = unwrap(ownProvider);
+      if (provider instanceof SingletonProvider<?> && !leveledSingletons.containsKey(provider)) {
+        unleveledSingletons.add((SingletonProvider<?>) provider);
+      }
+    }
+    groups.add(unleveledSingletons);
+
+    // Singletons of a level may use only singletons of the previous levels, including the ones injected into fields
+    // and methods or obtained from a Provider or Lazy, so they're disposed in reverse order and the singletons of the
+    // same level are disposed in parallel.
+    final AtomicReference<Throwable> failure = new AtomicReference<Throwable>();
+    for (int i = groups.size() - 1; i >= 0; --i) {
+      disposeGroup(groups.get(i), hook, executor, failure);
+    }
+
+    final Throwable throwable = failure.get();
+    if (throwable instanceof RuntimeException) {
+      throw (RuntimeException) throwable;
+    } else if (throwable instanceof Error) {
+      throw (Error) throwable;
+    } else if (throwable != null) {
+      throw new ConfigurationException("Cannot dispose a singleton", throwable);
+    }
+  }
+
+  private static InjectingProvider<?> unwrap(final InjectingProvider<?> provider) {
+    return provider == null ? null : MonitoringProvider.unwrap(provider);
+  }
+
+  private static void disposeGroup(final List<SingletonProvider<?>> group, final DisposalHook hook,
+      final Executor executor, final AtomicReference<Throwable> failure) throws InterruptedException {
+    if (executor == null || group.size() <= 1) {
+      for (final SingletonProvider<?> provider : group) {
+        disposeSingleton(provider, hook, failure);
+      }
+      return;
+    }
+
+    final CountDownLatch latch = new CountDownLatch(group.size());
+    for (final SingletonProvider<?> provider : group) {
+      executor.execute(new Runnable() {
+        @Override
+        public void run() {
+          try {
+            disposeSingleton(provider, hook, failure);
+          } finally {
+            latch.countDown();
+          }
+        }
+      });
+    }
+
+    latch.await();
+  }
+
+  private static void disposeSingleton(final SingletonProvider<?> provider, final DisposalHook hook,
+      final AtomicReference<Throwable> failure) {
+    // A failed disposal doesn't prevent other singletons from being disposed.
+    try {
+      final Object instance = provider.dispose();
+      if (instance != null) {
+        hook.dispose(instance);
+      }
+    } catch (final Throwable throwable) {
+      failure.compareAndSet(null, throwable);
+    }
+  }
+}
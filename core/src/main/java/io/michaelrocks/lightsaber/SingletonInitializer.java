@@ -0,0 +1,70 @@
+/*
+ * Copyright 2017 Michael Rozumyanskiy
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.michaelrocks.lightsaber;
+
+import javax.annotation.Nonnull;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicReference;
+
+final class SingletonInitializer {
+  private SingletonInitializer() {
+  }
+
+  static void initializeSingletons(@Nonnull final LightsaberInjector injector, @Nonnull final Executor executor)
+      throws InterruptedException {
+    // Singletons of a level depend only on singletons of the previous levels so they can be created in parallel.
+    for (final int[] level : injector.getSingletonLevels()) {
+      if (level.length == 1) {
+        injector.getInstance(level[0]);
+      } else {
+        initializeLevel(injector, level, executor);
+      }
+    }
+  }
+
+  private static void initializeLevel(final LightsaberInjector injector, final int[] level, final Executor executor)
+      throws InterruptedException {
+    final CountDownLatch latch = new CountDownLatch(level.length);
+    final AtomicReference<Throwable> failure = new AtomicReference<Throwable>();
+    for (final int slot : level) {
+      executor.execute(new Runnable() {
+        @Override
+        public void run() {
+          try {
+            injector.getInstance(slot);
+          } catch (final Throwable throwable) {
+            failure.compareAndSet(null, throwable);
+          } finally {
+            latch.countDown();
+          }
+        }
+      });
+    }
+
+    latch.await();
+
+    final Throwable throwable = failure.get();
+    if (throwable instanceof RuntimeException) {
+      throw (RuntimeException) throwable;
+    } else if (throwable instanceof Error) {
+      throw (Error) throwable;
+    } else if (throwable != null) {
+      throw new ConfigurationException("Cannot create a singleton", throwable);
+    }
+  }
+}
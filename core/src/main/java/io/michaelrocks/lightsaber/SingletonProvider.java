@@ -19,38 +19,39 @@ package io.michaelrocks.lightsaber;
 import io.michaelrocks.lightsaber.internal.InjectingProvider;
 
 import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
 
-class SingletonProvider<T> implements InjectingProvider<T> {
-  private final InjectingProvider<T> provider;
-  private volatile T instance;
-  private final Object instanceLock = new Object();
+class SingletonProvider<T> extends InstanceHolder<T> implements InjectingProvider<T> {
+  private InjectingProvider<T> provider;
 
   public SingletonProvider(@Nonnull final InjectingProvider<T> provider) {
     this.provider = provider;
   }
 
+  void monitorCreation(@Nonnull final Key<?> key, @Nonnull final InjectionListener listener) {
+    provider = MonitoringProvider.monitorSingletonCreation(key, provider, listener);
+  }
+
   @Nonnull
   @Override
   public T get() {
-    if (instance == null) {
-      synchronized (instanceLock) {
-        if (instance == null) {
-          instance = provider.get();
-        }
-      }
-    }
-    return instance;
+    return getInstance(null);
   }
 
   @Nonnull
   @Override
   public T getWithInjector(@Nonnull final Injector injector) {
-    if (instance == null) {
-      synchronized (instanceLock) {
-        if (instance == null) {
-          instance = provider.getWithInjector(injector);
-        }
-      }
+    return getInstance(injector);
+  }
+
+  @Nonnull
+  @Override
+  T createInstance(@Nullable final Injector injector) {
+    final T instance = injector == null ? provider.get() : provider.getWithInjector(injector);
+    // The delegate isn't needed anymore once the instance is published, so let it be garbage collected.
+    // noinspection ConstantConditions
+    if (instance != null) {
+      provider = null;
     }
     return instance;
   }
@@ -0,0 +1,171 @@
+/*
+ * Copyright 2017 Michael Rozumyanskiy
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.michaelrocks.lightsaber;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+
+// An InjectionListener that records a provision tree for a startup window. Completion callbacks are called after an
+// operation completes, so nested operations are reported before their parents. When an operation completes it adopts
+// all the pending operations of the same thread that completed after it had started.
+public class StartupRecorder implements InjectionListener {
+  public static final int DEFAULT_MAX_RECORD_COUNT = 100000;
+
+  private final int maxRecordCount;
+  private final AtomicInteger recordCount = new AtomicInteger();
+  private final Queue<StartupReport.Node> nodes = new ConcurrentLinkedQueue<StartupReport.Node>();
+  private final ThreadLocal<List<StartupReport.Node>> pendingNodes = new ThreadLocal<List<StartupReport.Node>>() {
+    @Override
+    protected List<StartupReport.Node> initialValue() {
+      return new ArrayList<StartupReport.Node>();
+    }
+  };
+
+  private volatile boolean recording = true;
+
+  public StartupRecorder() {
+    this(DEFAULT_MAX_RECORD_COUNT);
+  }
+
+  public StartupRecorder(final int maxRecordCount) {
+    this.maxRecordCount = maxRecordCount;
+  }
+
+  public boolean isRecording() {
+    return recording;
+  }
+
+  public void stop() {
+    recording = false;
+  }
+
+  @Override
+  public boolean isProvisionMonitored() {
+    return true;
+  }
+
+  @Nullable
+  @Override
+  public Object onProvisionStarted(@Nonnull final Key<?> key) {
+    return null;
+  }
+
+  @Override
+  public void onProvision(@Nonnull final Key<?> key, @Nullable final Object token, final long durationNanos) {
+    record(StartupReport.Kind.PROVISION, getName(key), durationNanos);
+  }
+
+  @Nullable
+  @Override
+  public Object onSingletonCreationStarted(@Nonnull final Key<?> key) {
+    return null;
+  }
+
+  @Override
+  public void onSingletonCreated(@Nonnull final Key<?> key, @Nullable final Object token, final long durationNanos) {
+    record(StartupReport.Kind.SINGLETON_CREATION, getName(key), durationNanos);
+  }
+
+  @Nullable
+  @Override
+  public Object onMembersInjectionStarted(@Nonnull final Object target) {
+    return null;
+  }
+
+  @Override
+  public void onMembersInjected(@Nonnull final Object target, @Nullable final Object token,
+      final long durationNanos) {
+    record(StartupReport.Kind.MEMBERS_INJECTION, target.getClass().getName(), durationNanos);
+  }
+
+  @Nullable
+  @Override
+  public Object onInjectorCreationStarted(@Nullable final Injector parentInjector, @Nonnull final Object component) {
+    return null;
+  }
+
+  @Override
+  public void onInjectorCreated(@Nonnull final Injector injector, @Nullable final Injector parentInjector,
+      @Nonnull final Object component, @Nullable final Object token, final long durationNanos) {
+    record(StartupReport.Kind.INJECTOR_CREATION, component.getClass().getName(), durationNanos);
+  }
+
+  // The report should be created after recording has been stopped or when no injection is in progress. Otherwise
+  // operations that haven't completed yet are missing and their children are reported as roots.
+  @Nonnull
+  public StartupReport createReport() {
+    final List<StartupReport.Node> roots = new ArrayList<StartupReport.Node>();
+    for (final StartupReport.Node node : nodes) {
+      if (!node.isAdopted()) {
+        roots.add(node);
+      }
+    }
+    return new StartupReport(roots);
+  }
+
+  private void record(final StartupReport.Kind kind, final String name, final long durationNanos) {
+    if (!recording) {
+      return;
+    }
+
+    if (recordCount.incrementAndGet() > maxRecordCount) {
+      recording = false;
+      return;
+    }
+
+    final long endTime = System.nanoTime();
+    final long startTime = endTime - durationNanos;
+    final List<StartupReport.Node> pending = pendingNodes.get();
+    int firstChild = pending.size();
+    while (firstChild > 0 && pending.get(firstChild - 1).getEndTime() > startTime) {
+      firstChild -= 1;
+    }
+
+    final List<StartupReport.Node> children = pending.subList(firstChild, pending.size());
+    final StartupReport.Node node;
+    if (kind == StartupReport.Kind.PROVISION && children.size() == 1 && isSingletonCreation(children.get(0), name)) {
+      // A singleton provider reports creation of an instance inside of its own provision, so they're merged.
+      final StartupReport.Node creation = children.get(0);
+      node = new StartupReport.Node(StartupReport.Kind.SINGLETON_CREATION, name, durationNanos, endTime,
+          creation.getChildren());
+      creation.adopt();
+    } else {
+      node = new StartupReport.Node(kind, name, durationNanos, endTime, new ArrayList<StartupReport.Node>(children));
+      for (final StartupReport.Node child : children) {
+        child.adopt();
+      }
+    }
+
+    children.clear();
+    pending.add(node);
+    nodes.add(node);
+  }
+
+  private static boolean isSingletonCreation(final StartupReport.Node node, final String name) {
+    return node.getKind() == StartupReport.Kind.SINGLETON_CREATION && node.getName().equals(name);
+  }
+
+  // Bindings of the same type with different qualifiers or type arguments must not be merged in the report.
+  private static String getName(final Key<?> key) {
+    return key.toString();
+  }
+}
@@ -0,0 +1,342 @@
+/*
+ * Copyright 2017 Michael Rozumyanskiy
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.michaelrocks.lightsaber;
+
+import javax.annotation.Nonnull;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+public class StartupReport {
+  private static final int DEFAULT_LARGEST_SELF_TIME_COUNT = 20;
+  private static final String INDENT = "  ";
+
+  private static final Comparator<Binding> SELF_TIME_COMPARATOR = new Comparator<Binding>() {
+    @Override
+    public int compare(final Binding binding1, final Binding binding2) {
+      return compareDescending(binding1.getSelfNanos(), binding2.getSelfNanos());
+    }
+  };
+
+  private final List<Node> roots;
+
+  StartupReport(@Nonnull final List<Node> roots) {
+    this.roots = Collections.unmodifiableList(roots);
+  }
+
+  @Nonnull
+  public List<Node> getRoots() {
+    return roots;
+  }
+
+  // The chain of the slowest operations starting from the slowest root down to a leaf.
+  @Nonnull
+  public List<Node> getCriticalPath() {
+    final List<Node> path = new ArrayList<Node>();
+    Node node = findSlowestNode(roots);
+    while (node != null) {
+      path.add(node);
+      node = findSlowestNode(node.getChildren());
+    }
+    return path;
+  }
+
+  // Self times of all the operations with the same name are summed up.
+  @Nonnull
+  public List<Binding> getLargestSelfTimeBindings(final int count) {
+    final Map<String, Binding> bindings = new HashMap<String, Binding>();
+    for (final Node root : roots) {
+      collectBindings(root, bindings);
+    }
+
+    final List<Binding> result = new ArrayList<Binding>(bindings.values());
+    Collections.sort(result, SELF_TIME_COMPARATOR);
+    return result.size() <= count ? result : new ArrayList<Binding>(result.subList(0, count));
+  }
+
+  public void writeText(@Nonnull final Appendable output) throws IOException {
+    final List<Node> criticalPath = getCriticalPath();
+    output.append("Critical path:\n");
+    for (final Node node : criticalPath) {
+      output.append(INDENT);
+      appendNodeText(output, node);
+      output.append('\n');
+    }
+
+    output.append("\nLargest self time bindings:\n");
+    for (final Binding binding : getLargestSelfTimeBindings(DEFAULT_LARGEST_SELF_TIME_COUNT)) {
+      output.append(INDENT).append(formatNanos(binding.getSelfNanos())).append(" self, ")
+          .append(formatNanos(binding.getTotalNanos())).append(" total, ")
+          .append(String.valueOf(binding.getCount())).append("x ").append(binding.getName()).append('\n');
+    }
+
+    output.append("\nProvision tree (* marks the critical path):\n");
+    final Set<Node> criticalNodes = new HashSet<Node>(criticalPath);
+    for (final Node root : roots) {
+      appendTreeText(output, root, 1, criticalNodes);
+    }
+  }
+
+  public void writeJson(@Nonnull final Appendable output) throws IOException {
+    output.append("{\"criticalPath\":[");
+    final List<Node> criticalPath = getCriticalPath();
+    for (int i = 0; i < criticalPath.size(); ++i) {
+      if (i != 0) {
+        output.append(',');
+      }
+      appendNodeJson(output, criticalPath.get(i), false);
+    }
+
+    output.append("],\"largestSelfTimeBindings\":[");
+    final List<Binding> bindings = getLargestSelfTimeBindings(DEFAULT_LARGEST_SELF_TIME_COUNT);
+    for (int i = 0; i < bindings.size(); ++i) {
+      if (i != 0) {
+        output.append(',');
+      }
+      final Binding binding = bindings.get(i);
+      output.append("{\"name\":");
+      appendJsonString(output, binding.getName());
+      output.append(",\"count\":").append(String.valueOf(binding.getCount()))
+          .append(",\"selfNanos\":").append(String.valueOf(binding.getSelfNanos()))
+          .append(",\"totalNanos\":").append(String.valueOf(binding.getTotalNanos())).append('}');
+    }
+
+    output.append("],\"roots\":[");
+    for (int i = 0; i < roots.size(); ++i) {
+      if (i != 0) {
+        output.append(',');
+      }
+      appendNodeJson(output, roots.get(i), true);
+    }
+    output.append("]}");
+  }
+
+  @Override
+  public String toString() {
+    final StringBuilder builder = new StringBuilder();
+    try {
+      writeText(builder);
+    } catch (final IOException exception) {
+      throw new AssertionError(exception);
+    }
+    return builder.toString();
+  }
+
+  private static Node findSlowestNode(final List<Node> nodes) {
+    Node slowestNode = null;
+    for (final Node node : nodes) {
+      if (slowestNode == null || node.getTotalNanos() > slowestNode.getTotalNanos()) {
+        slowestNode = node;
+      }
+    }
+    return slowestNode;
+  }
+
+  private static void collectBindings(final Node node, final Map<String, Binding> bindings) {
+    if (node.getKind() != Kind.INJECTOR_CREATION) {
+      final Binding binding = bindings.get(node.getName());
+      if (binding == null) {
+        bindings.put(node.getName(), new Binding(node.getName(), 1, node.getSelfNanos(), node.getTotalNanos()));
+      } else {
+        bindings.put(node.getName(), new Binding(node.getName(), binding.getCount() + 1,
+            binding.getSelfNanos() + node.getSelfNanos(), binding.getTotalNanos() + node.getTotalNanos()));
+      }
+    }
+
+    for (final Node child : node.getChildren()) {
+      collectBindings(child, bindings);
+    }
+  }
+
+  private static void appendTreeText(final Appendable output, final Node node, final int depth,
+      final Set<Node> criticalNodes) throws IOException {
+    for (int i = 0; i < depth; ++i) {
+      output.append(INDENT);
+    }
+    output.append(criticalNodes.contains(node) ? "* " : "  ");
+    appendNodeText(output, node);
+    output.append('\n');
+
+    for (final Node child : node.getChildren()) {
+      appendTreeText(output, child, depth + 1, criticalNodes);
+    }
+  }
+
+  private static void appendNodeText(final Appendable output, final Node node) throws IOException {
+    output.append(node.getName())
+        .append(" [").append(node.getKind().name().toLowerCase(Locale.US)).append("] ")
+        .append(formatNanos(node.getTotalNanos())).append(" total, ")
+        .append(formatNanos(node.getSelfNanos())).append(" self");
+  }
+
+  private static void appendNodeJson(final Appendable output, final Node node, final boolean withChildren)
+      throws IOException {
+    output.append("{\"name\":");
+    appendJsonString(output, node.getName());
+    output.append(",\"kind\":\"").append(node.getKind().name()).append('"')
+        .append(",\"selfNanos\":").append(String.valueOf(node.getSelfNanos()))
+        .append(",\"totalNanos\":").append(String.valueOf(node.getTotalNanos()));
+    if (withChildren) {
+      output.append(",\"children\":[");
+      final List<Node> children = node.getChildren();
+      for (int i = 0; i < children.size(); ++i) {
+        if (i != 0) {
+          output.append(',');
+        }
+        appendNodeJson(output, children.get(i), true);
+      }
+      output.append(']');
+    }
+    output.append('}');
+  }
+
+  private static void appendJsonString(final Appendable output, final String string) throws IOException {
+    output.append('"');
+    for (int i = 0; i < string.length(); ++i) {
+      final char c = string.charAt(i);
+      if (c == '"' || c == '\\') {
+        output.append('\\').append(c);
+      } else if (c < 0x20) {
+        output.append(String.format(Locale.US, "\\u%04x", (int) c));
+      } else {
+        output.append(c);
+      }
+    }
+    output.append('"');
+  }
+
+  private static String formatNanos(final long nanos) {
+    return String.format(Locale.US, "%.3f ms", nanos / 1000000.0);
+  }
+
+  private static int compareDescending(final long value1, final long value2) {
+    return value1 < value2 ? 1 : (value1 == value2 ? 0 : -1);
+  }
+
+  public enum Kind {
+    PROVISION,
+    SINGLETON_CREATION,
+    MEMBERS_INJECTION,
+    INJECTOR_CREATION
+  }
+
+  public static final class Node {
+    private final Kind kind;
+    private final String name;
+    private final long totalNanos;
+    private final long endTime;
+    private final List<Node> children;
+
+    private volatile boolean adopted;
+
+    Node(final Kind kind, final String name, final long totalNanos, final long endTime, final List<Node> children) {
+      this.kind = kind;
+      this.name = name;
+      this.totalNanos = totalNanos;
+      this.endTime = endTime;
+      this.children = Collections.unmodifiableList(children);
+    }
+
+    @Nonnull
+    public Kind getKind() {
+      return kind;
+    }
+
+    @Nonnull
+    public String getName() {
+      return name;
+    }
+
+    public long getTotalNanos() {
+      return totalNanos;
+    }
+
+    public long getSelfNanos() {
+      long selfNanos = totalNanos;
+      for (final Node child : children) {
+        selfNanos -= child.totalNanos;
+      }
+      return Math.max(0, selfNanos);
+    }
+
+    @Nonnull
+    public List<Node> getChildren() {
+      return children;
+    }
+
+    long getEndTime() {
+      return endTime;
+    }
+
+    boolean isAdopted() {
+      return adopted;
+    }
+
+    void adopt() {
+      adopted = true;
+    }
+
+    @Override
+    public String toString() {
+      return "Node{kind=" + kind + ", name=" + name + ", totalNanos=" + totalNanos + '}';
+    }
+  }
+
+  public static final class Binding {
+    private final String name;
+    private final int count;
+    private final long selfNanos;
+    private final long totalNanos;
+
+    Binding(final String name, final int count, final long selfNanos, final long totalNanos) {
+      this.name = name;
+      this.count = count;
+      this.selfNanos = selfNanos;
+      this.totalNanos = totalNanos;
+    }
+
+    @Nonnull
+    public String getName() {
+      return name;
+    }
+
+    public int getCount() {
+      return count;
+    }
+
+    public long getSelfNanos() {
+      return selfNanos;
+    }
+
+    public long getTotalNanos() {
+      return totalNanos;
+    }
+
+    @Override
+    public String toString() {
+      return "Binding{name=" + name + ", count=" + count + ", selfNanos=" + selfNanos + ", totalNanos=" + totalNanos
+          + '}';
+    }
+  }
+}
@@ -0,0 +1,87 @@
+/*
+ * Copyright 2017 Michael Rozumyanskiy
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.michaelrocks.lightsaber;
+
+import io.michaelrocks.lightsaber.internal.InjectingProvider;
+
+import javax.annotation.Nonnull;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+class ThreadScopeProvider<T> implements InjectingProvider<T> {
+  // Instances of every thread-scoped binding created in the current thread keyed by their providers, so setting an
+  // instance again replaces its entry and all of them can be cleared at once.
+  private static final ThreadLocal<Map<ThreadScopeProvider<?>, Object>> THREAD_INSTANCES =
+      new ThreadLocal<Map<ThreadScopeProvider<?>, Object>>();
+
+  private final InjectingProvider<T> provider;
+
+  public ThreadScopeProvider(@Nonnull final InjectingProvider<T> provider) {
+    this.provider = provider;
+  }
+
+  @Nonnull
+  @Override
+  public T get() {
+    final T instance = getInstance();
+    return instance != null ? instance : putInstance(provider.get());
+  }
+
+  @Nonnull
+  @Override
+  public T getWithInjector(@Nonnull final Injector injector) {
+    final T instance = getInstance();
+    return instance != null ? instance : putInstance(provider.getWithInjector(injector));
+  }
+
+  private T getInstance() {
+    final Map<ThreadScopeProvider<?>, Object> instances = THREAD_INSTANCES.get();
+    // noinspection unchecked
+    return instances != null ? (T) instances.get(this) : null;
+  }
+
+  private T putInstance(final T instance) {
+    Map<ThreadScopeProvider<?>, Object> instances = THREAD_INSTANCES.get();
+    if (instances == null) {
+      instances = new IdentityHashMap<ThreadScopeProvider<?>, Object>();
+      THREAD_INSTANCES.set(instances);
+    }
+    instances.put(this, instance);
+    return instance;
+  }
+
+  static void clearCurrentThread() {
+    THREAD_INSTANCES.remove();
+  }
+
+  static void clearCurrentThread(@Nonnull final LightsaberInjector injector) {
+    final Map<ThreadScopeProvider<?>, Object> instances = THREAD_INSTANCES.get();
+    if (instances == null) {
+      return;
+    }
+
+    final List<InjectingProvider<?>> providers = injector.getOwnProviders();
+    for (final InjectingProvider<?> provider : providers) {
+      // noinspection SuspiciousMethodCalls
+      instances.remove(MonitoringProvider.unwrap(provider));
+    }
+    if (instances.isEmpty()) {
+      THREAD_INSTANCES.remove();
+    }
+  }
+}
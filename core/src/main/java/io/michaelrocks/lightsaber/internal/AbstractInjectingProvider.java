@@ -18,15 +18,53 @@ package io.michaelrocks.lightsaber.internal;
 
 import io.michaelrocks.lightsaber.Injector;
 
+import javax.annotation.Nonnull;
+import javax.inject.Provider;
+
 public abstract class AbstractInjectingProvider<T> implements InjectingProvider<T> {
+  private static final Provider<?>[] EMPTY_DEPENDENCY_PROVIDERS = new Provider<?>[0];
+
   private final Injector injector;
+  private final Provider<?>[] dependencyProviders;
 
   protected AbstractInjectingProvider(final Injector injector) {
     this.injector = injector;
+    this.dependencyProviders = EMPTY_DEPENDENCY_PROVIDERS;
+  }
+
+  protected AbstractInjectingProvider(final Injector injector, final int dependencyCount) {
+    this.injector = injector;
+    this.dependencyProviders = dependencyCount == 0 ? EMPTY_DEPENDENCY_PROVIDERS : new Provider<?>[dependencyCount];
   }
 
   @Override
   public final T get() {
     return getWithInjector(injector);
   }
+
+  @Nonnull
+  protected final <D> Provider<D> getDependencyProvider(@Nonnull final Injector injector, final int index,
+      final int slot) {
+    if (injector != this.injector) {
+      return ((IndexedInjector) injector).getProvider(slot);
+    }
+
+    // A racy cache is fine here since providers registered in an injector never change.
+    // noinspection unchecked
+    Provider<D> provider = (Provider<D>) dependencyProviders[index];
+    if (provider == null) {
+      provider = ((IndexedInjector) injector).getProvider(slot);
+      dependencyProviders[index] = provider;
+    }
+    return provider;
+  }
+
+  @Nonnull
+  protected final <D> D getDependencyInstance(@Nonnull final Injector injector, final int index, final int slot) {
+    if (injector != this.injector) {
+      return ((IndexedInjector) injector).getInstance(slot);
+    }
+
+    return this.<D>getDependencyProvider(injector, index, slot).get();
+  }
 }
@@ -0,0 +1,65 @@
+/*
+ * Copyright 2017 Michael Rozumyanskiy
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.michaelrocks.lightsaber.internal;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+
+// A table indexed by a perfect hash of class names computed at compile time. Classes without an index in the
+// perfect hash are stored after the first size elements and are looked up linearly.
+public class ClassTable<V> {
+  private final int[] seeds;
+  private final int size;
+  private final Class<?>[] classes;
+  private final Object[] values;
+
+  public ClassTable(@Nonnull final int[] seeds, final int size, final int overflowSize) {
+    this.seeds = seeds;
+    this.size = size;
+    this.classes = new Class<?>[size + overflowSize];
+    this.values = new Object[size + overflowSize];
+  }
+
+  public void put(final int index, @Nonnull final Class<?> type, @Nonnull final V value) {
+    if (classes[index] != null) {
+      throw new IllegalStateException("Index " + index + " is already taken by " + classes[index]);
+    }
+
+    classes[index] = type;
+    values[index] = value;
+  }
+
+  @Nullable
+  public V get(@Nonnull final Class<?> type) {
+    if (size != 0) {
+      final int index = PerfectHash.getIndex(type.getName().hashCode(), seeds, size);
+      if (classes[index] == type) {
+        // noinspection unchecked
+        return (V) values[index];
+      }
+    }
+
+    for (int i = size; i < classes.length; ++i) {
+      if (classes[i] == type) {
+        // noinspection unchecked
+        return (V) values[i];
+      }
+    }
+
+    return null;
+  }
+}
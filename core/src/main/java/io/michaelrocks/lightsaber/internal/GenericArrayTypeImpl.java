@@ -21,13 +21,35 @@ import java.lang.reflect.Type;
 
 public final class GenericArrayTypeImpl implements GenericArrayType {
   private final Type genericComponentType;
+  private final int hashCode;
 
   public GenericArrayTypeImpl(final Type genericComponentType) {
     this.genericComponentType = genericComponentType;
+    this.hashCode = TypeUtils.hashCodeOfGenericArray(genericComponentType);
   }
 
   @Override
   public Type getGenericComponentType() {
     return genericComponentType;
   }
+
+  @Override
+  public boolean equals(final Object object) {
+    if (this == object) {
+      return true;
+    }
+
+    // Like ParameterizedTypeImpl, only instances of this class are equal to each other.
+    if (!(object instanceof GenericArrayTypeImpl)) {
+      return false;
+    }
+
+    final GenericArrayTypeImpl type = (GenericArrayTypeImpl) object;
+    return hashCode == type.hashCode && TypeUtils.equals(genericComponentType, type.genericComponentType);
+  }
+
+  @Override
+  public int hashCode() {
+    return hashCode;
+  }
 }
@@ -23,11 +23,13 @@ public final class ParameterizedTypeImpl implements ParameterizedType {
   private final Type ownerType;
   private final Type rawType;
   private final Type[] typeArguments;
+  private final int hashCode;
 
   public ParameterizedTypeImpl(final Type ownerType, final Type rawType, final Type... typeArguments) {
     this.ownerType = ownerType;
     this.rawType = rawType;
     this.typeArguments = typeArguments;
+    this.hashCode = TypeUtils.hashCode(ownerType, rawType, typeArguments);
   }
 
   @Override
@@ -44,4 +46,28 @@ public final class ParameterizedTypeImpl implements ParameterizedType {
   public Type getOwnerType() {
     return ownerType;
   }
+
+  @Override
+  public boolean equals(final Object object) {
+    if (this == object) {
+      return true;
+    }
+
+    // Only instances of this class are equal to each other since the hash code doesn't follow the formula of the JDK.
+    // Types of other implementations have to be compared with TypeUtils.equals().
+    if (!(object instanceof ParameterizedTypeImpl)) {
+      return false;
+    }
+
+    final ParameterizedTypeImpl type = (ParameterizedTypeImpl) object;
+    return hashCode == type.hashCode
+        && TypeUtils.equals(rawType, type.rawType)
+        && TypeUtils.equals(ownerType, type.ownerType)
+        && TypeUtils.equals(typeArguments, type.typeArguments);
+  }
+
+  @Override
+  public int hashCode() {
+    return hashCode;
+  }
 }
@@ -0,0 +1,182 @@
+/*
+ * Copyright 2017 Michael Rozumyanskiy
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.michaelrocks.lightsaber.internal;
+
+import javax.annotation.Nonnull;
+import java.util.Arrays;
+
+// A minimal perfect hash built with the hash-and-displace algorithm. Hashes are split into buckets and every bucket
+// gets a seed such that mix(hash, seed) % size is unique for all the hashes. Hashes which cannot be placed this way,
+// e.g. duplicate hashes, don't get an index and must be looked up separately.
+public class PerfectHash {
+  public static final int NO_INDEX = -1;
+
+  private static final int HASHES_PER_BUCKET = 4;
+  private static final int MAX_SEED = 1 << 16;
+  // The table is kept at most 80% full, so the last buckets are placed with a few seeds instead of thousands.
+  private static final int EXTRA_SIZE_DIVISOR = 4;
+
+  private final int[] seeds;
+  private final int size;
+  private final int[] indices;
+
+  private PerfectHash(final int[] seeds, final int size, final int[] indices) {
+    this.seeds = seeds;
+    this.size = size;
+    this.indices = indices;
+  }
+
+  @Nonnull
+  public static PerfectHash create(@Nonnull final int[] hashes) {
+    final int[] uniquePositions = findUniqueHashPositions(hashes);
+    final int hashCount = uniquePositions.length;
+    final int size = hashCount + hashCount / EXTRA_SIZE_DIVISOR;
+    final int bucketCount = Math.max(1, (hashCount + HASHES_PER_BUCKET - 1) / HASHES_PER_BUCKET);
+
+    final int[] bucketSizes = new int[bucketCount];
+    for (final int position : uniquePositions) {
+      bucketSizes[getBucket(hashes[position], bucketCount)] += 1;
+    }
+    final int[] bucketOffsets = new int[bucketCount + 1];
+    for (int i = 0; i < bucketCount; ++i) {
+      bucketOffsets[i + 1] = bucketOffsets[i] + bucketSizes[i];
+    }
+    final int[] bucketPositions = new int[hashCount];
+    final int[] bucketFill = Arrays.copyOf(bucketOffsets, bucketCount);
+    for (final int position : uniquePositions) {
+      bucketPositions[bucketFill[getBucket(hashes[position], bucketCount)]++] = position;
+    }
+
+    final int[] seeds = new int[bucketCount];
+    final int[] indices = new int[hashes.length];
+    Arrays.fill(indices, NO_INDEX);
+    final boolean[] occupied = new boolean[size];
+    final int[] bucketIndices = new int[getMaxValue(bucketSizes)];
+    // Placing the largest buckets first while the table is still sparse makes finding seeds much faster.
+    for (final int bucket : sortBucketsBySizeDescending(bucketSizes)) {
+      final int from = bucketOffsets[bucket];
+      final int to = bucketOffsets[bucket + 1];
+      if (from == to) {
+        break;
+      }
+
+      for (int seed = 1; seed < MAX_SEED; ++seed) {
+        if (computeBucketIndices(hashes, bucketPositions, from, to, seed, occupied, bucketIndices)) {
+          seeds[bucket] = seed;
+          for (int i = from; i < to; ++i) {
+            final int index = bucketIndices[i - from];
+            occupied[index] = true;
+            indices[bucketPositions[i]] = index;
+          }
+          break;
+        }
+      }
+    }
+
+    return new PerfectHash(seeds, size, indices);
+  }
+
+  public static int getIndex(final int hash, @Nonnull final int[] seeds, final int size) {
+    final int seed = seeds[getBucket(hash, seeds.length)];
+    return mix(hash, seed) % size;
+  }
+
+  @Nonnull
+  public int[] getSeeds() {
+    return seeds;
+  }
+
+  public int getSize() {
+    return size;
+  }
+
+  public int getIndex(final int position) {
+    return indices[position];
+  }
+
+  private static int[] findUniqueHashPositions(final int[] hashes) {
+    final long[] sortedHashes = new long[hashes.length];
+    for (int i = 0; i < hashes.length; ++i) {
+      sortedHashes[i] = ((long) hashes[i] << 32) | i;
+    }
+    Arrays.sort(sortedHashes);
+
+    final int[] positions = new int[hashes.length];
+    int count = 0;
+    for (int i = 0; i < sortedHashes.length; ++i) {
+      if (i == 0 || (sortedHashes[i] >> 32) != (sortedHashes[i - 1] >> 32)) {
+        positions[count++] = (int) sortedHashes[i];
+      }
+    }
+    return Arrays.copyOf(positions, count);
+  }
+
+  private static int[] sortBucketsBySizeDescending(final int[] bucketSizes) {
+    final int maxBucketSize = getMaxValue(bucketSizes);
+    final int[] sizeOffsets = new int[maxBucketSize + 2];
+    for (final int bucketSize : bucketSizes) {
+      sizeOffsets[maxBucketSize - bucketSize + 1] += 1;
+    }
+    for (int i = 1; i < sizeOffsets.length; ++i) {
+      sizeOffsets[i] += sizeOffsets[i - 1];
+    }
+    final int[] buckets = new int[bucketSizes.length];
+    for (int bucket = 0; bucket < bucketSizes.length; ++bucket) {
+      buckets[sizeOffsets[maxBucketSize - bucketSizes[bucket]]++] = bucket;
+    }
+    return buckets;
+  }
+
+  private static boolean computeBucketIndices(final int[] hashes, final int[] bucketPositions, final int from,
+      final int to, final int seed, final boolean[] occupied, final int[] bucketIndices) {
+    for (int i = from; i < to; ++i) {
+      final int index = mix(hashes[bucketPositions[i]], seed) % occupied.length;
+      if (occupied[index]) {
+        return false;
+      }
+      for (int j = from; j < i; ++j) {
+        if (bucketIndices[j - from] == index) {
+          return false;
+        }
+      }
+      bucketIndices[i - from] = index;
+    }
+    return true;
+  }
+
+  private static int getMaxValue(final int[] values) {
+    int maxValue = 0;
+    for (final int value : values) {
+      maxValue = Math.max(maxValue, value);
+    }
+    return maxValue;
+  }
+
+  private static int getBucket(final int hash, final int bucketCount) {
+    return mix(hash, 0) % bucketCount;
+  }
+
+  private static int mix(final int hash, final int seed) {
+    int result = hash + seed * 0x9e3779b9;
+    result ^= result >>> 16;
+    result *= 0x85ebca6b;
+    result ^= result >>> 13;
+    result *= 0xc2b2ae35;
+    result ^= result >>> 16;
+    return result & 0x7fffffff;
+  }
+}
@@ -73,6 +73,10 @@ public class TypeUtils {
   }
 
   private static boolean equals(final ParameterizedType type1, final ParameterizedType type2) {
+    if (type1 instanceof ParameterizedTypeImpl && type2 instanceof ParameterizedTypeImpl) {
+      return type1.equals(type2);
+    }
+
     return equals(type1.getOwnerType(), type2.getOwnerType())
         && equals(type1.getRawType(), type2.getRawType())
         && equals(type1.getActualTypeArguments(), type2.getActualTypeArguments());
@@ -84,6 +88,10 @@ public class TypeUtils {
   }
 
   private static boolean equals(final GenericArrayType type1, final GenericArrayType type2) {
+    if (type1 instanceof GenericArrayTypeImpl && type2 instanceof GenericArrayTypeImpl) {
+      return type1.equals(type2);
+    }
+
     return equals(type1.getGenericComponentType(), type2.getGenericComponentType());
   }
 
@@ -93,7 +101,7 @@ public class TypeUtils {
         && equals(type1.getBounds(), type2.getBounds());
   }
 
-  private static boolean equals(final Type[] types1, final Type[] types2) {
+  static boolean equals(final Type[] types1, final Type[] types2) {
     if (types1 == types2) {
       return true;
     }
@@ -132,14 +140,26 @@ public class TypeUtils {
     return object1 == object2 || (object1 != null && object1.equals(object2));
   }
 
-  private static int hashCode(final ParameterizedType type) {
+  static int hashCode(final Type ownerType, final Type rawType, final Type[] typeArguments) {
     int result = 1;
-    result = 31 * result + hashCode(type.getActualTypeArguments());
-    result = 31 * result + hashCode(type.getOwnerType());
-    result = 31 * result + hashCode(type.getRawType());
+    result = 31 * result + hashCode(typeArguments);
+    result = 31 * result + hashCode(ownerType);
+    result = 31 * result + hashCode(rawType);
     return result;
   }
 
+  static int hashCodeOfGenericArray(final Type genericComponentType) {
+    return 31 + hashCode(genericComponentType);
+  }
+
+  private static int hashCode(final ParameterizedType type) {
+    if (type instanceof ParameterizedTypeImpl) {
+      return type.hashCode();
+    }
+
+    return hashCode(type.getOwnerType(), type.getRawType(), type.getActualTypeArguments());
+  }
+
   private static int hashCode(final WildcardType type) {
     int result = 1;
     result = 31 * result + Arrays.hashCode(type.getUpperBounds());
@@ -148,7 +168,11 @@ public class TypeUtils {
   }
 
   private static int hashCode(final GenericArrayType type) {
-    return 31 + hashCode(type.getGenericComponentType());
+    if (type instanceof GenericArrayTypeImpl) {
+      return type.hashCode();
+    }
+
+    return hashCodeOfGenericArray(type.getGenericComponentType());
   }
 
   private static int hashCode(final TypeVariable<?> type) {
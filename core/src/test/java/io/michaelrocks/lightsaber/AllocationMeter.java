@@ -0,0 +1,64 @@
+/*
+ * Copyright 2017 Michael Rozumyanskiy
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.michaelrocks.lightsaber;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+
+// Measures bytes allocated by the current thread. The operation is warmed up first so that class loading and
+// interpreter-only allocations don't count, and the cost of reading the counter itself is subtracted. Tests have to
+// run with escape analysis disabled, otherwise allocations which don't escape the operation aren't counted.
+final class AllocationMeter {
+  private static final int WARMUP_ITERATIONS = 20000;
+
+  private AllocationMeter() {
+  }
+
+  static boolean isSupported() {
+    final ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+    if (!(bean instanceof com.sun.management.ThreadMXBean)) {
+      return false;
+    }
+
+    final com.sun.management.ThreadMXBean threadBean = (com.sun.management.ThreadMXBean) bean;
+    if (!threadBean.isThreadAllocatedMemorySupported()) {
+      return false;
+    }
+
+    threadBean.setThreadAllocatedMemoryEnabled(true);
+    return threadBean.isThreadAllocatedMemoryEnabled();
+  }
+
+  static long measure(final Runnable operation, final int iterations) {
+    for (int i = 0; i < WARMUP_ITERATIONS; ++i) {
+      operation.run();
+    }
+
+    final com.sun.management.ThreadMXBean bean = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+    final long threadId = Thread.currentThread().getId();
+    final long overheadStart = bean.getThreadAllocatedBytes(threadId);
+    final long overheadEnd = bean.getThreadAllocatedBytes(threadId);
+    final long overhead = overheadEnd - overheadStart;
+
+    final long start = bean.getThreadAllocatedBytes(threadId);
+    for (int i = 0; i < iterations; ++i) {
+      operation.run();
+    }
+    final long end = bean.getThreadAllocatedBytes(threadId);
+    return Math.max(0, end - start - overhead);
+  }
+}
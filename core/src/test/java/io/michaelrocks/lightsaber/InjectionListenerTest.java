@@ -0,0 +1,162 @@
+/*
+ * Copyright 2017 Michael Rozumyanskiy
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.michaelrocks.lightsaber;
+
+import io.michaelrocks.lightsaber.internal.AbstractInjectingProvider;
+import org.junit.Test;
+import org.mockito.InOrder;
+import org.mockito.invocation.InvocationOnMock;
+import org.mockito.stubbing.Answer;
+
+import javax.annotation.Nonnull;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Mockito.*;
+
+public class InjectionListenerTest {
+  private static final int STRING_SLOT = 1;
+  private static final int OBJECT_SLOT = 2;
+
+  @Test
+  public void testProvisionsAreReported() throws Exception {
+    final InjectionMetrics metrics = new InjectionMetrics();
+    final Injector injector = createInjector(metrics);
+
+    injector.getInstance(String.class);
+    injector.getInstance(String.class);
+    injector.getProvider(Object.class).get();
+    injector.getInstance(Object.class);
+
+    assertEquals(2, metrics.getProvisionMetrics().get(Key.of(String.class)).getCount());
+    assertEquals(2, metrics.getProvisionMetrics().get(Key.of(Object.class)).getCount());
+    assertEquals(1, metrics.getSingletonCreationMetrics().get(Key.of(Object.class)).getCount());
+    assertNull(metrics.getSingletonCreationMetrics().get(Key.of(String.class)));
+    assertNull(metrics.getProvisionMetrics().get(Key.of(Injector.class)));
+    assertEquals(1, metrics.getInjectorCreationMetric().getCount());
+  }
+
+  @Test
+  public void testMembersInjectionIsReported() throws Exception {
+    final InjectionListener listener = mock(InjectionListener.class);
+    final Injector injector = createInjector(listener);
+    final Object target = new Object();
+    final Object token = new Object();
+    when(listener.onMembersInjectionStarted(target)).thenReturn(token);
+
+    injector.injectMembers(target);
+
+    final InOrder inOrder = inOrder(listener);
+    inOrder.verify(listener).onMembersInjectionStarted(same(target));
+    inOrder.verify(listener).onMembersInjected(same(target), same(token), anyLong());
+  }
+
+  @Test
+  public void testChildInjectorCreationIsReported() throws Exception {
+    final InjectionListener listener = mock(InjectionListener.class);
+    final Injector injector = createInjector(listener);
+    final Lightsaber lightsaber = ((LightsaberInjector) injector).getLightsaber();
+    final Object childComponent = new Object();
+    final Object token = new Object();
+    when(listener.onInjectorCreationStarted(injector, childComponent)).thenReturn(token);
+
+    final Injector childInjector = lightsaber.createChildInjector(injector, childComponent);
+
+    final InOrder inOrder = inOrder(listener);
+    inOrder.verify(listener).onInjectorCreationStarted(same(injector), same(childComponent));
+    inOrder.verify(listener)
+        .onInjectorCreated(same(childInjector), same(injector), same(childComponent), same(token), anyLong());
+  }
+
+  @Test
+  public void testSingletonCreationIsStartedBeforeInstanceIsCreated() throws Exception {
+    final InjectionListener listener = mock(InjectionListener.class);
+    final Object token = new Object();
+    when(listener.isProvisionMonitored()).thenReturn(true);
+    when(listener.onSingletonCreationStarted(Key.of(Object.class))).thenReturn(token);
+    final Injector injector = createInjector(listener);
+
+    injector.getInstance(Object.class);
+
+    final InOrder inOrder = inOrder(listener);
+    inOrder.verify(listener).onProvisionStarted(Key.of(Object.class));
+    inOrder.verify(listener).onSingletonCreationStarted(Key.of(Object.class));
+    inOrder.verify(listener).onSingletonCreated(eq(Key.of(Object.class)), same(token), anyLong());
+    inOrder.verify(listener).onProvision(eq(Key.of(Object.class)), isNull(), anyLong());
+  }
+
+  @Test
+  public void testProvisionsAreNotMonitoredWhenListenerOptsOut() throws Exception {
+    final InjectionListener listener = mock(InjectionListener.class);
+    when(listener.isProvisionMonitored()).thenReturn(false);
+    final LightsaberInjector injector = (LightsaberInjector) createInjector(listener);
+
+    injector.getInstance(String.class);
+    injector.getInstance(Object.class);
+
+    assertTrue(injector.getOwnProvider(STRING_SLOT) instanceof AbstractInjectingProvider<?>);
+    assertTrue(injector.getOwnProvider(OBJECT_SLOT) instanceof SingletonProvider<?>);
+    verify(listener, never()).onProvisionStarted(any(Key.class));
+    verify(listener, never()).onProvision(any(Key.class), any(), anyLong());
+    verify(listener).onSingletonCreated(eq(Key.of(Object.class)), isNull(), anyLong());
+  }
+
+  @Test
+  public void testProvidersAreNotWrappedWithoutListener() throws Exception {
+    final LightsaberInjector injector = (LightsaberInjector) createInjector(null);
+
+    assertTrue(injector.getOwnProvider(STRING_SLOT) instanceof AbstractInjectingProvider<?>);
+    assertTrue(injector.getOwnProvider(OBJECT_SLOT) instanceof SingletonProvider<?>);
+    assertSame(injector.getInstance(Object.class), injector.getInstance(Object.class));
+  }
+
+  private static Injector createInjector(final InjectionListener listener) {
+    final InjectorConfigurator component = new InjectorConfigurator() {
+      @Override
+      public void configureInjector(final LightsaberInjector injector, final Object component) {
+        injector.registerProvider(STRING_SLOT, String.class, new AbstractInjectingProvider<String>(injector) {
+          @Nonnull
+          @Override
+          public String getWithInjector(@Nonnull final Injector injector) {
+            return "String";
+          }
+        });
+        injector.registerProvider(OBJECT_SLOT, Object.class,
+            new SingletonProvider<Object>(new AbstractInjectingProvider<Object>(injector) {
+              @Nonnull
+              @Override
+              public Object getWithInjector(@Nonnull final Injector injector) {
+                return new Object();
+              }
+            }));
+      }
+    };
+
+    final Lightsaber.Configurator configurator = mock(Lightsaber.Configurator.class);
+    doAnswer(new Answer<Object>() {
+      @Override
+      public Object answer(final InvocationOnMock invocation) throws Throwable {
+        component.configureInjector((LightsaberInjector) invocation.getArguments()[0], component);
+        return null;
+      }
+    })
+        .when(configurator).configureInjector(any(LightsaberInjector.class), same(component));
+    return new Lightsaber(configurator, listener).createInjector(component);
+  }
+}
@@ -0,0 +1,274 @@
+/*
+ * Copyright 2017 Michael Rozumyanskiy
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.michaelrocks.lightsaber;
+
+import io.michaelrocks.lightsaber.internal.AbstractInjectingProvider;
+import org.junit.Before;
+import org.junit.Test;
+
+import javax.annotation.Nonnull;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assume.assumeTrue;
+
+// Allocation regressions on hot paths, e.g. a hidden Key or iterator allocation, make these tests fail.
+public class InjectorAllocationTest {
+  private static final int ITERATIONS = 100000;
+  private static final long MAX_CHILD_BINDING_BYTES = 512;
+  private static final long MAX_PARENT_SIZE_BYTES = 1024;
+  private static final int LARGE_PARENT_BINDING_COUNT = 10000;
+
+  private static final int SINGLETON_SLOT = 1;
+  private static final int QUALIFIED_SINGLETON_SLOT = 2;
+  private static final int FIRST_CHILD_SLOT = 3;
+  private static final Key<String> QUALIFIED_KEY = Key.of(String.class, new NamedProxy("Qualified"));
+
+  private Lightsaber lightsaber;
+  private Injector injector;
+
+  @Before
+  public void createInjector() {
+    assumeTrue(AllocationMeter.isSupported());
+    lightsaber = new Lightsaber(new AllocationConfigurator());
+    injector = lightsaber.createInjector(new ParentComponent());
+    injector.getInstance(String.class);
+    injector.getInstance(QUALIFIED_KEY);
+  }
+
+  @Test
+  public void testGetSingletonByClassDoesNotAllocate() throws Exception {
+    assertNoAllocations(new Runnable() {
+      @Override
+      public void run() {
+        injector.getInstance(String.class);
+      }
+    });
+  }
+
+  @Test
+  public void testGetSingletonByKeyDoesNotAllocate() throws Exception {
+    assertNoAllocations(new Runnable() {
+      @Override
+      public void run() {
+        injector.getInstance(QUALIFIED_KEY);
+      }
+    });
+  }
+
+  @Test
+  public void testGetSingletonBySlotDoesNotAllocate() throws Exception {
+    final LightsaberInjector lightsaberInjector = (LightsaberInjector) injector;
+    assertNoAllocations(new Runnable() {
+      @Override
+      public void run() {
+        lightsaberInjector.getInstance(SINGLETON_SLOT);
+      }
+    });
+  }
+
+  @Test
+  public void testGetProviderByClassDoesNotAllocate() throws Exception {
+    assertNoAllocations(new Runnable() {
+      @Override
+      public void run() {
+        injector.getProvider(String.class);
+      }
+    });
+  }
+
+  @Test
+  public void testGetProviderByKeyDoesNotAllocate() throws Exception {
+    assertNoAllocations(new Runnable() {
+      @Override
+      public void run() {
+        injector.getProvider(QUALIFIED_KEY);
+      }
+    });
+  }
+
+  @Test
+  public void testGetInheritedSingletonDoesNotAllocate() throws Exception {
+    final LightsaberInjector childInjector =
+        (LightsaberInjector) lightsaber.createChildInjector(injector, new ChildComponent(0));
+    assertNoAllocations(new Runnable() {
+      @Override
+      public void run() {
+        childInjector.getInstance(SINGLETON_SLOT);
+      }
+    });
+  }
+
+  @Test
+  public void testGetInheritedProviderDoesNotAllocate() throws Exception {
+    final LightsaberInjector childInjector =
+        (LightsaberInjector) lightsaber.createChildInjector(injector, new ChildComponent(0));
+    assertNoAllocations(new Runnable() {
+      @Override
+      public void run() {
+        childInjector.getProvider(String.class);
+        childInjector.getProvider(QUALIFIED_KEY);
+        childInjector.getProvider(SINGLETON_SLOT);
+      }
+    });
+  }
+
+  @Test
+  public void testBorrowAndReleasePooledInstanceDoesNotAllocate() throws Exception {
+    final PooledProvider<Object> provider = new PooledProvider<Object>(new AbstractInjectingProvider<Object>(injector) {
+      @Nonnull
+      @Override
+      public Object getWithInjector(@Nonnull final Injector injector) {
+        return new Object();
+      }
+    });
+    provider.release(provider.get());
+    assertNoAllocations(new Runnable() {
+      @Override
+      public void run() {
+        provider.release(provider.get());
+      }
+    });
+    assertEquals(1, provider.getStatistics().getMissCount());
+  }
+
+  @Test
+  public void testCreateChildInjectorAllocationIsBoundedPerBinding() throws Exception {
+    final ChildComponent smallComponent = new ChildComponent(10);
+    final ChildComponent largeComponent = new ChildComponent(110);
+    final long smallBytes = AllocationMeter.measure(new Runnable() {
+      @Override
+      public void run() {
+        lightsaber.createChildInjector(injector, smallComponent);
+      }
+    }, 100);
+    final long largeBytes = AllocationMeter.measure(new Runnable() {
+      @Override
+      public void run() {
+        lightsaber.createChildInjector(injector, largeComponent);
+      }
+    }, 100);
+
+    final long bytesPerBinding = (largeBytes - smallBytes) / 100 / 100;
+    assertTrue("Child injector allocates " + bytesPerBinding + " bytes per binding",
+        bytesPerBinding <= MAX_CHILD_BINDING_BYTES);
+  }
+
+  @Test
+  public void testCreateChildInjectorAllocationDoesNotDependOnParentSize() throws Exception {
+    final Injector largeInjector = lightsaber.createInjector(new ParentComponent(LARGE_PARENT_BINDING_COUNT));
+    final int lastParentSlot = FIRST_CHILD_SLOT + LARGE_PARENT_BINDING_COUNT - 1;
+    // Children get the slots after the ones of their parents like in generated code.
+    final ChildComponent component = new ChildComponent(lastParentSlot + 1, 10);
+    final long smallParentBytes = measureChildInjector(injector, component, QUALIFIED_SINGLETON_SLOT);
+    final long largeParentBytes = measureChildInjector(largeInjector, component, lastParentSlot);
+
+    final long bytesPerChild = (largeParentBytes - smallParentBytes) / 100;
+    assertTrue("Child injector allocates " + bytesPerChild + " more bytes for a larger parent",
+        bytesPerChild <= MAX_PARENT_SIZE_BYTES);
+  }
+
+  private long measureChildInjector(final Injector parentInjector, final ChildComponent component,
+      final int inheritedSlot) {
+    return AllocationMeter.measure(new Runnable() {
+      @Override
+      public void run() {
+        final LightsaberInjector childInjector =
+            (LightsaberInjector) lightsaber.createChildInjector(parentInjector, component);
+        childInjector.getProvider(SINGLETON_SLOT);
+        childInjector.getProvider(inheritedSlot);
+      }
+    }, 100);
+  }
+
+  private static void assertNoAllocations(final Runnable operation) {
+    final long bytes = AllocationMeter.measure(operation, ITERATIONS);
+    // Any allocation per operation would exceed one byte per iteration.
+    assertTrue("Operation allocates " + bytes + " bytes per " + ITERATIONS + " iterations", bytes < ITERATIONS);
+  }
+
+  private static class ParentComponent {
+    final Key<?>[] keys;
+
+    ParentComponent() {
+      this(0);
+    }
+
+    ParentComponent(final int bindingCount) {
+      keys = new Key<?>[bindingCount];
+      for (int i = 0; i < bindingCount; ++i) {
+        keys[i] = Key.of(Object.class, new NamedProxy("Parent " + i));
+      }
+    }
+  }
+
+  private static class ChildComponent {
+    final int firstSlot;
+    final Key<?>[] keys;
+
+    ChildComponent(final int bindingCount) {
+      this(FIRST_CHILD_SLOT, bindingCount);
+    }
+
+    ChildComponent(final int firstSlot, final int bindingCount) {
+      this.firstSlot = firstSlot;
+      keys = new Key<?>[bindingCount];
+      for (int i = 0; i < bindingCount; ++i) {
+        keys[i] = Key.of(Object.class, new NamedProxy("Child " + i));
+      }
+    }
+  }
+
+  // Configures injectors the same way generated configurators do but without mocks, which allocate on every call.
+  private static class AllocationConfigurator implements Lightsaber.Configurator {
+    @Override
+    public void configureInjector(final LightsaberInjector injector, final Object component) {
+      if (component instanceof ParentComponent) {
+        injector.registerProvider(SINGLETON_SLOT, String.class, newSingletonProvider(injector, "Singleton"));
+        injector.registerProvider(QUALIFIED_SINGLETON_SLOT, QUALIFIED_KEY, newSingletonProvider(injector, "Qualified"));
+        registerProviders(injector, FIRST_CHILD_SLOT, ((ParentComponent) component).keys);
+      } else if (component instanceof ChildComponent) {
+        final ChildComponent childComponent = (ChildComponent) component;
+        registerProviders(injector, childComponent.firstSlot, childComponent.keys);
+      }
+    }
+
+    @Override
+    public void injectMembers(final Injector injector, final Object object) {
+      // Members injection goes through the generated dispatcher, so it's measured by the tests of processed samples.
+      throw new UnsupportedOperationException();
+    }
+
+    private static void registerProviders(final LightsaberInjector injector, final int firstSlot,
+        final Key<?>[] keys) {
+      for (int i = 0; i < keys.length; ++i) {
+        // noinspection unchecked
+        injector.registerProvider(firstSlot + i, (Key<Object>) keys[i], newSingletonProvider(injector, i));
+      }
+    }
+
+    private static <T> SingletonProvider<T> newSingletonProvider(final Injector injector, final T instance) {
+      return new SingletonProvider<T>(new AbstractInjectingProvider<T>(injector) {
+        @Nonnull
+        @Override
+        public T getWithInjector(@Nonnull final Injector injector) {
+          return instance;
+        }
+      });
+    }
+  }
+}
@@ -0,0 +1,96 @@
+/*
+ * Copyright 2017 Michael Rozumyanskiy
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.michaelrocks.lightsaber;
+
+import io.michaelrocks.lightsaber.internal.AbstractInjectingProvider;
+import io.michaelrocks.lightsaber.internal.InjectingProvider;
+import org.junit.Test;
+import org.mockito.invocation.InvocationOnMock;
+import org.mockito.stubbing.Answer;
+
+import javax.annotation.Nonnull;
+import javax.inject.Provider;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.mockito.Mockito.*;
+
+public class InjectorOverridingProviderTest {
+  private static final int DEPTH_SLOT = 1;
+  private static final int INJECTOR_DEPTH = 10;
+
+  @Test
+  public void testOverridingProviderIsFlattened() throws Exception {
+    final Injector injector = mock(Injector.class);
+    final Injector childInjector = mock(Injector.class);
+    final InjectingProvider<Integer> provider = new StackDepthProvider(injector);
+
+    final InjectorOverridingProvider<Integer> overridingProvider =
+        new InjectorOverridingProvider<Integer>(provider, injector);
+    final InjectorOverridingProvider<Integer> doubleOverridingProvider =
+        new InjectorOverridingProvider<Integer>(overridingProvider, childInjector);
+
+    assertEquals(overridingProvider.get(), doubleOverridingProvider.get());
+  }
+
+  @Test
+  public void testInheritedProviderStackDepthDoesNotGrow() throws Exception {
+    final Lightsaber.Configurator configurator = mock(Lightsaber.Configurator.class);
+    final Object component = new Object();
+    doAnswer(new Answer<Object>() {
+      @Override
+      public Object answer(final InvocationOnMock invocation) throws Throwable {
+        final LightsaberInjector injector = (LightsaberInjector) invocation.getArguments()[0];
+        injector.registerProvider(DEPTH_SLOT, Integer.class, new StackDepthProvider(injector));
+        return null;
+      }
+    })
+        .when(configurator).configureInjector(any(LightsaberInjector.class), same(component));
+    final Lightsaber lightsaber = new Lightsaber(configurator);
+    final LightsaberInjector injector = (LightsaberInjector) lightsaber.createInjector(component);
+
+    final LightsaberInjector childInjector =
+        (LightsaberInjector) lightsaber.createChildInjector(injector, new Object());
+    LightsaberInjector deepInjector = childInjector;
+    for (int i = 1; i < INJECTOR_DEPTH; ++i) {
+      deepInjector = (LightsaberInjector) lightsaber.createChildInjector(deepInjector, new Object());
+    }
+
+    final Provider<Integer> childProvider = childInjector.getProvider(DEPTH_SLOT);
+    final Provider<Integer> deepProvider = deepInjector.getProvider(DEPTH_SLOT);
+    assertEquals(childProvider.get(), deepProvider.get());
+    assertEquals(childInjector.<Integer>getInstance(DEPTH_SLOT), deepInjector.<Integer>getInstance(DEPTH_SLOT));
+    assertEquals(childInjector.getInstance(Integer.class), deepInjector.getInstance(Integer.class));
+    assertSame(deepInjector, deepInjector.getInstance(Injector.class));
+  }
+
+  private static int getStackDepth() {
+    return Thread.currentThread().getStackTrace().length;
+  }
+
+  private static class StackDepthProvider extends AbstractInjectingProvider<Integer> {
+    StackDepthProvider(@Nonnull final Injector injector) {
+      super(injector);
+    }
+
+    @Nonnull
+    @Override
+    public Integer getWithInjector(@Nonnull final Injector injector) {
+      return getStackDepth();
+    }
+  }
+}
@@ -0,0 +1,61 @@
+/*
+ * Copyright 2017 Michael Rozumyanskiy
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.michaelrocks.lightsaber;
+
+import org.junit.Test;
+
+import java.lang.reflect.Type;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+
+public class KeyTest {
+  @Test
+  public void testUnregisteredKeysAreNotRetained() throws Exception {
+    assertNotSame(Key.of(String.class), Key.of(String.class));
+    assertEquals(Key.of(String.class), Key.of((Type) String.class));
+    assertEquals(Key.of(String.class), Key.of(String.class, null));
+    assertNotSame(Key.of(String.class, new NamedProxy("Unregistered")),
+        Key.of(String.class, new NamedProxy("Unregistered")));
+    assertEquals(Key.of(String.class, new NamedProxy("Unregistered")),
+        Key.of(String.class, new NamedProxy("Unregistered")));
+  }
+
+  @Test
+  public void testRegisteredKeysAreReturnedByKeyOf() throws Exception {
+    final Key<String> key = Key.register(String.class, new NamedProxy("Registered"));
+
+    assertSame(key, Key.register(String.class, new NamedProxy("Registered")));
+    assertSame(key, Key.of(String.class, new NamedProxy("Registered")));
+    assertSame(key, Key.of((Type) String.class, new NamedProxy("Registered")));
+    assertNotSame(key, Key.of(Integer.class, new NamedProxy("Registered")));
+    assertNotSame(key, Key.of(String.class, new NamedProxy("Other")));
+    assertNotSame(key, Key.of(String.class));
+  }
+
+  @Test
+  public void testRegisteredKeysAreEqualToNewKeys() throws Exception {
+    final Key<String> key = new Key<String>(String.class, new NamedProxy("Equal"));
+    final Key<String> registeredKey = Key.register(String.class, new NamedProxy("Equal"));
+
+    assertEquals(key, registeredKey);
+    assertEquals(key.hashCode(), registeredKey.hashCode());
+    assertNotEquals(key, Key.of(String.class, new NamedProxy("Other")));
+  }
+}
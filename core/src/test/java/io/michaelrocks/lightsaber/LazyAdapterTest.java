@@ -0,0 +1,98 @@
+/*
+ * Copyright 2017 Michael Rozumyanskiy
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.michaelrocks.lightsaber;
+
+import org.junit.Test;
+
+import javax.inject.Provider;
+import java.lang.ref.WeakReference;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static io.michaelrocks.lightsaber.SingletonProviderTest.awaitCollection;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+public class LazyAdapterTest {
+  private static final int THREAD_COUNT = 16;
+
+  @Test
+  public void testInstanceIsCreatedOnceUnderContention() throws Exception {
+    final AtomicInteger creationCount = new AtomicInteger();
+    final LazyAdapter<Object> lazy = new LazyAdapter<Object>(new Provider<Object>() {
+      @Override
+      public Object get() {
+        creationCount.incrementAndGet();
+        try {
+          Thread.sleep(50);
+        } catch (final InterruptedException exception) {
+          Thread.currentThread().interrupt();
+        }
+        return new Object();
+      }
+    });
+
+    final CountDownLatch startLatch = new CountDownLatch(1);
+    final ExecutorService executor = Executors.newFixedThreadPool(THREAD_COUNT);
+    try {
+      final Future<?>[] futures = new Future<?>[THREAD_COUNT];
+      for (int i = 0; i < THREAD_COUNT; ++i) {
+        futures[i] = executor.submit(new Callable<Object>() {
+          @Override
+          public Object call() throws Exception {
+            startLatch.await();
+            return lazy.get();
+          }
+        });
+      }
+
+      startLatch.countDown();
+      final Object instance = futures[0].get();
+      for (final Future<?> future : futures) {
+        assertSame(instance, future.get());
+      }
+      assertEquals(1, creationCount.get());
+    } finally {
+      executor.shutdownNow();
+    }
+  }
+
+  @Test
+  public void testProviderIsReleasedAfterCreation() throws Exception {
+    Provider<Object> provider = new Provider<Object>() {
+      @Override
+      public Object get() {
+        return new Object();
+      }
+    };
+    final WeakReference<Provider<Object>> providerReference = new WeakReference<Provider<Object>>(provider);
+    final LazyAdapter<Object> lazy = new LazyAdapter<Object>(provider);
+    // noinspection UnusedAssignment
+    provider = null;
+
+    final Object instance = lazy.get();
+    awaitCollection(providerReference);
+
+    assertNull(providerReference.get());
+    assertSame(instance, lazy.get());
+  }
+}
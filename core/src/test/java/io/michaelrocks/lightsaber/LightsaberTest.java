@@ -17,6 +17,7 @@
 package io.michaelrocks.lightsaber;
 
 import io.michaelrocks.lightsaber.internal.AbstractInjectingProvider;
+import io.michaelrocks.lightsaber.internal.IndexedInjector;
 import org.junit.Before;
 import org.junit.Test;
 import org.mockito.invocation.InvocationOnMock;
@@ -24,13 +25,16 @@ import org.mockito.stubbing.Answer;
 
 import javax.annotation.Nonnull;
 import javax.inject.Named;
-import java.lang.annotation.Annotation;
 
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertSame;
 import static org.mockito.Mockito.*;
 
 public class LightsaberTest {
+  private static final int STRING_SLOT = 1;
+  private static final int REQUESTING_INJECTOR_SLOT = 2;
+  private static final Key<Injector> REQUESTING_INJECTOR_KEY = Key.of(Injector.class, new NamedProxy("Requesting"));
+
   private Lightsaber.Configurator configurator;
 
   @Before
@@ -40,13 +44,21 @@ public class LightsaberTest {
       @Override
       public Object answer(final InvocationOnMock invocation) throws Throwable {
         final LightsaberInjector injector = (LightsaberInjector) invocation.getArguments()[0];
-        injector.registerProvider(String.class, new AbstractInjectingProvider<String>(injector) {
+        injector.registerProvider(STRING_SLOT, String.class, new AbstractInjectingProvider<String>(injector) {
           @Nonnull
           @Override
           public String getWithInjector(@Nonnull final Injector injector) {
             return "Parent String";
           }
         });
+        injector.registerProvider(REQUESTING_INJECTOR_SLOT, REQUESTING_INJECTOR_KEY,
+            new AbstractInjectingProvider<Injector>(injector) {
+              @Nonnull
+              @Override
+              public Injector getWithInjector(@Nonnull final Injector injector) {
+                return injector;
+              }
+            });
         return null;
       }
     })
@@ -142,52 +154,104 @@ public class LightsaberTest {
     assertEquals("Child Annotated String", childInjector.getInstance(Key.of(String.class, annotation)));
   }
 
-  private static class ParentModule {
+  @Test
+  public void testGetInstanceBySlot() throws Exception {
+    final Lightsaber lightsaber = new Lightsaber(configurator);
+    final ParentModule parentModule = new ParentModule();
+    final ChildModule childModule = new ChildModule();
+
+    final LightsaberInjector injector = (LightsaberInjector) lightsaber.createInjector(parentModule);
+    final LightsaberInjector childInjector = (LightsaberInjector) lightsaber.createChildInjector(injector, childModule);
+
+    assertSame(injector, injector.getInstance(IndexedInjector.INJECTOR_SLOT));
+    assertSame(childInjector, childInjector.getInstance(IndexedInjector.INJECTOR_SLOT));
+    assertEquals("Parent String", injector.getInstance(STRING_SLOT));
+    assertEquals("Parent String", injector.getProvider(STRING_SLOT).get());
+    assertEquals("Parent String", childInjector.getInstance(STRING_SLOT));
+    assertSame(childInjector.getProvider(String.class), childInjector.getProvider(STRING_SLOT));
   }
 
-  private static class ChildModule {
+  @Test
+  public void testInheritedProviderUsesChildInjector() throws Exception {
+    final Lightsaber lightsaber = new Lightsaber(configurator);
+    final LightsaberInjector injector = (LightsaberInjector) lightsaber.createInjector(new ParentModule());
+    final LightsaberInjector childInjector =
+        (LightsaberInjector) lightsaber.createChildInjector(injector, new ChildModule());
+    final LightsaberInjector grandchildInjector =
+        (LightsaberInjector) lightsaber.createChildInjector(childInjector, new ChildAnnotatedModule());
+
+    assertSame(injector, injector.getInstance(REQUESTING_INJECTOR_KEY));
+    assertSame(childInjector, childInjector.getInstance(REQUESTING_INJECTOR_KEY));
+    assertSame(childInjector, childInjector.getProvider(REQUESTING_INJECTOR_KEY).get());
+    assertSame(grandchildInjector, grandchildInjector.getInstance(REQUESTING_INJECTOR_SLOT));
+    assertSame(grandchildInjector, grandchildInjector.getProvider(REQUESTING_INJECTOR_SLOT).get());
+    assertSame(grandchildInjector.getProvider(REQUESTING_INJECTOR_SLOT),
+        grandchildInjector.getProvider(REQUESTING_INJECTOR_SLOT));
+    assertEquals("Child Object", grandchildInjector.getInstance(Object.class));
   }
 
-  private static class ChildAnnotatedModule {
+  @Test(expected = ConfigurationException.class)
+  public void testChildInjectorCannotOverrideParentProvider() throws Exception {
+    final Lightsaber lightsaber = new Lightsaber(configurator);
+    final Injector injector = lightsaber.createInjector(new ParentModule());
+    lightsaber.createChildInjector(injector, new ParentModule());
   }
 
-  @SuppressWarnings("ClassExplicitlyAnnotation")
-  private static class NamedProxy implements Named {
-    @Nonnull
-    private final String value;
-
-    NamedProxy(@Nonnull final String value) {
-      this.value = value;
-    }
-
-    @Override
-    public String value() {
-      return value;
-    }
-
-    @Override
-    public Class<? extends Annotation> annotationType() {
-      return Named.class;
-    }
-
-    @Override
-    public boolean equals(final Object object) {
-      if (this == object) {
-        return true;
-      }
+  @Test(expected = ConfigurationException.class)
+  public void testGetInstanceByUnknownSlot() throws Exception {
+    final Lightsaber lightsaber = new Lightsaber(configurator);
+    final LightsaberInjector injector = (LightsaberInjector) lightsaber.createInjector(new ParentModule());
+    injector.getInstance(REQUESTING_INJECTOR_SLOT + 1);
+  }
 
-      if (!(object instanceof Named)) {
-        return false;
+  @Test(expected = ConfigurationException.class)
+  public void testGetProviderByUnknownSlotInChildInjector() throws Exception {
+    final Lightsaber lightsaber = new Lightsaber(configurator);
+    final Injector injector = lightsaber.createInjector(new ParentModule());
+    final LightsaberInjector childInjector =
+        (LightsaberInjector) lightsaber.createChildInjector(injector, new ChildModule());
+    childInjector.getProvider(99);
+  }
+
+  @Test(expected = ConfigurationException.class)
+  public void testGetProviderByNegativeSlotInChildInjector() throws Exception {
+    final Lightsaber lightsaber = new Lightsaber(configurator);
+    final Injector injector = lightsaber.createInjector(new ParentModule());
+    final LightsaberInjector childInjector =
+        (LightsaberInjector) lightsaber.createChildInjector(injector, new ChildModule());
+    childInjector.getProvider(-1);
+  }
+
+  @Test
+  public void testInheritedProviderIsCachedByKey() throws Exception {
+    final Lightsaber lightsaber = new Lightsaber(configurator);
+    final Injector injector = lightsaber.createInjector(new ParentModule());
+    final Injector childInjector = lightsaber.createChildInjector(injector, new ChildModule());
+
+    assertSame(childInjector.getProvider(String.class), childInjector.getProvider(String.class));
+    assertSame(childInjector.getProvider(String.class), childInjector.getProvider(Key.of(String.class)));
+    assertSame(childInjector.getProvider(REQUESTING_INJECTOR_KEY), childInjector.getProvider(REQUESTING_INJECTOR_KEY));
+  }
+
+  @Test(expected = ConfigurationException.class)
+  public void testProviderCannotBeRegisteredAfterConfiguration() throws Exception {
+    final Lightsaber lightsaber = new Lightsaber(configurator);
+    final LightsaberInjector injector = (LightsaberInjector) lightsaber.createInjector(new ParentModule());
+    injector.registerProvider(Key.of(Object.class), new AbstractInjectingProvider<Object>(injector) {
+      @Nonnull
+      @Override
+      public Object getWithInjector(@Nonnull final Injector injector) {
+        return "Late Object";
       }
+    });
+  }
+
+  private static class ParentModule {
+  }
 
-      final Named that = (Named) object;
-      return value.equals(that.value());
-    }
+  private static class ChildModule {
+  }
 
-    @Override
-    public int hashCode() {
-      // Hash code for annotation is the sum of 127 * fieldName.hashCode() ^ fieldValue.hashCode().
-      return 127 * "value".hashCode() ^ value.hashCode();
-    }
+  private static class ChildAnnotatedModule {
   }
 }
@@ -0,0 +1,61 @@
+/*
+ * Copyright 2017 Michael Rozumyanskiy
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.michaelrocks.lightsaber;
+
+import javax.annotation.Nonnull;
+import javax.inject.Named;
+import java.lang.annotation.Annotation;
+
+@SuppressWarnings("ClassExplicitlyAnnotation")
+class NamedProxy implements Named {
+  @Nonnull
+  private final String value;
+
+  NamedProxy(@Nonnull final String value) {
+    this.value = value;
+  }
+
+  @Override
+  public String value() {
+    return value;
+  }
+
+  @Override
+  public Class<? extends Annotation> annotationType() {
+    return Named.class;
+  }
+
+  @Override
+  public boolean equals(final Object object) {
+    if (this == object) {
+      return true;
+    }
+
+    if (!(object instanceof Named)) {
+      return false;
+    }
+
+    final Named that = (Named) object;
+    return value.equals(that.value());
+  }
+
+  @Override
+  public int hashCode() {
+    // Hash code for annotation is the sum of 127 * fieldName.hashCode() ^ fieldValue.hashCode().
+    return 127 * "value".hashCode() ^ value.hashCode();
+  }
+}
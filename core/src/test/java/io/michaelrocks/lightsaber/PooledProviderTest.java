@@ -0,0 +1,174 @@
+/*
+ * Copyright 2017 Michael Rozumyanskiy
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.michaelrocks.lightsaber;
+
+import io.michaelrocks.lightsaber.internal.InjectingProvider;
+import org.junit.Test;
+
+import javax.annotation.Nonnull;
+import javax.inject.Provider;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.fail;
+import static org.mockito.Mockito.mock;
+
+public class PooledProviderTest {
+  @Test
+  public void testReleasedInstanceIsReused() throws Exception {
+    final CountingProvider delegate = new CountingProvider();
+    final PooledProvider<Object> provider = new PooledProvider<Object>(delegate);
+
+    final Object instance = provider.get();
+    Lightsaber.releasePooledInstance(provider, instance);
+
+    assertSame(instance, provider.get());
+    assertNotSame(instance, provider.get());
+    assertEquals(2, delegate.creationCount.get());
+
+    final PoolStatistics statistics = Lightsaber.getPoolStatistics(provider);
+    assertEquals(1, statistics.getHitCount());
+    assertEquals(2, statistics.getMissCount());
+    assertEquals(1, statistics.getReleaseCount());
+    assertEquals(0, statistics.getDiscardCount());
+    assertEquals(0, statistics.getIdleCount());
+  }
+
+  @Test
+  public void testPoolIsBounded() throws Exception {
+    final PooledProvider<Object> provider = new PooledProvider<Object>(new CountingProvider(), 1);
+    final Object[] instances = new Object[PooledProvider.STRIPE_CAPACITY + 1];
+    for (int i = 0; i < instances.length; ++i) {
+      instances[i] = provider.get();
+    }
+
+    for (final Object instance : instances) {
+      provider.release(instance);
+    }
+
+    final PoolStatistics statistics = provider.getStatistics();
+    assertEquals(PooledProvider.STRIPE_CAPACITY, statistics.getReleaseCount());
+    assertEquals(1, statistics.getDiscardCount());
+    assertEquals(PooledProvider.STRIPE_CAPACITY, statistics.getIdleCount());
+  }
+
+  @Test
+  public void testInstanceCanBeReleasedViaOverridingProvider() throws Exception {
+    final PooledProvider<Object> provider = new PooledProvider<Object>(new CountingProvider());
+    final Provider<Object> overridingProvider = new InjectorOverridingProvider<Object>(provider, mock(Injector.class));
+
+    final Object instance = overridingProvider.get();
+    Lightsaber.releasePooledInstance(overridingProvider, instance);
+
+    assertSame(instance, overridingProvider.get());
+  }
+
+  @Test
+  public void testInstanceCannotBeReleasedTwice() throws Exception {
+    final PooledProvider<Object> provider = new PooledProvider<Object>(new CountingProvider(), 1);
+    final Object instance = provider.get();
+    provider.release(instance);
+
+    try {
+      provider.release(instance);
+      fail();
+    } catch (final IllegalArgumentException exception) {
+      // Expected.
+    }
+
+    assertSame(instance, provider.get());
+    assertNotSame(instance, provider.get());
+    assertEquals(1, provider.getStatistics().getReleaseCount());
+  }
+
+  @Test
+  public void testInstanceCanBeReleasedAgainAfterBorrowing() throws Exception {
+    final PooledProvider<Object> provider = new PooledProvider<Object>(new CountingProvider(), 1);
+    final Object instance = provider.get();
+    provider.release(instance);
+    assertSame(instance, provider.get());
+    provider.release(instance);
+
+    assertEquals(2, provider.getStatistics().getReleaseCount());
+    assertEquals(1, provider.getStatistics().getIdleCount());
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testForeignInstanceCannotBeReleased() throws Exception {
+    final PooledProvider<Object> provider = new PooledProvider<Object>(new CountingProvider());
+    provider.get();
+    provider.release(new Object());
+  }
+
+  @Test
+  public void testInstanceCanBeReleasedByAnotherThread() throws Exception {
+    final PooledProvider<Object> provider = new PooledProvider<Object>(new CountingProvider(), 4);
+    final Object instance = provider.get();
+    final Thread thread = new Thread(new Runnable() {
+      @Override
+      public void run() {
+        provider.release(instance);
+      }
+    });
+    thread.start();
+    thread.join();
+
+    assertEquals(1, provider.getStatistics().getReleaseCount());
+  }
+
+  @Test
+  public void testManyInstancesCanBeReleasedInAnyOrder() throws Exception {
+    final PooledProvider<Object> provider = new PooledProvider<Object>(new CountingProvider(), 1);
+    final Object[] instances = new Object[100];
+    for (int i = 0; i < instances.length; ++i) {
+      instances[i] = provider.get();
+    }
+
+    for (int i = 0; i < instances.length; i += 2) {
+      provider.release(instances[i]);
+    }
+    for (int i = instances.length - 1; i > 0; i -= 2) {
+      provider.release(instances[i]);
+    }
+
+    final PoolStatistics statistics = provider.getStatistics();
+    assertEquals(instances.length, statistics.getReleaseCount() + statistics.getDiscardCount());
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testInstanceCannotBeReleasedToNonPooledProvider() throws Exception {
+    Lightsaber.releasePooledInstance(new CountingProvider(), new Object());
+  }
+
+  private static class CountingProvider implements InjectingProvider<Object> {
+    final AtomicInteger creationCount = new AtomicInteger();
+
+    @Override
+    public Object get() {
+      creationCount.incrementAndGet();
+      return new Object();
+    }
+
+    @Nonnull
+    @Override
+    public Object getWithInjector(@Nonnull final Injector injector) {
+      return get();
+    }
+  }
+}
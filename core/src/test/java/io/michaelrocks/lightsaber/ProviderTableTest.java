@@ -0,0 +1,185 @@
+/*
+ * Copyright 2017 Michael Rozumyanskiy
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.michaelrocks.lightsaber;
+
+import io.michaelrocks.lightsaber.internal.InjectingProvider;
+import org.junit.Test;
+
+import java.lang.reflect.Type;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.mockito.Mockito.mock;
+
+public class ProviderTableTest {
+  private static final int KEY_COUNT = 1000;
+
+  @Test
+  public void testAllKeysAreFound() throws Exception {
+    final ProviderTable.Builder builder = new ProviderTable.Builder();
+    final InjectingProvider<?>[] providers = new InjectingProvider<?>[KEY_COUNT];
+    for (int i = 0; i < KEY_COUNT; ++i) {
+      providers[i] = mock(InjectingProvider.class);
+      builder.put(Key.of(String.class, new NamedProxy("Key" + i)), providers[i]);
+    }
+
+    final ProviderTable table = builder.build(true);
+
+    for (int i = 0; i < KEY_COUNT; ++i) {
+      assertSame(providers[i], table.get(Key.of(String.class, new NamedProxy("Key" + i))));
+    }
+    assertNull(table.get(Key.of(String.class, new NamedProxy("Key" + KEY_COUNT))));
+    assertNull(table.get(String.class));
+  }
+
+  @Test
+  public void testAllKeysAreFoundInChildTable() throws Exception {
+    final ProviderTable.Builder builder = new ProviderTable.Builder();
+    final InjectingProvider<?>[] providers = new InjectingProvider<?>[KEY_COUNT];
+    for (int i = 0; i < KEY_COUNT; ++i) {
+      providers[i] = mock(InjectingProvider.class);
+      builder.put(Key.of(String.class, new NamedProxy("Key" + i)), providers[i]);
+    }
+
+    final ProviderTable table = builder.build(false);
+
+    for (int i = 0; i < KEY_COUNT; ++i) {
+      assertSame(providers[i], table.get(Key.of(String.class, new NamedProxy("Key" + i))));
+    }
+    assertNull(table.get(Key.of(String.class, new NamedProxy("Key" + KEY_COUNT))));
+    assertEquals(KEY_COUNT, table.getProviders().size());
+  }
+
+  @Test
+  public void testKeysOfSmallTableAreFound() throws Exception {
+    final ProviderTable.Builder builder = new ProviderTable.Builder();
+    final InjectingProvider<?> provider1 = mock(InjectingProvider.class);
+    final InjectingProvider<?> provider2 = mock(InjectingProvider.class);
+    builder.put(String.class, provider1);
+    builder.put(Key.of(String.class, new NamedProxy("Key")), provider2);
+
+    final ProviderTable table = builder.build(false);
+
+    assertSame(provider1, table.get(String.class));
+    assertSame(provider2, table.get(Key.of(String.class, new NamedProxy("Key"))));
+    assertNull(table.get(Object.class));
+    assertEquals(2, table.getProviders().size());
+  }
+
+  @Test
+  public void testKeysWithEqualHashCodesAreFound() throws Exception {
+    final ProviderTable.Builder builder = new ProviderTable.Builder();
+    final InjectingProvider<?> provider1 = mock(InjectingProvider.class);
+    final InjectingProvider<?> provider2 = mock(InjectingProvider.class);
+    final InjectingProvider<?> provider3 = mock(InjectingProvider.class);
+    builder.put(new CollidingType("Type1"), provider1);
+    builder.put(new CollidingType("Type2"), provider2);
+    builder.put(String.class, provider3);
+    // Enough keys for the table to use a perfect hash.
+    for (int i = 0; i < KEY_COUNT; ++i) {
+      builder.put(Key.of(String.class, new NamedProxy("Key" + i)), mock(InjectingProvider.class));
+    }
+
+    final ProviderTable table = builder.build(true);
+
+    assertSame(provider1, table.get(new CollidingType("Type1")));
+    assertSame(provider2, table.get(new CollidingType("Type2")));
+    assertSame(provider3, table.get(String.class));
+    assertNull(table.get(new CollidingType("Type3")));
+  }
+
+  @Test
+  public void testEmptyTable() throws Exception {
+    final ProviderTable table = new ProviderTable.Builder().build(true);
+
+    assertNull(table.get(String.class));
+    assertNull(table.getSlotProvider(0));
+    assertEquals(0, table.getSlotLimit());
+    assertEquals(0, table.getSingletonLevels().length);
+  }
+
+  @Test
+  public void testSlotProvidersAreFound() throws Exception {
+    final ProviderTable.Builder builder = new ProviderTable.Builder();
+    final InjectingProvider<?> provider = mock(InjectingProvider.class);
+    builder.put(String.class, provider);
+    builder.putSlot(2, String.class, provider);
+
+    final ProviderTable table = builder.build(true);
+
+    assertNull(table.getSlotProvider(0));
+    assertNull(table.getSlotProvider(1));
+    assertSame(provider, table.getSlotProvider(2));
+    assertNull(table.getSlotProvider(3));
+    assertEquals(3, table.getSlotLimit());
+  }
+
+  @Test
+  public void testSlotsOutsideOfDenseRangeAreFound() throws Exception {
+    final ProviderTable.Builder builder = new ProviderTable.Builder();
+    final InjectingProvider<?>[] providers = new InjectingProvider<?>[KEY_COUNT];
+    for (int i = 0; i < KEY_COUNT; ++i) {
+      providers[i] = mock(InjectingProvider.class);
+    }
+    // A child component gets the injector slot and a contiguous range at the end of the global numbering.
+    builder.putSlot(0, Injector.class, providers[0]);
+    for (int i = 1; i < KEY_COUNT; ++i) {
+      builder.putSlot(KEY_COUNT * 100 + i, Key.of(String.class, new NamedProxy("Key" + i)), providers[i]);
+    }
+    builder.putSlot(KEY_COUNT * 50, Object.class, providers[0]);
+
+    final ProviderTable table = builder.build(true);
+
+    assertSame(providers[0], table.getSlotProvider(0));
+    for (int i = 1; i < KEY_COUNT; ++i) {
+      assertSame(providers[i], table.getSlotProvider(KEY_COUNT * 100 + i));
+    }
+    assertSame(providers[0], table.getSlotProvider(KEY_COUNT * 50));
+    assertNull(table.getSlotProvider(1));
+    assertNull(table.getSlotProvider(KEY_COUNT * 100));
+    assertEquals(KEY_COUNT * 101, table.getSlotLimit());
+  }
+
+  @Test(expected = ConfigurationException.class)
+  public void testSlotBoundTwiceIsRejected() throws Exception {
+    final ProviderTable.Builder builder = new ProviderTable.Builder();
+    final InjectingProvider<?> provider = mock(InjectingProvider.class);
+    builder.putSlot(1, String.class, provider);
+    builder.putSlot(1, Object.class, provider);
+
+    builder.build(true);
+  }
+
+  private static class CollidingType implements Type {
+    private final String name;
+
+    CollidingType(final String name) {
+      this.name = name;
+    }
+
+    @Override
+    public boolean equals(final Object object) {
+      return object instanceof CollidingType && name.equals(((CollidingType) object).name);
+    }
+
+    @Override
+    public int hashCode() {
+      return 42;
+    }
+  }
+}
@@ -0,0 +1,150 @@
+/*
+ * Copyright 2017 Michael Rozumyanskiy
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.michaelrocks.lightsaber;
+
+import io.michaelrocks.lightsaber.internal.AbstractInjectingProvider;
+import io.michaelrocks.lightsaber.internal.IndexedInjector;
+import org.junit.Test;
+import org.mockito.invocation.InvocationOnMock;
+import org.mockito.stubbing.Answer;
+
+import javax.annotation.Nonnull;
+import javax.inject.Provider;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.mockito.Mockito.*;
+
+public class RequestContextTest {
+  private static final int STATE_SLOT = 1;
+  private static final int HANDLER_SLOT = 2;
+  private static final int STATE_REQUEST_SLOT = 0;
+
+  @Test
+  public void testRequestScopedInstanceIsSharedWithinContext() throws Exception {
+    final LightsaberInjector injector = createInjector();
+    final RequestContext context = Lightsaber.openRequestContext(injector);
+
+    final Handler handler1 = context.getInstance(Handler.class);
+    final Handler handler2 = context.getInstance(Handler.class);
+
+    assertNotSame(handler1, handler2);
+    assertSame(handler1.state, handler2.state);
+    assertSame(handler1.state, context.getInstance(State.class));
+    assertSame(handler1.state, context.getProvider(State.class).get());
+  }
+
+  @Test
+  public void testRequestScopedInstanceIsNotSharedBetweenContexts() throws Exception {
+    final LightsaberInjector injector = createInjector();
+    final RequestContext context1 = Lightsaber.openRequestContext(injector);
+    final RequestContext context2 = Lightsaber.openRequestContext(injector);
+
+    assertNotSame(context1.getInstance(State.class), context2.getInstance(State.class));
+  }
+
+  @Test
+  public void testContextProvidesItselfAsInjector() throws Exception {
+    final RequestContext context = Lightsaber.openRequestContext(createInjector());
+
+    assertSame(context, context.getInstance(IndexedInjector.INJECTOR_SLOT));
+    assertSame(context, context.getProvider(IndexedInjector.INJECTOR_SLOT).get());
+  }
+
+  @Test
+  public void testSlotProvidersAreReused() throws Exception {
+    final RequestContext context = Lightsaber.openRequestContext(createInjector());
+
+    assertSame(context.getProvider(STATE_SLOT), context.getProvider(STATE_SLOT));
+    assertSame(context.getProvider(IndexedInjector.INJECTOR_SLOT), context.getProvider(IndexedInjector.INJECTOR_SLOT));
+    assertSame(context.getInstance(State.class), context.getProvider(STATE_SLOT).get());
+  }
+
+  @Test(expected = ConfigurationException.class)
+  public void testRequestScopedInstanceCannotBeProvidedByInjector() throws Exception {
+    createInjector().getInstance(State.class);
+  }
+
+  @Test(expected = IllegalStateException.class)
+  public void testClosedContextCannotProvideRequestScopedInstance() throws Exception {
+    final RequestContext context = Lightsaber.openRequestContext(createInjector());
+    context.close();
+    context.getInstance(State.class);
+  }
+
+  @Test
+  public void testClosedContextCanProvideUnscopedInstance() throws Exception {
+    final RequestContext context = Lightsaber.openRequestContext(createInjector());
+    final Provider<String> provider = context.getProvider(String.class);
+    context.close();
+
+    assertEquals("String", provider.get());
+  }
+
+  private static LightsaberInjector createInjector() {
+    final InjectorConfigurator component = new InjectorConfigurator() {
+      @Override
+      public void configureInjector(final LightsaberInjector injector, final Object component) {
+        injector.registerProvider(STATE_SLOT, State.class,
+            new RequestScopeProvider<State>(new AbstractInjectingProvider<State>(injector) {
+              @Nonnull
+              @Override
+              public State getWithInjector(@Nonnull final Injector injector) {
+                return new State();
+              }
+            }, STATE_REQUEST_SLOT));
+        injector.registerProvider(HANDLER_SLOT, Handler.class, new AbstractInjectingProvider<Handler>(injector, 1) {
+          @Nonnull
+          @Override
+          public Handler getWithInjector(@Nonnull final Injector injector) {
+            return new Handler(this.<State>getDependencyInstance(injector, 0, STATE_SLOT));
+          }
+        });
+        injector.registerProvider(String.class, new AbstractInjectingProvider<String>(injector) {
+          @Nonnull
+          @Override
+          public String getWithInjector(@Nonnull final Injector injector) {
+            return "String";
+          }
+        });
+      }
+    };
+
+    final Lightsaber.Configurator configurator = mock(Lightsaber.Configurator.class);
+    doAnswer(new Answer<Object>() {
+      @Override
+      public Object answer(final InvocationOnMock invocation) throws Throwable {
+        component.configureInjector((LightsaberInjector) invocation.getArguments()[0], component);
+        return null;
+      }
+    })
+        .when(configurator).configureInjector(any(LightsaberInjector.class), same(component));
+    return (LightsaberInjector) new Lightsaber(configurator).createInjector(component);
+  }
+
+  private static class State {
+  }
+
+  private static class Handler {
+    final State state;
+
+    Handler(final State state) {
+      this.state = state;
+    }
+  }
+}
@@ -0,0 +1,67 @@
+/*
+ * Copyright 2017 Michael Rozumyanskiy
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.michaelrocks.lightsaber;
+
+import io.michaelrocks.lightsaber.internal.InjectingProvider;
+import org.junit.Test;
+
+import javax.annotation.Nonnull;
+
+import static org.junit.Assert.assertSame;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class ReusableProviderTest {
+  @Test
+  public void testInstanceIsReused() throws Exception {
+    // noinspection unchecked
+    final InjectingProvider<Object> delegate = mock(InjectingProvider.class);
+    final Object instance = new Object();
+    when(delegate.get()).thenReturn(instance);
+    final ReusableProvider<Object> provider = new ReusableProvider<Object>(delegate);
+
+    assertSame(instance, provider.get());
+    assertSame(instance, provider.get());
+    assertSame(instance, provider.getWithInjector(mock(Injector.class)));
+
+    verify(delegate, times(1)).get();
+  }
+
+  @Test
+  public void testInstanceIsCreatedWithInjector() throws Exception {
+    final Injector injector = mock(Injector.class);
+    final ReusableProvider<Object> provider = new ReusableProvider<Object>(new InjectingProvider<Object>() {
+      @Override
+      public Object get() {
+        throw new AssertionError();
+      }
+
+      @Nonnull
+      @Override
+      public Object getWithInjector(@Nonnull final Injector actualInjector) {
+        assertSame(injector, actualInjector);
+        return new Object();
+      }
+    });
+
+    final Object instance = provider.getWithInjector(injector);
+
+    assertSame(instance, provider.get());
+  }
+}
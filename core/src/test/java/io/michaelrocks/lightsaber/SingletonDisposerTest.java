@@ -0,0 +1,269 @@
+/*
+ * Copyright 2017 Michael Rozumyanskiy
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.michaelrocks.lightsaber;
+
+import io.michaelrocks.lightsaber.internal.AbstractInjectingProvider;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.invocation.InvocationOnMock;
+import org.mockito.stubbing.Answer;
+
+import javax.annotation.Nonnull;
+import java.io.Closeable;
+import java.lang.ref.WeakReference;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+import static org.mockito.Mockito.*;
+
+public class SingletonDisposerTest {
+  private static final int FIRST_SLOT = 1;
+  private static final int SECOND_SLOT = 2;
+  private static final int THIRD_SLOT = 3;
+
+  private final List<String> disposalLog = Collections.synchronizedList(new ArrayList<String>());
+  private ExecutorService executor;
+
+  @Before
+  public void createExecutor() {
+    executor = Executors.newFixedThreadPool(2);
+  }
+
+  @After
+  public void shutdownExecutor() {
+    executor.shutdownNow();
+  }
+
+  @Test
+  public void testSingletonsAreDisposedInReverseOrder() throws Exception {
+    final LightsaberInjector injector = createInjector(new InjectorConfigurator() {
+      @Override
+      public void configureInjector(final LightsaberInjector injector, final Object component) {
+        registerSingleton(injector, FIRST_SLOT, "First");
+        registerSingleton(injector, SECOND_SLOT, "Second");
+        registerSingleton(injector, THIRD_SLOT, "Third");
+        injector.registerSingletonLevels(new int[][] { { FIRST_SLOT }, { SECOND_SLOT }, { THIRD_SLOT } });
+        injector.registerDisposalLevels(new int[][] { { FIRST_SLOT }, { SECOND_SLOT }, { THIRD_SLOT } });
+      }
+    });
+    Lightsaber.warmUpSingletons(injector, executor);
+
+    Lightsaber.closeInjector(injector, new LoggingDisposalHook(), executor);
+
+    assertEquals(Arrays.asList("Third", "Second", "First"), disposalLog);
+  }
+
+  @Test
+  public void testFieldInjectedSingletonIsDisposedAfterDependentSingleton() throws Exception {
+    final LightsaberInjector injector = createInjector(new InjectorConfigurator() {
+      @Override
+      public void configureInjector(final LightsaberInjector injector, final Object component) {
+        registerSingleton(injector, FIRST_SLOT, "First");
+        injector.registerProvider(SECOND_SLOT, Key.of(String.class, new NamedProxy("Second")),
+            new SingletonProvider<String>(new AbstractInjectingProvider<String>(injector) {
+              @Nonnull
+              @Override
+              public String getWithInjector(@Nonnull final Injector injector) {
+                // Emulates a field injection which isn't taken into account by warm-up levels.
+                injector.getInstance(Key.of(String.class, new NamedProxy("First")));
+                return "Second";
+              }
+            }));
+        injector.registerSingletonLevels(new int[][] { { FIRST_SLOT, SECOND_SLOT } });
+        injector.registerDisposalLevels(new int[][] { { FIRST_SLOT }, { SECOND_SLOT } });
+      }
+    });
+    injector.getInstance(SECOND_SLOT);
+
+    Lightsaber.closeInjector(injector, new LoggingDisposalHook(), executor);
+
+    assertEquals(Arrays.asList("Second", "First"), disposalLog);
+  }
+
+  @Test
+  public void testWarmUpLevelsAreNotUsedForDisposal() throws Exception {
+    final LightsaberInjector injector = createInjector(new InjectorConfigurator() {
+      @Override
+      public void configureInjector(final LightsaberInjector injector, final Object component) {
+        registerSingleton(injector, FIRST_SLOT, "First");
+        registerSingleton(injector, SECOND_SLOT, "Second");
+        injector.registerSingletonLevels(new int[][] { { SECOND_SLOT }, { FIRST_SLOT } });
+        injector.registerDisposalLevels(new int[][] { { FIRST_SLOT }, { SECOND_SLOT } });
+      }
+    });
+    Lightsaber.warmUpSingletons(injector, executor);
+
+    Lightsaber.closeInjector(injector, new LoggingDisposalHook(), executor);
+
+    assertEquals(Arrays.asList("Second", "First"), disposalLog);
+  }
+
+  @Test
+  public void testOnlyCreatedSingletonsAreDisposed() throws Exception {
+    final LightsaberInjector injector = createInjector(new InjectorConfigurator() {
+      @Override
+      public void configureInjector(final LightsaberInjector injector, final Object component) {
+        registerSingleton(injector, FIRST_SLOT, "First");
+        registerSingleton(injector, SECOND_SLOT, "Second");
+        injector.registerDisposalLevels(new int[][] { { FIRST_SLOT, SECOND_SLOT } });
+      }
+    });
+    injector.getInstance(SECOND_SLOT);
+
+    Lightsaber.closeInjector(injector, new LoggingDisposalHook(), executor);
+
+    assertEquals(Collections.singletonList("Second"), disposalLog);
+  }
+
+  @Test
+  public void testCloseableSingletonIsClosedByDefault() throws Exception {
+    final Closeable closeable = mock(Closeable.class);
+    final LightsaberInjector injector = createInjector(new InjectorConfigurator() {
+      @Override
+      public void configureInjector(final LightsaberInjector injector, final Object component) {
+        injector.registerProvider(FIRST_SLOT, Closeable.class,
+            new SingletonProvider<Closeable>(new AbstractInjectingProvider<Closeable>(injector) {
+              @Nonnull
+              @Override
+              public Closeable getWithInjector(@Nonnull final Injector injector) {
+                return closeable;
+              }
+            }));
+      }
+    });
+    injector.getInstance(Closeable.class);
+
+    injector.close();
+    injector.close();
+
+    verify(closeable, times(1)).close();
+  }
+
+  @Test
+  public void testDisposedSingletonCannotBeProvided() throws Exception {
+    final LightsaberInjector injector = createInjector(new InjectorConfigurator() {
+      @Override
+      public void configureInjector(final LightsaberInjector injector, final Object component) {
+        registerSingleton(injector, FIRST_SLOT, "First");
+      }
+    });
+    injector.getInstance(FIRST_SLOT);
+    injector.close();
+
+    try {
+      injector.getInstance(FIRST_SLOT);
+      fail();
+    } catch (final IllegalStateException exception) {
+      // Expected.
+    }
+  }
+
+  @Test
+  public void testFailureIsPropagatedAfterAllSingletonsAreDisposed() throws Exception {
+    final LightsaberInjector injector = createInjector(new InjectorConfigurator() {
+      @Override
+      public void configureInjector(final LightsaberInjector injector, final Object component) {
+        registerSingleton(injector, FIRST_SLOT, "First");
+        registerSingleton(injector, SECOND_SLOT, "Second");
+        injector.registerSingletonLevels(new int[][] { { FIRST_SLOT }, { SECOND_SLOT } });
+        injector.registerDisposalLevels(new int[][] { { FIRST_SLOT }, { SECOND_SLOT } });
+      }
+    });
+    Lightsaber.warmUpSingletons(injector, executor);
+
+    try {
+      Lightsaber.closeInjector(injector, new DisposalHook() {
+        @Override
+        public void dispose(@Nonnull final Object instance) throws Exception {
+          disposalLog.add((String) instance);
+          if ("Second".equals(instance)) {
+            throw new IllegalStateException();
+          }
+        }
+      }, null);
+      fail();
+    } catch (final IllegalStateException exception) {
+      // Expected.
+    }
+
+    assertEquals(Arrays.asList("Second", "First"), disposalLog);
+  }
+
+  @Test
+  public void testSingletonIsCollectedAfterClose() throws Exception {
+    final LightsaberInjector injector = createInjector(new InjectorConfigurator() {
+      @Override
+      public void configureInjector(final LightsaberInjector injector, final Object component) {
+        injector.registerProvider(FIRST_SLOT, Object.class,
+            new SingletonProvider<Object>(new AbstractInjectingProvider<Object>(injector) {
+              @Nonnull
+              @Override
+              public Object getWithInjector(@Nonnull final Injector injector) {
+                return new Object();
+              }
+            }));
+      }
+    });
+    final WeakReference<Object> reference = new WeakReference<Object>(injector.getInstance(Object.class));
+
+    injector.close();
+    SingletonProviderTest.awaitCollection(reference);
+
+    assertNull(reference.get());
+    assertTrue(injector.getOwnProvider(FIRST_SLOT) instanceof SingletonProvider<?>);
+  }
+
+  private static LightsaberInjector createInjector(final InjectorConfigurator component) {
+    final Lightsaber.Configurator configurator = mock(Lightsaber.Configurator.class);
+    doAnswer(new Answer<Object>() {
+      @Override
+      public Object answer(final InvocationOnMock invocation) throws Throwable {
+        component.configureInjector((LightsaberInjector) invocation.getArguments()[0], component);
+        return null;
+      }
+    })
+        .when(configurator).configureInjector(any(LightsaberInjector.class), same(component));
+    return (LightsaberInjector) new Lightsaber(configurator).createInjector(component);
+  }
+
+  private static void registerSingleton(final LightsaberInjector injector, final int slot, final String name) {
+    injector.registerProvider(slot, Key.of(String.class, new NamedProxy(name)),
+        new SingletonProvider<String>(new AbstractInjectingProvider<String>(injector) {
+          @Nonnull
+          @Override
+          public String getWithInjector(@Nonnull final Injector injector) {
+            return name;
+          }
+        }));
+  }
+
+  private class LoggingDisposalHook implements DisposalHook {
+    @Override
+    public void dispose(@Nonnull final Object instance) throws Exception {
+      disposalLog.add((String) instance);
+    }
+  }
+}
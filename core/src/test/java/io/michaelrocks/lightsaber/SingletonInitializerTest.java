@@ -0,0 +1,121 @@
+/*
+ * Copyright 2017 Michael Rozumyanskiy
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.michaelrocks.lightsaber;
+
+import io.michaelrocks.lightsaber.internal.AbstractInjectingProvider;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.invocation.InvocationOnMock;
+import org.mockito.stubbing.Answer;
+
+import javax.annotation.Nonnull;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import static org.junit.Assert.assertEquals;
+import static org.mockito.Mockito.*;
+
+public class SingletonInitializerTest {
+  private static final int FIRST_SLOT = 1;
+  private static final int SECOND_SLOT = 2;
+  private static final int THIRD_SLOT = 3;
+
+  private final List<String> creationLog = Collections.synchronizedList(new ArrayList<String>());
+  private ExecutorService executor;
+
+  @Before
+  public void createExecutor() {
+    executor = Executors.newFixedThreadPool(2);
+  }
+
+  @After
+  public void shutdownExecutor() {
+    executor.shutdownNow();
+  }
+
+  @Test
+  public void testSingletonsAreCreatedLevelByLevel() throws Exception {
+    final LightsaberInjector injector = createInjector(new InjectorConfigurator() {
+      @Override
+      public void configureInjector(final LightsaberInjector injector, final Object component) {
+        registerSingleton(injector, FIRST_SLOT, "First");
+        registerSingleton(injector, SECOND_SLOT, "Second");
+        registerSingleton(injector, THIRD_SLOT, "Third");
+        injector.registerSingletonLevels(new int[][] { { FIRST_SLOT, SECOND_SLOT }, { THIRD_SLOT } });
+      }
+    });
+
+    Lightsaber.warmUpSingletons(injector, executor);
+
+    assertEquals(3, creationLog.size());
+    assertEquals("Third", creationLog.get(2));
+    assertEquals("First", injector.getInstance(FIRST_SLOT));
+    assertEquals("Second", injector.getInstance(SECOND_SLOT));
+    assertEquals("Third", injector.getInstance(THIRD_SLOT));
+    assertEquals(3, creationLog.size());
+  }
+
+  @Test(expected = IllegalStateException.class)
+  public void testFailureIsPropagated() throws Exception {
+    final LightsaberInjector injector = createInjector(new InjectorConfigurator() {
+      @Override
+      public void configureInjector(final LightsaberInjector injector, final Object component) {
+        registerSingleton(injector, FIRST_SLOT, "First");
+        injector.registerProvider(SECOND_SLOT, Integer.class,
+            new SingletonProvider<Integer>(new AbstractInjectingProvider<Integer>(injector) {
+              @Nonnull
+              @Override
+              public Integer getWithInjector(@Nonnull final Injector injector) {
+                throw new IllegalStateException();
+              }
+            }));
+        injector.registerSingletonLevels(new int[][] { { FIRST_SLOT, SECOND_SLOT } });
+      }
+    });
+
+    Lightsaber.warmUpSingletons(injector, executor);
+  }
+
+  private static LightsaberInjector createInjector(final InjectorConfigurator component) {
+    final Lightsaber.Configurator configurator = mock(Lightsaber.Configurator.class);
+    doAnswer(new Answer<Object>() {
+      @Override
+      public Object answer(final InvocationOnMock invocation) throws Throwable {
+        component.configureInjector((LightsaberInjector) invocation.getArguments()[0], component);
+        return null;
+      }
+    })
+        .when(configurator).configureInjector(any(LightsaberInjector.class), same(component));
+    return (LightsaberInjector) new Lightsaber(configurator).createInjector(component);
+  }
+
+  private void registerSingleton(final LightsaberInjector injector, final int slot, final String name) {
+    injector.registerProvider(slot, Key.of(String.class, new NamedProxy(name)),
+        new SingletonProvider<String>(new AbstractInjectingProvider<String>(injector) {
+          @Nonnull
+          @Override
+          public String getWithInjector(@Nonnull final Injector injector) {
+            creationLog.add(name);
+            return name;
+          }
+        }));
+  }
+}
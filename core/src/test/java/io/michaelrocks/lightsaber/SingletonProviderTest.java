@@ -0,0 +1,180 @@
+/*
+ * Copyright 2017 Michael Rozumyanskiy
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.michaelrocks.lightsaber;
+
+import io.michaelrocks.lightsaber.internal.InjectingProvider;
+import org.junit.Test;
+
+import javax.annotation.Nonnull;
+import java.lang.ref.WeakReference;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.fail;
+import static org.mockito.Mockito.mock;
+
+public class SingletonProviderTest {
+  private static final int THREAD_COUNT = 16;
+
+  @Test
+  public void testInstanceIsCreatedOnce() throws Exception {
+    final CountingProvider delegate = new CountingProvider(0);
+    final SingletonProvider<Object> provider = new SingletonProvider<Object>(delegate);
+
+    final Object instance = provider.get();
+
+    assertSame(instance, provider.get());
+    assertSame(instance, provider.getWithInjector(mock(Injector.class)));
+    assertEquals(1, delegate.creationCount.get());
+  }
+
+  @Test
+  public void testInstanceIsCreatedOnceUnderContention() throws Exception {
+    final CountingProvider delegate = new CountingProvider(50);
+    final SingletonProvider<Object> provider = new SingletonProvider<Object>(delegate);
+    final CountDownLatch startLatch = new CountDownLatch(1);
+    final ExecutorService executor = Executors.newFixedThreadPool(THREAD_COUNT);
+    try {
+      final Future<?>[] futures = new Future<?>[THREAD_COUNT];
+      for (int i = 0; i < THREAD_COUNT; ++i) {
+        futures[i] = executor.submit(new Callable<Object>() {
+          @Override
+          public Object call() throws Exception {
+            startLatch.await();
+            return provider.get();
+          }
+        });
+      }
+
+      startLatch.countDown();
+      final Object instance = futures[0].get();
+      for (final Future<?> future : futures) {
+        assertSame(instance, future.get());
+      }
+      assertEquals(1, delegate.creationCount.get());
+    } finally {
+      executor.shutdownNow();
+    }
+  }
+
+  @Test
+  public void testInstanceIsCreatedAgainAfterFailure() throws Exception {
+    final AtomicInteger attemptCount = new AtomicInteger();
+    final SingletonProvider<Object> provider = new SingletonProvider<Object>(new InjectingProvider<Object>() {
+      @Override
+      public Object get() {
+        if (attemptCount.incrementAndGet() == 1) {
+          throw new IllegalStateException();
+        }
+        return new Object();
+      }
+
+      @Nonnull
+      @Override
+      public Object getWithInjector(@Nonnull final Injector injector) {
+        return get();
+      }
+    });
+
+    try {
+      provider.get();
+      fail();
+    } catch (final IllegalStateException exception) {
+      // Expected.
+    }
+
+    final Object instance = provider.get();
+    assertSame(instance, provider.get());
+    assertEquals(2, attemptCount.get());
+  }
+
+  @Test(expected = ConfigurationException.class)
+  public void testRecursiveCreationIsRejected() throws Exception {
+    final SingletonProvider<?>[] providers = new SingletonProvider<?>[1];
+    providers[0] = new SingletonProvider<Object>(new InjectingProvider<Object>() {
+      @Override
+      public Object get() {
+        return providers[0].get();
+      }
+
+      @Nonnull
+      @Override
+      public Object getWithInjector(@Nonnull final Injector injector) {
+        return get();
+      }
+    });
+
+    providers[0].get();
+  }
+
+  @Test
+  public void testDelegateIsReleasedAfterCreation() throws Exception {
+    CountingProvider delegate = new CountingProvider(0);
+    final WeakReference<CountingProvider> delegateReference = new WeakReference<CountingProvider>(delegate);
+    final SingletonProvider<Object> provider = new SingletonProvider<Object>(delegate);
+    // noinspection UnusedAssignment
+    delegate = null;
+
+    final Object instance = provider.get();
+    awaitCollection(delegateReference);
+
+    assertNull(delegateReference.get());
+    assertSame(instance, provider.get());
+  }
+
+  static void awaitCollection(final WeakReference<?> reference) throws InterruptedException {
+    for (int i = 0; i < 100 && reference.get() != null; ++i) {
+      System.gc();
+      Thread.sleep(10);
+    }
+  }
+
+  private static class CountingProvider implements InjectingProvider<Object> {
+    final AtomicInteger creationCount = new AtomicInteger();
+    private final long creationDelay;
+
+    CountingProvider(final long creationDelay) {
+      this.creationDelay = creationDelay;
+    }
+
+    @Override
+    public Object get() {
+      creationCount.incrementAndGet();
+      if (creationDelay > 0) {
+        try {
+          Thread.sleep(creationDelay);
+        } catch (final InterruptedException exception) {
+          Thread.currentThread().interrupt();
+        }
+      }
+      return new Object();
+    }
+
+    @Nonnull
+    @Override
+    public Object getWithInjector(@Nonnull final Injector injector) {
+      return get();
+    }
+  }
+}
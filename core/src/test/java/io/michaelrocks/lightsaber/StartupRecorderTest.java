@@ -0,0 +1,140 @@
+/*
+ * Copyright 2017 Michael Rozumyanskiy
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.michaelrocks.lightsaber;
+
+import org.junit.Test;
+
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Mockito.mock;
+
+public class StartupRecorderTest {
+  // Parents report long durations so they start before their children complete.
+  private static final long PARENT_DURATION = 1000000000L;
+
+  @Test
+  public void testNestedProvisionsAreAdopted() throws Exception {
+    final StartupRecorder recorder = new StartupRecorder();
+    recorder.onProvision(Key.of(Integer.class), null, 0);
+    recorder.onProvision(Key.of(Long.class), null, 0);
+    recorder.onProvision(Key.of(String.class), null, PARENT_DURATION);
+
+    final List<StartupReport.Node> roots = recorder.createReport().getRoots();
+    assertEquals(1, roots.size());
+    final StartupReport.Node root = roots.get(0);
+    assertEquals(getName(String.class), root.getName());
+    assertEquals(2, root.getChildren().size());
+    assertEquals(getName(Integer.class), root.getChildren().get(0).getName());
+    assertEquals(getName(Long.class), root.getChildren().get(1).getName());
+  }
+
+  @Test
+  public void testSingletonCreationIsMergedWithProvision() throws Exception {
+    final StartupRecorder recorder = new StartupRecorder();
+    recorder.onProvision(Key.of(Integer.class), null, 0);
+    recorder.onSingletonCreated(Key.of(String.class), null, PARENT_DURATION);
+    recorder.onProvision(Key.of(String.class), null, PARENT_DURATION + 1);
+
+    final List<StartupReport.Node> roots = recorder.createReport().getRoots();
+    assertEquals(1, roots.size());
+    final StartupReport.Node root = roots.get(0);
+    assertEquals(StartupReport.Kind.SINGLETON_CREATION, root.getKind());
+    assertEquals(PARENT_DURATION + 1, root.getTotalNanos());
+    assertEquals(PARENT_DURATION + 1, root.getSelfNanos());
+    assertEquals(1, root.getChildren().size());
+    assertEquals(getName(Integer.class), root.getChildren().get(0).getName());
+  }
+
+  @Test
+  public void testCriticalPathFollowsSlowestChildren() throws Exception {
+    final StartupRecorder recorder = new StartupRecorder();
+    recorder.onProvision(Key.of(Integer.class), null, 10);
+    recorder.onProvision(Key.of(Long.class), null, 20);
+    recorder.onProvision(Key.of(String.class), null, PARENT_DURATION);
+    recorder.onInjectorCreated(mock(Injector.class), null, new Object(), null, 2 * PARENT_DURATION);
+
+    final StartupReport report = recorder.createReport();
+    final List<StartupReport.Node> path = report.getCriticalPath();
+    assertEquals(3, path.size());
+    assertEquals(StartupReport.Kind.INJECTOR_CREATION, path.get(0).getKind());
+    assertEquals(getName(String.class), path.get(1).getName());
+    assertEquals(getName(Long.class), path.get(2).getName());
+
+    final List<StartupReport.Binding> bindings = report.getLargestSelfTimeBindings(1);
+    assertEquals(1, bindings.size());
+    assertEquals(getName(String.class), bindings.get(0).getName());
+    assertEquals(PARENT_DURATION - 30, bindings.get(0).getSelfNanos());
+  }
+
+  @Test
+  public void testReportsAreWritten() throws Exception {
+    final StartupRecorder recorder = new StartupRecorder();
+    recorder.onProvision(Key.of(Integer.class), null, 0);
+    recorder.onProvision(Key.of(String.class), null, PARENT_DURATION);
+
+    final StartupReport report = recorder.createReport();
+    final StringBuilder text = new StringBuilder();
+    report.writeText(text);
+    assertTrue(text.toString().contains("* " + getName(String.class) + " [provision] 1000.000 ms total"));
+    final StringBuilder json = new StringBuilder();
+    report.writeJson(json);
+    assertTrue(json.toString().startsWith("{\"criticalPath\":[{\"name\":\"" + getName(String.class) + "\""));
+    assertTrue(json.toString().contains(
+        "\"children\":[{\"name\":\"" + getName(Integer.class) + "\",\"kind\":\"PROVISION\""));
+  }
+
+  @Test
+  public void testQualifiedBindingsAreNotMerged() throws Exception {
+    final Key<String> qualifiedKey = Key.of(String.class, new NamedProxy("Qualified"));
+    final StartupRecorder recorder = new StartupRecorder();
+    recorder.onProvision(Key.of(String.class), null, 0);
+    recorder.onProvision(qualifiedKey, null, 0);
+
+    final List<StartupReport.Binding> bindings = recorder.createReport().getLargestSelfTimeBindings(2);
+    assertEquals(2, bindings.size());
+    assertNotEquals(bindings.get(0).getName(), bindings.get(1).getName());
+    assertTrue(bindings.get(0).getName().equals(qualifiedKey.toString())
+        || bindings.get(1).getName().equals(qualifiedKey.toString()));
+  }
+
+  @Test
+  public void testRecordingStopsAfterMaxRecordCount() throws Exception {
+    final StartupRecorder recorder = new StartupRecorder(2);
+    recorder.onProvision(Key.of(Integer.class), null, 0);
+    recorder.onProvision(Key.of(Long.class), null, 0);
+    assertTrue(recorder.isRecording());
+    recorder.onProvision(Key.of(String.class), null, 0);
+    assertFalse(recorder.isRecording());
+    assertEquals(2, recorder.createReport().getRoots().size());
+  }
+
+  @Test
+  public void testNothingIsRecordedAfterStop() throws Exception {
+    final StartupRecorder recorder = new StartupRecorder();
+    recorder.stop();
+    recorder.onProvision(Key.of(String.class), null, 0);
+    assertTrue(recorder.createReport().getRoots().isEmpty());
+  }
+
+  private static String getName(final Class<?> type) {
+    return Key.of(type).toString();
+  }
+}
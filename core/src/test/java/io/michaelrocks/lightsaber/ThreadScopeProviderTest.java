@@ -0,0 +1,143 @@
+/*
+ * Copyright 2017 Michael Rozumyanskiy
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.michaelrocks.lightsaber;
+
+import io.michaelrocks.lightsaber.internal.InjectingProvider;
+import org.junit.After;
+import org.junit.Test;
+import org.mockito.invocation.InvocationOnMock;
+import org.mockito.stubbing.Answer;
+
+import javax.annotation.Nonnull;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.mockito.Mockito.any;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.same;
+
+public class ThreadScopeProviderTest {
+  @After
+  public void tearDown() {
+    Lightsaber.clearThreadScope();
+  }
+
+  @Test
+  public void testInstanceIsCreatedOncePerThread() throws Exception {
+    final CountingProvider delegate = new CountingProvider();
+    final ThreadScopeProvider<Object> provider = new ThreadScopeProvider<Object>(delegate);
+
+    final Object instance = provider.get();
+
+    assertSame(instance, provider.get());
+    assertSame(instance, provider.getWithInjector(mock(Injector.class)));
+    assertEquals(1, delegate.creationCount.get());
+  }
+
+  @Test
+  public void testInstancesAreNotSharedBetweenThreads() throws Exception {
+    final CountingProvider delegate = new CountingProvider();
+    final ThreadScopeProvider<Object> provider = new ThreadScopeProvider<Object>(delegate);
+    final ExecutorService executor = Executors.newSingleThreadExecutor();
+    try {
+      final Object instance = provider.get();
+      final Object foreignInstance = executor.submit(new Callable<Object>() {
+        @Override
+        public Object call() throws Exception {
+          return provider.get();
+        }
+      }).get();
+
+      assertNotSame(instance, foreignInstance);
+      assertSame(instance, provider.get());
+      assertEquals(2, delegate.creationCount.get());
+    } finally {
+      executor.shutdownNow();
+    }
+  }
+
+  @Test
+  public void testInstancesAreCreatedAgainAfterClearing() throws Exception {
+    final CountingProvider delegate1 = new CountingProvider();
+    final CountingProvider delegate2 = new CountingProvider();
+    final ThreadScopeProvider<Object> provider1 = new ThreadScopeProvider<Object>(delegate1);
+    final ThreadScopeProvider<Object> provider2 = new ThreadScopeProvider<Object>(delegate2);
+
+    final Object instance1 = provider1.get();
+    final Object instance2 = provider2.get();
+    Lightsaber.clearThreadScope();
+
+    assertNotSame(instance1, provider1.get());
+    assertNotSame(instance2, provider2.get());
+    assertEquals(2, delegate1.creationCount.get());
+    assertEquals(2, delegate2.creationCount.get());
+  }
+
+  @Test
+  public void testInstancesAreClearedWhenInjectorIsClosed() throws Exception {
+    final CountingProvider ownDelegate = new CountingProvider();
+    final CountingProvider foreignDelegate = new CountingProvider();
+    final ThreadScopeProvider<Object> ownProvider = new ThreadScopeProvider<Object>(ownDelegate);
+    final ThreadScopeProvider<Object> foreignProvider = new ThreadScopeProvider<Object>(foreignDelegate);
+    final Injector injector = createInjector(ownProvider);
+
+    final Object ownInstance = injector.getInstance(Object.class);
+    final Object foreignInstance = foreignProvider.get();
+    injector.close();
+
+    assertNotSame(ownInstance, ownProvider.get());
+    assertSame(foreignInstance, foreignProvider.get());
+    assertEquals(2, ownDelegate.creationCount.get());
+    assertEquals(1, foreignDelegate.creationCount.get());
+  }
+
+  private static Injector createInjector(final ThreadScopeProvider<Object> provider) {
+    final Lightsaber.Configurator configurator = mock(Lightsaber.Configurator.class);
+    final Object component = new Object();
+    doAnswer(new Answer<Object>() {
+      @Override
+      public Object answer(final InvocationOnMock invocation) throws Throwable {
+        ((LightsaberInjector) invocation.getArguments()[0]).registerProvider(1, Object.class, provider);
+        return null;
+      }
+    })
+        .when(configurator).configureInjector(any(LightsaberInjector.class), same(component));
+    return new Lightsaber(configurator).createInjector(component);
+  }
+
+  private static class CountingProvider implements InjectingProvider<Object> {
+    final AtomicInteger creationCount = new AtomicInteger();
+
+    @Override
+    public Object get() {
+      creationCount.incrementAndGet();
+      return new Object();
+    }
+
+    @Nonnull
+    @Override
+    public Object getWithInjector(@Nonnull final Injector injector) {
+      return get();
+    }
+  }
+}
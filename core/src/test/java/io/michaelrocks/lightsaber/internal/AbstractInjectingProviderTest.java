@@ -0,0 +1,80 @@
+/*
+ * Copyright 2017 Michael Rozumyanskiy
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.michaelrocks.lightsaber.internal;
+
+import io.michaelrocks.lightsaber.Injector;
+import org.junit.Test;
+
+import javax.annotation.Nonnull;
+import javax.inject.Provider;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.mockito.Mockito.*;
+
+public class AbstractInjectingProviderTest {
+  private static final int SLOT = 42;
+
+  @Test
+  public void testDependencyProviderIsCachedForOwnInjector() throws Exception {
+    final IndexedInjector injector = mock(IndexedInjector.class);
+    final Provider<String> dependencyProvider = newProvider("Dependency");
+    when(injector.<String>getProvider(SLOT)).thenReturn(dependencyProvider);
+    final DependentProvider provider = new DependentProvider(injector);
+
+    assertEquals("Dependency", provider.get());
+    assertEquals("Dependency", provider.get());
+    assertSame(dependencyProvider, provider.getDependencyProvider(injector, 0, SLOT));
+
+    verify(injector, times(1)).getProvider(SLOT);
+  }
+
+  @Test
+  public void testDependencyProviderIsNotCachedForForeignInjector() throws Exception {
+    final IndexedInjector injector = mock(IndexedInjector.class);
+    final IndexedInjector foreignInjector = mock(IndexedInjector.class);
+    when(foreignInjector.getInstance(SLOT)).thenReturn("Foreign dependency");
+    final DependentProvider provider = new DependentProvider(injector);
+
+    assertEquals("Foreign dependency", provider.getWithInjector(foreignInjector));
+    assertEquals("Foreign dependency", provider.getWithInjector(foreignInjector));
+
+    verify(foreignInjector, times(2)).getInstance(SLOT);
+    verifyZeroInteractions(injector);
+  }
+
+  private static <T> Provider<T> newProvider(final T instance) {
+    return new Provider<T>() {
+      @Override
+      public T get() {
+        return instance;
+      }
+    };
+  }
+
+  private static class DependentProvider extends AbstractInjectingProvider<String> {
+    DependentProvider(final Injector injector) {
+      super(injector, 1);
+    }
+
+    @Nonnull
+    @Override
+    public String getWithInjector(@Nonnull final Injector injector) {
+      return getDependencyInstance(injector, 0, SLOT);
+    }
+  }
+}
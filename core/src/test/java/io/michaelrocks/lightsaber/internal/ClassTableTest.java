@@ -0,0 +1,77 @@
+/*
+ * Copyright 2017 Michael Rozumyanskiy
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.michaelrocks.lightsaber.internal;
+
+import org.junit.Test;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+public class ClassTableTest {
+  private static final Class<?>[] CLASSES = new Class<?>[] {
+      String.class, Integer.class, Long.class, Object.class, List.class, ArrayList.class, LinkedList.class,
+      Map.class, HashMap.class, Runnable.class, Thread.class, StringBuilder.class, Character.class
+  };
+
+  @Test
+  public void testAllClassesAreFound() throws Exception {
+    final int[] hashes = new int[CLASSES.length];
+    for (int i = 0; i < CLASSES.length; ++i) {
+      hashes[i] = CLASSES[i].getName().hashCode();
+    }
+    final PerfectHash perfectHash = PerfectHash.create(hashes);
+    final ClassTable<String> table = new ClassTable<String>(perfectHash.getSeeds(), perfectHash.getSize(), 0);
+    for (int i = 0; i < CLASSES.length; ++i) {
+      table.put(perfectHash.getIndex(i), CLASSES[i], CLASSES[i].getSimpleName());
+    }
+
+    for (final Class<?> type : CLASSES) {
+      assertEquals(type.getSimpleName(), table.get(type));
+    }
+    assertNull(table.get(Serializable.class));
+  }
+
+  @Test
+  public void testOverflowClassesAreFound() throws Exception {
+    final PerfectHash perfectHash = PerfectHash.create(new int[] { String.class.getName().hashCode() });
+    final ClassTable<String> table = new ClassTable<String>(perfectHash.getSeeds(), perfectHash.getSize(), 1);
+    table.put(perfectHash.getIndex(0), String.class, "String");
+    table.put(perfectHash.getSize(), Integer.class, "Integer");
+
+    assertEquals("String", table.get(String.class));
+    assertEquals("Integer", table.get(Integer.class));
+    assertNull(table.get(Long.class));
+  }
+
+  @Test
+  public void testDuplicateHashesDoNotGetIndex() throws Exception {
+    // "Aa" and "BB" have equal hash codes.
+    final PerfectHash perfectHash = PerfectHash.create(new int[] { "Aa".hashCode(), "BB".hashCode(), 42 });
+
+    assertEquals(2, perfectHash.getSize());
+    assertEquals(PerfectHash.NO_INDEX, perfectHash.getIndex(1));
+    assertEquals(perfectHash.getIndex(0), PerfectHash.getIndex("Aa".hashCode(), perfectHash.getSeeds(), 2));
+    assertEquals(perfectHash.getIndex(2), PerfectHash.getIndex(42, perfectHash.getSeeds(), 2));
+  }
+}
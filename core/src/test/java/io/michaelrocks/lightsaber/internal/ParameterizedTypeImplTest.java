@@ -0,0 +1,96 @@
+/*
+ * Copyright 2017 Michael Rozumyanskiy
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.michaelrocks.lightsaber.internal;
+
+import org.junit.Test;
+
+import java.lang.reflect.Type;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class ParameterizedTypeImplTest {
+  @Test
+  public void testHashCodeMatchesJvmType() throws Exception {
+    final Type jvmType = getJvmType("jvmMapList");
+    final Type type = newMapListType(String.class);
+
+    assertEquals(TypeUtils.hashCode(jvmType), type.hashCode());
+    assertEquals(TypeUtils.hashCode(jvmType), TypeUtils.hashCode(type));
+  }
+
+  @Test
+  public void testEqualsJvmType() throws Exception {
+    final Type jvmType = getJvmType("jvmMapList");
+    final Type type = newMapListType(String.class);
+
+    assertTrue(TypeUtils.equals(type, jvmType));
+    assertTrue(TypeUtils.equals(jvmType, type));
+  }
+
+  @Test
+  public void testEqualsIsConsistentWithHashCode() throws Exception {
+    final Type jvmType = getJvmType("jvmMapList");
+    final Type type = newMapListType(String.class);
+    final Type arrayType = new GenericArrayTypeImpl(new ParameterizedTypeImpl(null, List.class, String.class));
+
+    assertEquals(newMapListType(String.class), type);
+    assertEquals(newMapListType(String.class).hashCode(), type.hashCode());
+    assertFalse(type.equals(jvmType));
+    assertEquals(new GenericArrayTypeImpl(new ParameterizedTypeImpl(null, List.class, String.class)), arrayType);
+    assertFalse(arrayType.equals(getJvmType("jvmListArray")));
+    assertTrue(new HashSet<Type>(Collections.singleton(type)).contains(newMapListType(String.class)));
+  }
+
+  @Test
+  public void testEqualsArtificialType() throws Exception {
+    final Type type = newMapListType(String.class);
+
+    assertTrue(TypeUtils.equals(type, newMapListType(String.class)));
+    assertFalse(TypeUtils.equals(type, newMapListType(Integer.class)));
+  }
+
+  @Test
+  public void testGenericArrayHashCodeMatchesJvmType() throws Exception {
+    final Type jvmType = getJvmType("jvmListArray");
+    final Type type = new GenericArrayTypeImpl(new ParameterizedTypeImpl(null, List.class, String.class));
+
+    assertEquals(TypeUtils.hashCode(jvmType), type.hashCode());
+    assertTrue(TypeUtils.equals(type, jvmType));
+    assertTrue(TypeUtils.equals(jvmType, type));
+  }
+
+  private static Type newMapListType(final Type valueType) {
+    final Type mapType = new ParameterizedTypeImpl(null, Map.class, String.class, valueType);
+    return new ParameterizedTypeImpl(null, List.class, mapType);
+  }
+
+  private static Type getJvmType(final String fieldName) throws NoSuchFieldException {
+    return Holder.class.getDeclaredField(fieldName).getGenericType();
+  }
+
+  @SuppressWarnings("unused")
+  private static class Holder {
+    List<Map<String, String>> jvmMapList;
+    List<String>[] jvmListArray;
+  }
+}
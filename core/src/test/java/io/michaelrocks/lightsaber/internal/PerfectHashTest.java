@@ -0,0 +1,76 @@
+/*
+ * Copyright 2017 Michael Rozumyanskiy
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.michaelrocks.lightsaber.internal;
+
+import org.junit.Test;
+
+import java.util.HashSet;
+import java.util.Random;
+import java.util.Set;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertTrue;
+
+public class PerfectHashTest {
+  @Test
+  public void testSmallHashSetHasNoOverflow() throws Exception {
+    assertNoOverflow(createUniqueHashes(10));
+  }
+
+  @Test
+  public void testLargeHashSetHasNoOverflow() throws Exception {
+    assertNoOverflow(createUniqueHashes(100000));
+  }
+
+  @Test
+  public void testSequentialHashesHaveNoOverflow() throws Exception {
+    final int[] hashes = new int[50000];
+    for (int i = 0; i < hashes.length; ++i) {
+      hashes[i] = i;
+    }
+    assertNoOverflow(hashes);
+  }
+
+  private static void assertNoOverflow(final int[] hashes) {
+    final PerfectHash perfectHash = PerfectHash.create(hashes);
+    final boolean[] occupied = new boolean[perfectHash.getSize()];
+    for (int i = 0; i < hashes.length; ++i) {
+      final int index = perfectHash.getIndex(i);
+      assertNotEquals("Hash " + hashes[i] + " doesn't have an index", PerfectHash.NO_INDEX, index);
+      assertFalse("Index " + index + " is used twice", occupied[index]);
+      assertEquals(index, PerfectHash.getIndex(hashes[i], perfectHash.getSeeds(), perfectHash.getSize()));
+      occupied[index] = true;
+    }
+    assertTrue(perfectHash.getSize() >= hashes.length);
+  }
+
+  private static int[] createUniqueHashes(final int count) {
+    final Random random = new Random(count);
+    final Set<Integer> uniqueHashes = new HashSet<Integer>(count);
+    final int[] hashes = new int[count];
+    int size = 0;
+    while (size < count) {
+      final int hash = random.nextInt();
+      if (uniqueHashes.add(hash)) {
+        hashes[size++] = hash;
+      }
+    }
+    return hashes;
+  }
+}
@@ -23,5 +23,9 @@ object LightsaberTypes {
   val MEMBERS_INJECTOR_TYPE = getObjectType<MembersInjector<*>>()
   val LIGHTSABER_INJECTOR_TYPE = getObjectType<LightsaberInjector>()
   val SINGLETON_PROVIDER_TYPE = getObjectType<SingletonProvider<*>>()
+  val POOLED_PROVIDER_TYPE = getObjectType<PooledProvider<*>>()
+  val REQUEST_SCOPE_PROVIDER_TYPE = getObjectType<RequestScopeProvider<*>>()
+  val REUSABLE_PROVIDER_TYPE = getObjectType<ReusableProvider<*>>()
+  val THREAD_SCOPE_PROVIDER_TYPE = getObjectType<ThreadScopeProvider<*>>()
   val LAZY_ADAPTER_TYPE = getObjectType<LazyAdapter<*>>()
 }
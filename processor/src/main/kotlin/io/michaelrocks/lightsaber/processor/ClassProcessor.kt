@@ -38,6 +38,7 @@ import org.objectweb.asm.ClassReader
 import org.objectweb.asm.ClassWriter
 import java.io.Closeable
 import java.io.File
+import java.util.concurrent.TimeUnit
 
 class ClassProcessor(
     private val inputs: List<File>,
@@ -45,7 +46,8 @@ class ClassProcessor(
     private val sourcePath: File,
     private val genPath: File,
     classpath: List<File>,
-    bootClasspath: List<File>
+    bootClasspath: List<File>,
+    private val phaseListener: ProcessingPhaseListener? = null
 ) : Closeable {
   private val logger = getLogger()
 
@@ -63,11 +65,12 @@ class ClassProcessor(
   private val compiler = JavaToolsCompiler(inputs + classpath + genPath, bootClasspath, errorReporter)
 
   fun processClasses() {
-    val context = performAnalysisAndValidation()
+    val context = performPhase(ProcessingPhase.ANALYSIS) { performAnalysis() }
+    performPhase(ProcessingPhase.VALIDATION) { performValidation(context) }
     context.dump()
-    copyAndPatchClasses(context)
-    performGeneration(context)
-    performCompilation()
+    performPhase(ProcessingPhase.PATCHING) { copyAndPatchClasses(context) }
+    performPhase(ProcessingPhase.GENERATION) { performGeneration(context) }
+    performPhase(ProcessingPhase.COMPILATION) { performCompilation() }
   }
 
   override fun close() {
@@ -80,12 +83,24 @@ class ClassProcessor(
     }
   }
 
-  private fun performAnalysisAndValidation(): InjectionContext {
+  private inline fun <T> performPhase(phase: ProcessingPhase, action: () -> T): T {
+    phaseListener?.onPhaseStarted(phase)
+    val startTime = System.nanoTime()
+    val result = action()
+    val duration = System.nanoTime() - startTime
+    logger.info("{} phase took {} ms", phase, TimeUnit.NANOSECONDS.toMillis(duration))
+    phaseListener?.onPhaseFinished(phase, duration)
+    return result
+  }
+
+  private fun performAnalysis(): InjectionContext {
     val analyzer = Analyzer(grip, errorReporter)
-    val context = analyzer.analyze(inputs)
+    return analyzer.analyze(inputs)
+  }
+
+  private fun performValidation(context: InjectionContext) {
     Validator(grip.classRegistry, errorReporter).validate(context)
     checkErrors()
-    return context
   }
 
   private fun copyAndPatchClasses(context: InjectionContext) {
@@ -27,15 +27,16 @@ class Analyzer(
 ) {
   private val injectionTargetAnalyzer: InjectionTargetsAnalyzer
   private val componentsAnalyzer: ComponentsAnalyzer
+  private val scopeRegistry = ScopeRegistry(grip.classRegistry, errorReporter)
 
   init {
-    val analyzerHelper = AnalyzerHelperImpl(grip.classRegistry, ScopeRegistry(), errorReporter)
+    val analyzerHelper = AnalyzerHelperImpl(grip.classRegistry, scopeRegistry, errorReporter)
     injectionTargetAnalyzer = InjectionTargetsAnalyzerImpl(grip, analyzerHelper, errorReporter)
     componentsAnalyzer = ComponentsAnalyzerImpl(grip, analyzerHelper, errorReporter)
   }
 
   fun analyze(files: Collection<File>): InjectionContext {
-    val analyzerHelper: AnalyzerHelper = AnalyzerHelperImpl(grip.classRegistry, ScopeRegistry(), errorReporter)
+    val analyzerHelper: AnalyzerHelper = AnalyzerHelperImpl(grip.classRegistry, scopeRegistry, errorReporter)
     val (injectableTargets, providableTargets) =
         InjectionTargetsAnalyzerImpl(grip, analyzerHelper, errorReporter).let { analyzer ->
           analyzer.analyze(files)
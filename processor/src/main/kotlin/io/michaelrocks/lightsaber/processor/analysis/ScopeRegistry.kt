@@ -16,15 +16,78 @@
 
 package io.michaelrocks.lightsaber.processor.analysis
 
+import io.michaelrocks.grip.ClassRegistry
+import io.michaelrocks.grip.mirrors.ClassMirror
 import io.michaelrocks.grip.mirrors.Type
+import io.michaelrocks.grip.mirrors.isPublic
 import io.michaelrocks.lightsaber.LightsaberTypes
+import io.michaelrocks.lightsaber.processor.ErrorReporter
 import io.michaelrocks.lightsaber.processor.commons.Types
+import io.michaelrocks.lightsaber.processor.descriptors.MethodDescriptor
+import java.util.HashMap
+
+private val DELEGATE_CONSTRUCTOR = MethodDescriptor.forConstructor(Types.INJECTING_PROVIDER_TYPE)
+
+class ScopeRegistry(
+    private val classRegistry: ClassRegistry,
+    private val errorReporter: ErrorReporter
+) {
+  private val scopeProviders = HashMap<Type.Object, Type.Object?>()
 
-class ScopeRegistry {
   fun findScopeProviderByAnnotationType(annotationType: Type.Object): Type.Object? {
     return when (annotationType) {
       Types.SINGLETON_TYPE -> LightsaberTypes.SINGLETON_PROVIDER_TYPE
-      else -> null
+      Types.POOLED_TYPE -> LightsaberTypes.POOLED_PROVIDER_TYPE
+      Types.REQUEST_SCOPED_TYPE -> LightsaberTypes.REQUEST_SCOPE_PROVIDER_TYPE
+      Types.REUSABLE_TYPE -> LightsaberTypes.REUSABLE_PROVIDER_TYPE
+      Types.THREAD_SCOPED_TYPE -> LightsaberTypes.THREAD_SCOPE_PROVIDER_TYPE
+      else -> scopeProviders.getOrPut(annotationType) { findCustomScopeProvider(annotationType) }
+    }
+  }
+
+  private fun findCustomScopeProvider(annotationType: Type.Object): Type.Object? {
+    val annotations = classRegistry.getClassMirror(annotationType).annotations
+    val providedBy = annotations[Types.PROVIDED_BY_TYPE] ?: return null
+    if (Types.SCOPE_TYPE !in annotations) {
+      errorReporter.reportError("Annotation ${annotationType.className} has a scope provider but isn't a scope")
+      return null
     }
+
+    val providerType = providedBy.values["value"] as? Type.Object
+    if (providerType == null) {
+      errorReporter.reportError("Scope provider of ${annotationType.className} is not a class")
+      return null
+    }
+
+    val mirror = classRegistry.getClassMirror(providerType)
+    if (!mirror.isPublic || !mirror.isInjectingProvider()) {
+      errorReporter.reportError(
+          "Scope provider ${providerType.className} must be a public class implementing InjectingProvider")
+      return null
+    }
+
+    val hasDelegateConstructor = mirror.methods.any {
+      it.isPublic && it.name == DELEGATE_CONSTRUCTOR.name && it.type == DELEGATE_CONSTRUCTOR.type
+    }
+    if (!hasDelegateConstructor) {
+      errorReporter.reportError(
+          "Scope provider ${providerType.className} must have a public constructor accepting InjectingProvider")
+      return null
+    }
+
+    return providerType
+  }
+
+  private fun ClassMirror.isInjectingProvider(): Boolean {
+    if (Types.INJECTING_PROVIDER_TYPE in interfaces) {
+      return true
+    }
+
+    if (interfaces.any { classRegistry.getClassMirror(it).isInjectingProvider() }) {
+      return true
+    }
+
+    val superType = superType ?: return false
+    return superType != Types.OBJECT_TYPE && classRegistry.getClassMirror(superType).isInjectingProvider()
   }
 }
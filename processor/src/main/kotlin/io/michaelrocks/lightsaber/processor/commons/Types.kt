@@ -25,11 +25,18 @@ import io.michaelrocks.lightsaber.Injector
 import io.michaelrocks.lightsaber.Key
 import io.michaelrocks.lightsaber.Lazy
 import io.michaelrocks.lightsaber.Module
+import io.michaelrocks.lightsaber.ProvidedBy
+import io.michaelrocks.lightsaber.Pooled
 import io.michaelrocks.lightsaber.Provides
+import io.michaelrocks.lightsaber.RequestScoped
+import io.michaelrocks.lightsaber.Reusable
+import io.michaelrocks.lightsaber.ThreadScoped
+import io.michaelrocks.lightsaber.internal.IndexedInjector
 import io.michaelrocks.lightsaber.internal.InjectingProvider
 import javax.inject.Inject
 import javax.inject.Provider
 import javax.inject.Qualifier
+import javax.inject.Scope
 import javax.inject.Singleton
 import java.lang.reflect.Type as JavaType
 
@@ -41,7 +48,13 @@ object Types {
   val COMPONENT_TYPE = getObjectType<Component>()
   val MODULE_TYPE = getObjectType<Module>()
   val QUALIFIER_TYPE = getObjectType<Qualifier>()
+  val SCOPE_TYPE = getObjectType<Scope>()
   val SINGLETON_TYPE = getObjectType<Singleton>()
+  val POOLED_TYPE = getObjectType<Pooled>()
+  val REQUEST_SCOPED_TYPE = getObjectType<RequestScoped>()
+  val REUSABLE_TYPE = getObjectType<Reusable>()
+  val THREAD_SCOPED_TYPE = getObjectType<ThreadScoped>()
+  val PROVIDED_BY_TYPE = getObjectType<ProvidedBy>()
   val INJECTOR_TYPE = getObjectType<Injector>()
   val PROVIDER_TYPE = getObjectType<Provider<*>>()
   val LAZY_TYPE = getObjectType<Lazy<*>>()
@@ -50,6 +63,7 @@ object Types {
   val TYPE_TYPE = getObjectType<JavaType>()
   val ANNOTATION_TYPE = getObjectType<Annotation>()
   val INJECTING_PROVIDER_TYPE = getObjectType<InjectingProvider<*>>()
+  val INDEXED_INJECTOR_TYPE = getObjectType<IndexedInjector>()
 
   val BOXED_VOID_TYPE = getObjectType<Void>()
   val BOXED_BOOLEAN_TYPE = getObjectType<Boolean>()
@@ -0,0 +1,50 @@
+/*
+ * Copyright 2016 Michael Rozumyanskiy
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.michaelrocks.lightsaber.processor.generation
+
+import io.michaelrocks.lightsaber.internal.PerfectHash
+import io.michaelrocks.lightsaber.processor.generation.StaticInitializerSourceBuilder.Parameter
+
+internal class ClassTableEntry(val className: String, val classReference: String, val value: String)
+
+internal fun StaticInitializerSourceBuilder.putClassTable(
+    field: String,
+    valueClass: String,
+    entries: List<ClassTableEntry>,
+    parameters: List<Parameter> = emptyList()
+) {
+  // Class names are hashed with String.hashCode() which is specified so the same hash is computed at runtime.
+  val hashes = entries.map { it.className.hashCode() }.toIntArray()
+  val perfectHash = PerfectHash.create(hashes)
+  val overflowSize = entries.indices.count { perfectHash.getIndex(it) == PerfectHash.NO_INDEX }
+
+  val seeds = "${field}Seeds"
+  appendln("final int[] $seeds = new int[${perfectHash.seeds.size}];")
+  val seedStatements = perfectHash.seeds.withIndex()
+      .filter { it.value != 0 }
+      .map { "$seeds[${it.index}] = ${it.value};" }
+  appendlnChunked(listOf(Parameter("int[]", seeds)), seedStatements)
+  appendln("$field = new ClassTable<$valueClass>($seeds, ${perfectHash.size}, $overflowSize);")
+
+  var overflowIndex = perfectHash.size
+  val putStatements = entries.mapIndexed { position, entry ->
+    val perfectIndex = perfectHash.getIndex(position)
+    val index = if (perfectIndex != PerfectHash.NO_INDEX) perfectIndex else overflowIndex++
+    "$field.put($index, ${entry.classReference}, ${entry.value});"
+  }
+  appendlnChunked(listOf(Parameter("ClassTable<$valueClass>", field)) + parameters, putStatements)
+}
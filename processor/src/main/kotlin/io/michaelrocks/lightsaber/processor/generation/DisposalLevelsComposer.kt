@@ -0,0 +1,65 @@
+/*
+ * Copyright 2017 Michael Rozumyanskiy
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.michaelrocks.lightsaber.processor.generation
+
+import io.michaelrocks.lightsaber.LightsaberTypes
+import io.michaelrocks.lightsaber.processor.graph.DirectedGraph
+import io.michaelrocks.lightsaber.processor.model.Dependency
+import io.michaelrocks.lightsaber.processor.model.Provider
+import io.michaelrocks.lightsaber.processor.model.Scope
+import java.util.HashMap
+import java.util.HashSet
+
+class DisposalLevelsComposer(
+    providers: Collection<Provider>,
+    private val dependencyGraph: DirectedGraph<Dependency>
+) {
+  private val singletons = providers.filter { it.isSingleton }.map { it.dependency.box() }.distinct()
+  private val singletonSet = singletons.toHashSet()
+  private val depths = HashMap<Dependency, Int>()
+  private val pendingDependencies = HashSet<Dependency>()
+
+  fun composeDisposalLevels(): List<List<Dependency>> {
+    return singletons
+        .groupBy { getSingletonDepth(it) - 1 }
+        .toSortedMap()
+        .values
+        .toList()
+  }
+
+  // Returns the number of singleton levels the dependency may use, including the dependency itself if it's a
+  // singleton. Unlike warm-up levels all the edges of the dependency graph are taken into account: members injection
+  // edges and Provider and Lazy edges too since such singletons may be used until the dependent one is disposed. An
+  // edge that closes a cycle is ignored so the singletons of the cycle are disposed in an unspecified order.
+  private fun getSingletonDepth(dependency: Dependency): Int {
+    depths[dependency]?.let { return it }
+    if (!pendingDependencies.add(dependency)) {
+      return 0
+    }
+
+    val dependenciesDepth = dependencyGraph.getAdjacentVertices(dependency).orEmpty()
+        .map { getSingletonDepth(it) }
+        .max() ?: 0
+    val depth = if (dependency in singletonSet) dependenciesDepth + 1 else dependenciesDepth
+    pendingDependencies.remove(dependency)
+    depths.put(dependency, depth)
+    return depth
+  }
+
+  private val Provider.isSingleton: Boolean
+    get() = scope is Scope.Class && scope.scopeType == LightsaberTypes.SINGLETON_PROVIDER_TYPE
+}
@@ -22,6 +22,8 @@ import io.michaelrocks.grip.mirrors.getObjectTypeByInternalName
 import io.michaelrocks.grip.mirrors.isPublic
 import io.michaelrocks.grip.mirrors.packageName
 import io.michaelrocks.grip.mirrors.signature.GenericType
+import io.michaelrocks.lightsaber.LightsaberTypes
+import io.michaelrocks.lightsaber.internal.IndexedInjector
 import io.michaelrocks.lightsaber.processor.ErrorReporter
 import io.michaelrocks.lightsaber.processor.annotations.proxy.AnnotationCreator
 import io.michaelrocks.lightsaber.processor.commons.Types
@@ -36,13 +38,26 @@ import io.michaelrocks.lightsaber.processor.generation.model.GenerationContext
 import io.michaelrocks.lightsaber.processor.generation.model.InjectorConfigurator
 import io.michaelrocks.lightsaber.processor.generation.model.Key
 import io.michaelrocks.lightsaber.processor.generation.model.KeyRegistry
+import io.michaelrocks.lightsaber.processor.generation.model.KeyRegistryClass
 import io.michaelrocks.lightsaber.processor.generation.model.MembersInjector
 import io.michaelrocks.lightsaber.processor.generation.model.PackageInvader
 import io.michaelrocks.lightsaber.processor.io.FileSink
 import io.michaelrocks.lightsaber.processor.model.Component
 import io.michaelrocks.lightsaber.processor.model.Dependency
 import io.michaelrocks.lightsaber.processor.model.InjectionContext
+import io.michaelrocks.lightsaber.processor.model.Provider
+import io.michaelrocks.lightsaber.processor.model.Scope
+import io.michaelrocks.lightsaber.processor.validation.buildDependencyGraph
+import io.michaelrocks.lightsaber.processor.validation.findMembersInjectees
 import java.util.HashMap
+import java.util.LinkedHashMap
+
+private val INJECTOR_DEPENDENCY = Dependency(GenericType.Raw(Types.INJECTOR_TYPE))
+
+private const val KEY_REGISTRY_NAME = "io/michaelrocks/lightsaber/KeyRegistry"
+// A key costs a static field, several constant pool entries and up to a few hundred bytes of the static initializer
+// when it has a qualifier or a generic type, so keys are split between classes to stay within the class file limits.
+private const val MAX_KEYS_PER_CLASS = 256
 
 class Generator(
     private val classRegistry: ClassRegistry,
@@ -82,11 +97,44 @@ class Generator(
   }
 
   private fun composeInjectorConfigurators(context: InjectionContext): Collection<InjectorConfigurator> {
+    val rootComponentTypes = context.packageComponent.subcomponents.toHashSet()
     return context.components
         .map { component ->
           val configuratorType = composeConfiguratorType(component)
-          InjectorConfigurator(configuratorType, component)
+          val isRootComponent = component.type in rootComponentTypes
+          val singletonLevels = composeSingletonLevels(context, component, isRootComponent)
+          val disposalLevels = composeDisposalLevels(context, component, isRootComponent)
+          InjectorConfigurator(configuratorType, component, singletonLevels, disposalLevels)
+        }
+  }
+
+  private fun composeSingletonLevels(
+      context: InjectionContext,
+      component: Component,
+      isRootComponent: Boolean
+  ): List<List<Dependency>> {
+    val getMembersInjectees = { provider: Provider -> findMembersInjectees(classRegistry, context, provider) }
+    val composer =
+        if (isRootComponent) {
+          // A root injector is configured with the package component as well. Singletons from the package component
+          // that depend on bindings from child components cannot be created eagerly in the root injector.
+          val modules = component.modules + context.packageComponent.modules
+          SingletonLevelsComposer(modules.flatMap { it.providers }, getMembersInjectees) { it == INJECTOR_DEPENDENCY }
+        } else {
+          // Dependencies of a child component are validated against the whole component chain.
+          SingletonLevelsComposer(component.modules.flatMap { it.providers }, getMembersInjectees) { true }
         }
+    return composer.composeSingletonLevels()
+  }
+
+  private fun composeDisposalLevels(
+      context: InjectionContext,
+      component: Component,
+      isRootComponent: Boolean
+  ): List<List<Dependency>> {
+    val modules = if (isRootComponent) component.modules + context.packageComponent.modules else component.modules
+    val dependencyGraph = buildDependencyGraph(modules) { findMembersInjectees(classRegistry, context, it) }
+    return DisposalLevelsComposer(modules.flatMap { it.providers }, dependencyGraph).composeDisposalLevels()
   }
 
   private fun composeConfiguratorType(component: Component): Type.Object {
@@ -143,26 +191,45 @@ class Generator(
           }
 
   private fun composeKeyRegistry(context: InjectionContext): KeyRegistry {
-    val type = getObjectTypeByInternalName("io/michaelrocks/lightsaber/KeyRegistry")
-    val keys = context.allComponents.asSequence()
+    val keys = LinkedHashMap<Dependency, Key>()
+    keys.put(INJECTOR_DEPENDENCY, composeKey("injectorKey", IndexedInjector.INJECTOR_SLOT, INJECTOR_DEPENDENCY))
+    // Slots of every component are contiguous, so the slot table of an injector covers its own bindings only. The
+    // package component goes first since its bindings are registered in root injectors right after the injector itself.
+    (sequenceOf(context.packageComponent) + context.components.asSequence())
+        .flatMap { it.modules.asSequence() }
+        .flatMap { it.providers.asSequence() }
+        .map { it.dependency.box() }
+        .filter { it != INJECTOR_DEPENDENCY }
+        .distinct()
+        .forEachIndexed { index, dependency ->
+          keys.put(dependency, composeKey("key$index", keys.size, dependency))
+        }
+    val classes = keys.entries.chunked(MAX_KEYS_PER_CLASS).mapIndexed { index, entries ->
+      val internalName = if (index == 0) KEY_REGISTRY_NAME else "$KEY_REGISTRY_NAME\$Part$index"
+      val classKeys = entries.associateTo(LinkedHashMap<Dependency, Key>()) { it.toPair() }
+      KeyRegistryClass(getObjectTypeByInternalName(internalName), classKeys)
+    }
+    return KeyRegistry(classes, composeRequestSlots(context))
+  }
+
+  private fun composeRequestSlots(context: InjectionContext): Map<Dependency, Int> {
+    // Request slots are numbered separately from key slots to keep arrays of request contexts small.
+    val requestSlots = HashMap<Dependency, Int>()
+    context.allComponents.asSequence()
         .flatMap { it.modules.asSequence() }
         .flatMap { it.providers.asSequence() }
-        .asIterable()
-        .associateByIndexedTo(
-            HashMap(),
-            { _, provider -> provider.dependency.box() },
-            { index, provider -> composeKey("key$index", provider.dependency) }
-        )
-    val injectorDependency = Dependency(GenericType.Raw(Types.INJECTOR_TYPE))
-    keys.put(injectorDependency, composeKey("injectorKey", injectorDependency))
-    return KeyRegistry(type, keys)
-  }
-
-  private fun composeKey(name: String, dependency: Dependency): Key {
+        .filter { it.isRequestScoped }
+        .map { it.dependency.box() }
+        .distinct()
+        .forEachIndexed { index, dependency -> requestSlots.put(dependency, index) }
+    return requestSlots
+  }
+
+  private fun composeKey(name: String, slot: Int, dependency: Dependency): Key {
     return when {
-      dependency.qualifier != null -> Key.QualifiedType(FieldDescriptor(name, Types.KEY_TYPE))
-      dependency.type is GenericType.Raw -> Key.Class(FieldDescriptor(name, Types.CLASS_TYPE))
-      else -> Key.Type(FieldDescriptor(name, Types.TYPE_TYPE))
+      dependency.qualifier != null -> Key.QualifiedType(FieldDescriptor(name, Types.KEY_TYPE), slot)
+      dependency.type is GenericType.Raw -> Key.Class(FieldDescriptor(name, Types.CLASS_TYPE), slot)
+      else -> Key.Type(FieldDescriptor(name, Types.TYPE_TYPE), slot)
     }
   }
 
@@ -196,3 +263,6 @@ class Generator(
     generator.generate(generationContext)
   }
 }
+
+private val Provider.isRequestScoped: Boolean
+  get() = scope is Scope.Class && scope.scopeType == LightsaberTypes.REQUEST_SCOPE_PROVIDER_TYPE
@@ -33,28 +33,31 @@ import io.michaelrocks.lightsaber.processor.model.Scope
 private val PROVIDER_GET_METHOD = MethodDescriptor.forMethod("get", Types.OBJECT_TYPE)
 private val ADAPTER_CONSTRUCTOR = MethodDescriptor.forConstructor(Types.PROVIDER_TYPE)
 
-private val GET_PROVIDER_FOR_CLASS_METHOD =
-    MethodDescriptor.forMethod("getProvider", Types.PROVIDER_TYPE, Types.CLASS_TYPE)
-private val GET_PROVIDER_FOR_TYPE_METHOD =
-    MethodDescriptor.forMethod("getProvider", Types.PROVIDER_TYPE, Types.TYPE_TYPE)
-private val GET_PROVIDER_FOR_KEY_METHOD =
-    MethodDescriptor.forMethod("getProvider", Types.PROVIDER_TYPE, Types.KEY_TYPE)
-
-private val GET_INSTANCE_FOR_CLASS_METHOD =
-    MethodDescriptor.forMethod("getInstance", Types.OBJECT_TYPE, Types.CLASS_TYPE)
-private val GET_INSTANCE_FOR_TYPE_METHOD =
-    MethodDescriptor.forMethod("getInstance", Types.OBJECT_TYPE, Types.TYPE_TYPE)
-private val GET_INSTANCE_FOR_KEY_METHOD =
-    MethodDescriptor.forMethod("getInstance", Types.OBJECT_TYPE, Types.KEY_TYPE)
+private val GET_PROVIDER_FOR_SLOT_METHOD =
+    MethodDescriptor.forMethod("getProvider", Types.PROVIDER_TYPE, Type.Primitive.Int)
+private val GET_INSTANCE_FOR_SLOT_METHOD =
+    MethodDescriptor.forMethod("getInstance", Types.OBJECT_TYPE, Type.Primitive.Int)
+
+private val GET_DEPENDENCY_PROVIDER_METHOD =
+    MethodDescriptor.forMethod("getDependencyProvider", Types.PROVIDER_TYPE,
+        Types.INJECTOR_TYPE, Type.Primitive.Int, Type.Primitive.Int)
+private val GET_DEPENDENCY_INSTANCE_METHOD =
+    MethodDescriptor.forMethod("getDependencyInstance", Types.OBJECT_TYPE,
+        Types.INJECTOR_TYPE, Type.Primitive.Int, Type.Primitive.Int)
 
 private val REGISTER_PROVIDER_FOR_CLASS_METHOD =
-    MethodDescriptor.forMethod("registerProvider", Type.Primitive.Void, Types.CLASS_TYPE, Types.INJECTING_PROVIDER_TYPE)
+    MethodDescriptor.forMethod("registerProvider", Type.Primitive.Void,
+        Type.Primitive.Int, Types.CLASS_TYPE, Types.INJECTING_PROVIDER_TYPE)
 private val REGISTER_PROVIDER_FOR_TYPE_METHOD =
-    MethodDescriptor.forMethod("registerProvider", Type.Primitive.Void, Types.TYPE_TYPE, Types.INJECTING_PROVIDER_TYPE)
+    MethodDescriptor.forMethod("registerProvider", Type.Primitive.Void,
+        Type.Primitive.Int, Types.TYPE_TYPE, Types.INJECTING_PROVIDER_TYPE)
 private val REGISTER_PROVIDER_FOR_KEY_METHOD =
-    MethodDescriptor.forMethod("registerProvider", Type.Primitive.Void, Types.KEY_TYPE, Types.INJECTING_PROVIDER_TYPE)
+    MethodDescriptor.forMethod("registerProvider", Type.Primitive.Void,
+        Type.Primitive.Int, Types.KEY_TYPE, Types.INJECTING_PROVIDER_TYPE)
 
 private val DELEGATE_PROVIDER_CONSTRUCTOR = MethodDescriptor.forConstructor(Types.INJECTING_PROVIDER_TYPE)
+private val REQUEST_SCOPE_PROVIDER_CONSTRUCTOR =
+    MethodDescriptor.forConstructor(Types.INJECTING_PROVIDER_TYPE, Type.Primitive.Int)
 
 fun GeneratorAdapter.getDependency(keyRegistry: KeyRegistry, injectee: Injectee) {
   when (injectee.converter) {
@@ -67,42 +70,69 @@ fun GeneratorAdapter.getDependency(keyRegistry: KeyRegistry, injectee: Injectee)
     }
     is Converter.Adapter -> {
       getProvider(keyRegistry, injectee.dependency)
-      newInstance(injectee.converter.adapterType)
-      dupX1()
-      swap()
-      invokeConstructor(injectee.converter.adapterType, ADAPTER_CONSTRUCTOR)
+      wrapWithAdapter(injectee.converter.adapterType)
     }
   }
 }
 
-fun GeneratorAdapter.getProvider(keyRegistry: KeyRegistry, dependency: Dependency) {
-  val key = getKey(keyRegistry, dependency)
-  getStatic(keyRegistry.type, key.field)
+fun GeneratorAdapter.getCachedDependency(
+    keyRegistry: KeyRegistry,
+    providerType: Type,
+    injectee: Injectee,
+    index: Int
+) {
+  val key = getKey(keyRegistry, injectee.dependency)
+  push(index)
+  push(key.slot)
 
-  when (key) {
-    is Key.Class -> invokeInterface(Types.INJECTOR_TYPE, GET_PROVIDER_FOR_CLASS_METHOD)
-    is Key.Type -> invokeInterface(Types.INJECTOR_TYPE, GET_PROVIDER_FOR_TYPE_METHOD)
-    is Key.QualifiedType -> invokeInterface(Types.INJECTOR_TYPE, GET_PROVIDER_FOR_KEY_METHOD)
+  when (injectee.converter) {
+    is Converter.Identity -> {
+      invokeVirtual(providerType, GET_DEPENDENCY_PROVIDER_METHOD)
+    }
+    is Converter.Instance -> {
+      invokeVirtual(providerType, GET_DEPENDENCY_INSTANCE_METHOD)
+      unbox(injectee.dependency.type.rawType)
+    }
+    is Converter.Adapter -> {
+      invokeVirtual(providerType, GET_DEPENDENCY_PROVIDER_METHOD)
+      wrapWithAdapter(injectee.converter.adapterType)
+    }
   }
 }
 
-fun GeneratorAdapter.getInstance(keyRegistry: KeyRegistry, dependency: Dependency) {
+private fun GeneratorAdapter.wrapWithAdapter(adapterType: Type) {
+  newInstance(adapterType)
+  dupX1()
+  swap()
+  invokeConstructor(adapterType, ADAPTER_CONSTRUCTOR)
+}
+
+fun GeneratorAdapter.getProvider(keyRegistry: KeyRegistry, dependency: Dependency) {
   val key = getKey(keyRegistry, dependency)
-  getStatic(keyRegistry.type, key.field)
+  checkCast(Types.INDEXED_INJECTOR_TYPE)
+  push(key.slot)
+  invokeInterface(Types.INDEXED_INJECTOR_TYPE, GET_PROVIDER_FOR_SLOT_METHOD)
+}
 
-  when (key) {
-    is Key.Class -> invokeInterface(Types.INJECTOR_TYPE, GET_INSTANCE_FOR_CLASS_METHOD)
-    is Key.Type -> invokeInterface(Types.INJECTOR_TYPE, GET_INSTANCE_FOR_TYPE_METHOD)
-    is Key.QualifiedType -> invokeInterface(Types.INJECTOR_TYPE, GET_INSTANCE_FOR_KEY_METHOD)
-  }
+fun GeneratorAdapter.getInstance(keyRegistry: KeyRegistry, dependency: Dependency) {
+  val key = getKey(keyRegistry, dependency)
+  checkCast(Types.INDEXED_INJECTOR_TYPE)
+  push(key.slot)
+  invokeInterface(Types.INDEXED_INJECTOR_TYPE, GET_INSTANCE_FOR_SLOT_METHOD)
 }
 
 fun GeneratorAdapter.registerProvider(keyRegistry: KeyRegistry, provider: Provider, providerCreator: () -> Unit) {
   val key = getKey(keyRegistry, provider.dependency)
-  getStatic(keyRegistry.type, key.field)
+  push(key.slot)
+  getStatic(keyRegistry.getType(key), key.field)
 
   when (provider.scope) {
-    is Scope.Class -> newDelegator(provider.scope.scopeType, providerCreator)
+    is Scope.Class ->
+      if (provider.scope.scopeType == LightsaberTypes.REQUEST_SCOPE_PROVIDER_TYPE) {
+        newRequestScopeDelegator(getRequestSlot(keyRegistry, provider.dependency), providerCreator)
+      } else {
+        newDelegator(provider.scope.scopeType, providerCreator)
+      }
     is Scope.None -> providerCreator()
   }
 
@@ -120,6 +150,18 @@ private fun GeneratorAdapter.newDelegator(scopeType: Type, providerCreator: () -
   invokeConstructor(scopeType, DELEGATE_PROVIDER_CONSTRUCTOR)
 }
 
-private fun getKey(keyRegistry: KeyRegistry, dependency: Dependency): Key {
+private fun GeneratorAdapter.newRequestScopeDelegator(requestSlot: Int, providerCreator: () -> Unit) {
+  newInstance(LightsaberTypes.REQUEST_SCOPE_PROVIDER_TYPE)
+  dup()
+  providerCreator()
+  push(requestSlot)
+  invokeConstructor(LightsaberTypes.REQUEST_SCOPE_PROVIDER_TYPE, REQUEST_SCOPE_PROVIDER_CONSTRUCTOR)
+}
+
+private fun getRequestSlot(keyRegistry: KeyRegistry, dependency: Dependency): Int {
+  return keyRegistry.requestSlots[dependency.box()] ?: error("Request slot for $dependency not found")
+}
+
+internal fun getKey(keyRegistry: KeyRegistry, dependency: Dependency): Key {
   return keyRegistry.keys[dependency.box()] ?: error("Key for $dependency not found")
 }
@@ -18,6 +18,8 @@ package io.michaelrocks.lightsaber.processor.generation
 
 import io.michaelrocks.grip.ClassRegistry
 import io.michaelrocks.grip.mirrors.Type
+import io.michaelrocks.grip.mirrors.getObjectTypeByInternalName
+import io.michaelrocks.grip.mirrors.toArrayType
 import io.michaelrocks.lightsaber.LightsaberTypes
 import io.michaelrocks.lightsaber.processor.commons.GeneratorAdapter
 import io.michaelrocks.lightsaber.processor.commons.StandaloneClassWriter
@@ -30,17 +32,25 @@ import io.michaelrocks.lightsaber.processor.commons.toMethodDescriptor
 import io.michaelrocks.lightsaber.processor.descriptors.MethodDescriptor
 import io.michaelrocks.lightsaber.processor.generation.model.InjectorConfigurator
 import io.michaelrocks.lightsaber.processor.generation.model.KeyRegistry
+import io.michaelrocks.lightsaber.processor.model.Dependency
 import io.michaelrocks.lightsaber.processor.model.ModuleProvider
 import io.michaelrocks.lightsaber.processor.model.ModuleProvisionPoint
 import io.michaelrocks.lightsaber.processor.model.Provider
 import io.michaelrocks.lightsaber.processor.model.isConstructorProvider
 import io.michaelrocks.lightsaber.processor.watermark.WatermarkClassVisitor
+import org.objectweb.asm.ClassVisitor
 import org.objectweb.asm.ClassWriter
+import org.objectweb.asm.Opcodes.ACC_FINAL
+import org.objectweb.asm.Opcodes.ACC_PRIVATE
 import org.objectweb.asm.Opcodes.ACC_PUBLIC
+import org.objectweb.asm.Opcodes.ACC_STATIC
 import org.objectweb.asm.Opcodes.ACC_SUPER
 import org.objectweb.asm.Opcodes.V1_6
+import java.util.ArrayList
+import java.util.HashMap
 
 class InjectorConfiguratorClassGenerator(
+    private val classProducer: ClassProducer,
     private val classRegistry: ClassRegistry,
     private val keyRegistry: KeyRegistry,
     private val injectorConfigurator: InjectorConfigurator
@@ -50,26 +60,116 @@ class InjectorConfiguratorClassGenerator(
         MethodDescriptor.forMethod("configureInjector",
             Type.Primitive.Void, LightsaberTypes.LIGHTSABER_INJECTOR_TYPE, Types.OBJECT_TYPE)
 
+    private val REGISTER_SINGLETON_LEVELS_METHOD =
+        MethodDescriptor.forMethod("registerSingletonLevels",
+            Type.Primitive.Void, Type.Primitive.Int.toArrayType().toArrayType())
+    private val REGISTER_DISPOSAL_LEVELS_METHOD =
+        MethodDescriptor.forMethod("registerDisposalLevels",
+            Type.Primitive.Void, Type.Primitive.Int.toArrayType().toArrayType())
+
+    // Registrations and levels are generated in static methods of bounded size, which are distributed between the
+    // configurator and its part classes, so large components fit into the method and constant pool limits.
+    private const val MAX_PROVIDERS_PER_METHOD = 256
+    private const val MAX_SLOTS_PER_METHOD = 2048
+    private const val PROVIDER_COST = 8
+    private const val SLOT_COST = 1
+    private const val MAX_COST_PER_CLASS = 32768
+
     private val INVALID_LOCAL = -1
   }
 
-  fun generate(): ByteArray {
+  private val methods = ArrayList<StaticMethod>()
+  private val moduleMethods = HashMap<ModuleProvider, List<StaticMethod>>()
+  private val levelMethods = HashMap<List<Dependency>, List<StaticMethod>>()
+
+  fun generate() {
+    composeStaticMethods()
+    val partTypes = assignStaticMethods()
+
+    generateConfiguratorClass()
+    partTypes.forEach { generatePartClass(it) }
+  }
+
+  private fun composeStaticMethods() {
+    injectorConfigurator.component.providers.forEach { moduleProvider ->
+      val moduleType = getModuleType(moduleProvider.provisionPoint)
+      val argumentTypes = listOfNotNull(LightsaberTypes.LIGHTSABER_INJECTOR_TYPE, moduleType).toTypedArray()
+      moduleMethods[moduleProvider] =
+          moduleProvider.module.providers.chunked(MAX_PROVIDERS_PER_METHOD).map { providers ->
+            val method =
+                MethodDescriptor.forMethod("registerProviders${methods.size}", Type.Primitive.Void, *argumentTypes)
+            newStaticMethod(method, providers.size * PROVIDER_COST) { registerProviders(providers, moduleType != null) }
+          }
+    }
+
+    val levels = injectorConfigurator.singletonLevels + injectorConfigurator.disposalLevels
+    levels.forEach { level ->
+      levelMethods.getOrPut(level) {
+        level.chunked(MAX_SLOTS_PER_METHOD).mapIndexed { index, dependencies ->
+          val method = MethodDescriptor.forMethod(
+              "fillLevel${methods.size}", Type.Primitive.Void, Type.Primitive.Int.toArrayType())
+          newStaticMethod(method, dependencies.size * SLOT_COST) {
+            fillLevel(dependencies, index * MAX_SLOTS_PER_METHOD)
+          }
+        }
+      }
+    }
+  }
+
+  private fun newStaticMethod(method: MethodDescriptor, cost: Int, body: GeneratorAdapter.() -> Unit): StaticMethod {
+    return StaticMethod(method, cost, body).also { methods.add(it) }
+  }
+
+  private fun assignStaticMethods(): List<Type.Object> {
+    val partTypes = ArrayList<Type.Object>()
+    var owner = injectorConfigurator.type
+    var cost = 0
+    methods.forEach { method ->
+      if (cost > 0 && cost + method.cost > MAX_COST_PER_CLASS) {
+        owner = getObjectTypeByInternalName("${injectorConfigurator.type.internalName}\$Part${partTypes.size + 1}")
+        partTypes.add(owner)
+        cost = 0
+      }
+      method.owner = owner
+      cost += method.cost
+    }
+    return partTypes
+  }
+
+  private fun generateConfiguratorClass() {
+    generateClass(
+        injectorConfigurator.type,
+        ACC_PUBLIC or ACC_SUPER,
+        arrayOf(LightsaberTypes.INJECTOR_CONFIGURATOR_TYPE.internalName)) {
+      newDefaultConstructor()
+      newMethod(ACC_PUBLIC, CONFIGURE_INJECTOR_METHOD) { configureInjector() }
+    }
+  }
+
+  private fun generatePartClass(type: Type.Object) {
+    generateClass(type, ACC_FINAL or ACC_SUPER, null) {
+      newDefaultConstructor(ACC_PRIVATE)
+    }
+  }
+
+  private inline fun generateClass(
+      type: Type.Object,
+      access: Int,
+      interfaces: Array<String>?,
+      body: ClassVisitor.() -> Unit
+  ) {
     val classWriter =
         StandaloneClassWriter(ClassWriter.COMPUTE_FRAMES or ClassWriter.COMPUTE_MAXS, classRegistry)
     val classVisitor = WatermarkClassVisitor(classWriter, true)
-    classVisitor.visit(
-        V1_6,
-        ACC_PUBLIC or ACC_SUPER,
-        injectorConfigurator.type.internalName,
-        null,
-        Types.OBJECT_TYPE.internalName,
-        arrayOf(LightsaberTypes.INJECTOR_CONFIGURATOR_TYPE.internalName))
+    classVisitor.visit(V1_6, access, type.internalName, null, Types.OBJECT_TYPE.internalName, interfaces)
 
-    classVisitor.newDefaultConstructor()
-    classVisitor.newMethod(ACC_PUBLIC, CONFIGURE_INJECTOR_METHOD) { configureInjector() }
+    classVisitor.body()
+    methods.filter { it.owner == type }.forEach { method ->
+      classVisitor.newMethod(ACC_STATIC, method.method, method.body)
+    }
 
     classVisitor.visitEnd()
-    return classWriter.toByteArray()
+    classProducer.produceClass(type.internalName, classWriter.toByteArray())
   }
 
   private fun GeneratorAdapter.configureInjector() {
@@ -80,27 +180,77 @@ class InjectorConfiguratorClassGenerator(
       configureInjectorWithModule(provider)
     }
     pop()
+
+    registerLevels(injectorConfigurator.singletonLevels, REGISTER_SINGLETON_LEVELS_METHOD)
+    registerLevels(injectorConfigurator.disposalLevels, REGISTER_DISPOSAL_LEVELS_METHOD)
   }
 
   private fun GeneratorAdapter.configureInjectorWithModule(moduleProvider: ModuleProvider) {
     val moduleLocal = getModule(moduleProvider.provisionPoint)
 
-    moduleProvider.module.providers.forEach { provider ->
+    moduleMethods[moduleProvider]!!.forEach { method ->
+      loadArg(0)
+      if (moduleLocal != INVALID_LOCAL) {
+        loadLocal(moduleLocal)
+      }
+      invokeStatic(method.owner, method.method)
+    }
+  }
+
+  private fun GeneratorAdapter.registerProviders(providers: List<Provider>, hasModule: Boolean) {
+    providers.forEach { provider ->
       loadArg(0)
       registerProvider(keyRegistry, provider) {
-        if (moduleLocal == INVALID_LOCAL) {
+        if (!hasModule) {
           check(provider.isConstructorProvider)
           newConstructorProvider(provider)
         } else {
           check(!provider.isConstructorProvider)
           newModuleProvider(provider) {
-            loadLocal(moduleLocal)
+            loadArg(1)
           }
         }
       }
     }
   }
 
+  private fun GeneratorAdapter.registerLevels(levels: List<List<Dependency>>, method: MethodDescriptor) {
+    if (levels.isEmpty()) {
+      return
+    }
+
+    loadArg(0)
+    newArray(Type.Primitive.Int.toArrayType(), levels.size)
+    levels.forEachIndexed { levelIndex, level ->
+      dup()
+      push(levelIndex)
+      newArray(Type.Primitive.Int, level.size)
+      levelMethods[level]!!.forEach { fillMethod ->
+        dup()
+        invokeStatic(fillMethod.owner, fillMethod.method)
+      }
+      arrayStore(Type.Primitive.Int.toArrayType())
+    }
+    invokeVirtual(LightsaberTypes.LIGHTSABER_INJECTOR_TYPE, method)
+  }
+
+  private fun GeneratorAdapter.fillLevel(dependencies: List<Dependency>, offset: Int) {
+    dependencies.forEachIndexed { index, dependency ->
+      loadArg(0)
+      push(offset + index)
+      push(getKey(keyRegistry, dependency).slot)
+      arrayStore(Type.Primitive.Int)
+    }
+  }
+
+  private fun getModuleType(provisionPoint: ModuleProvisionPoint): Type? {
+    return when (provisionPoint) {
+      is ModuleProvisionPoint.Method -> provisionPoint.method.type.returnType
+      is ModuleProvisionPoint.Field -> provisionPoint.field.type
+      is ModuleProvisionPoint.Null -> null
+    }
+  }
+
   private fun GeneratorAdapter.getModule(provisionPoint: ModuleProvisionPoint): Int {
     return when (provisionPoint) {
       is ModuleProvisionPoint.Method -> getModule(provisionPoint)
@@ -138,3 +288,11 @@ class InjectorConfiguratorClassGenerator(
     invokeConstructor(provider.type, constructor)
   }
 }
+
+private class StaticMethod(
+    val method: MethodDescriptor,
+    val cost: Int,
+    val body: GeneratorAdapter.() -> Unit
+) {
+  lateinit var owner: Type.Object
+}
@@ -30,9 +30,8 @@ class InjectorConfiguratorsGenerator(
     generationContext.allInjectorConfigurators.forEach { configurator ->
       logger.debug("Generating injector configurator {}", configurator.type.internalName)
       val generator =
-          InjectorConfiguratorClassGenerator(classRegistry, generationContext.keyRegistry, configurator)
-      val classData = generator.generate()
-      classProducer.produceClass(configurator.type.internalName, classData)
+          InjectorConfiguratorClassGenerator(classProducer, classRegistry, generationContext.keyRegistry, configurator)
+      generator.generate()
     }
   }
 }
@@ -19,15 +19,27 @@ package io.michaelrocks.lightsaber.processor.generation
 import io.michaelrocks.grip.ClassRegistry
 import io.michaelrocks.grip.mirrors.Type
 import io.michaelrocks.grip.mirrors.getObjectTypeByInternalName
+import io.michaelrocks.lightsaber.processor.commons.Types
+import io.michaelrocks.lightsaber.processor.generation.StaticInitializerSourceBuilder.Parameter
 import io.michaelrocks.lightsaber.processor.generation.model.GenerationContext
 import io.michaelrocks.lightsaber.processor.generation.model.InjectorConfigurator
 import io.michaelrocks.lightsaber.processor.generation.model.MembersInjector
 import io.michaelrocks.lightsaber.processor.generation.model.PackageInvader
 import io.michaelrocks.lightsaber.processor.templates.TemplateLoader
 import io.michaelrocks.lightsaber.processor.templates.loadTemplate
+import java.util.ArrayList
 
 private val INJECTION_DISPATCHER_TYPE = getObjectTypeByInternalName("io/michaelrocks/lightsaber/InjectionDispatcher")
 private const val STATIC_INITIALIZER_PARAMETER = "STATIC_INITIALIZER"
+private const val PART_CLASSES_PARAMETER = "PART_CLASSES"
+
+private const val PACKAGE_INJECTOR_CONFIGURATOR_FIELD = "packageInjectorConfigurator"
+private const val INJECTOR_CONFIGURATORS_FIELD = "injectorConfigurators"
+private const val INJECTION_PLANS_FIELD = "injectionPlans"
+private const val MEMBERS_INJECTORS_LOCAL = "membersInjectors"
+private const val INJECTOR_CONFIGURATOR_CLASS = "InjectorConfigurator"
+private const val MEMBERS_INJECTOR_CLASS = "MembersInjector<?>"
+private const val INJECTION_PLAN_CLASS = "MembersInjector<?>[]"
 
 class InjectorDispatcherSourceGenerator(
     private val sourceProducer: SourceProducer,
@@ -38,51 +50,71 @@ class InjectorDispatcherSourceGenerator(
 
   fun generate(generationContext: GenerationContext) {
     val template = TemplateLoader().loadTemplate(INJECTION_DISPATCHER_TYPE)
+    val builder = StaticInitializerSourceBuilder()
+    builder.composeStaticInitializer(generationContext)
     val sourceCode = template.newRenderer()
-        .substitute(STATIC_INITIALIZER_PARAMETER, composeStaticInitializer(generationContext))
+        .substitute(STATIC_INITIALIZER_PARAMETER, builder.buildStaticInitializer())
+        .substitute(PART_CLASSES_PARAMETER, builder.buildPartClasses())
         .render()
     sourceProducer.produceSourceFile(INJECTION_DISPATCHER_TYPE.internalName, sourceCode)
   }
 
-  private fun composeStaticInitializer(generationContext: GenerationContext): String {
-    return buildString {
-      putPackageInjectorConfigurator(generationContext.packageInjectorConfigurator)
-      generationContext.injectorConfigurators.forEach { injectorConfigurator ->
-        val packageInvader = generationContext.findPackageInvaderByTargetType(injectorConfigurator.component.type)
-        putInjectorConfigurator(injectorConfigurator, packageInvader)
-      }
-      appendln()
-      generationContext.membersInjectors.forEach { membersInjector ->
-        val packageInvader = generationContext.findPackageInvaderByTargetType(membersInjector.type)
-        putMembersInjector(membersInjector, packageInvader)
-      }
+  private fun StaticInitializerSourceBuilder.composeStaticInitializer(generationContext: GenerationContext) {
+    putPackageInjectorConfigurator(generationContext.packageInjectorConfigurator)
+    appendln()
+    val injectorConfigurators = generationContext.injectorConfigurators.map { injectorConfigurator ->
+      val component = injectorConfigurator.component.type
+      val packageInvader = generationContext.findPackageInvaderByTargetType(component)
+      val configurator = "new ${injectorConfigurator.className}()"
+      ClassTableEntry(component.getClassName(), component.getClassReference(packageInvader), configurator)
     }
+    putClassTable(INJECTOR_CONFIGURATORS_FIELD, INJECTOR_CONFIGURATOR_CLASS, injectorConfigurators)
+    appendln()
+    putInjectionPlans(generationContext)
   }
 
-  private fun StringBuilder.putPackageInjectorConfigurator(injectorConfigurator: InjectorConfigurator) {
-    val configurator = injectorConfigurator.className
-    putToInjectorConfigurators("null", "new $configurator()")
-  }
+  private fun StaticInitializerSourceBuilder.putInjectionPlans(generationContext: GenerationContext) {
+    // Every members injector is created once and shared by the plans of the classes that inherit its target.
+    val membersInjectors = generationContext.membersInjectors.toList()
+    val indicesByTargetType = membersInjectors.withIndex().associate { it.value.target.type to it.index }
+    val count = membersInjectors.size
+    val membersInjectorsParameter = Parameter("$MEMBERS_INJECTOR_CLASS[]", MEMBERS_INJECTORS_LOCAL)
+    appendln("final $MEMBERS_INJECTOR_CLASS[] $MEMBERS_INJECTORS_LOCAL = new $MEMBERS_INJECTOR_CLASS[$count];")
+    val membersInjectorStatements = membersInjectors.mapIndexed { index, membersInjector ->
+      "$MEMBERS_INJECTORS_LOCAL[$index] = new ${membersInjector.type.className}();"
+    }
+    appendlnChunked(listOf(membersInjectorsParameter), membersInjectorStatements)
 
-  private fun StringBuilder.putInjectorConfigurator(injectorConfigurator: InjectorConfigurator,
-      packageInvader: PackageInvader?) {
-    val component = injectorConfigurator.component.type.getClassReference(packageInvader)
-    val configurator = injectorConfigurator.className
-    putToInjectorConfigurators(component, "new $configurator()")
+    val injectionPlans = membersInjectors.map { membersInjector ->
+      val target = membersInjector.target.type
+      val packageInvader = generationContext.findPackageInvaderByTargetType(membersInjector.type)
+      val injectionPlan = composeInjectionPlan(target, indicesByTargetType)
+          .joinToString(", ", "new $INJECTION_PLAN_CLASS { ", " }") { "$MEMBERS_INJECTORS_LOCAL[$it]" }
+      ClassTableEntry(target.getClassName(), target.getClassReference(packageInvader), injectionPlan)
+    }
+    putClassTable(INJECTION_PLANS_FIELD, INJECTION_PLAN_CLASS, injectionPlans, listOf(membersInjectorsParameter))
   }
 
-  private fun StringBuilder.putToInjectorConfigurators(key: String, value: String) {
-    appendln("injectorConfigurators.put($key, $value);")
+  private fun composeInjectionPlan(target: Type.Object, indicesByTargetType: Map<Type.Object, Int>): List<Int> {
+    // A plan contains the members injectors of the class and its superclasses starting from the topmost one.
+    val injectionPlan = ArrayList<Int>()
+    var currentType: Type.Object? = target
+    while (currentType != null && currentType != Types.OBJECT_TYPE) {
+      indicesByTargetType[currentType]?.let { injectionPlan += it }
+      currentType = classRegistry.getClassMirror(currentType).superType
+    }
+    return injectionPlan.asReversed()
   }
 
-  private fun StringBuilder.putMembersInjector(membersInjector: MembersInjector, packageInvader: PackageInvader?) {
-    val target = membersInjector.target.type.getClassReference(packageInvader)
-    val injector = membersInjector.type.className
-    putToMembersInjectors(target, "new $injector()")
+  private fun StaticInitializerSourceBuilder.putPackageInjectorConfigurator(
+      injectorConfigurator: InjectorConfigurator
+  ) {
+    val configurator = injectorConfigurator.className
+    appendln("$PACKAGE_INJECTOR_CONFIGURATOR_FIELD = new $configurator();")
   }
 
-  private fun StringBuilder.putToMembersInjectors(key: String, value: String) {
-    appendln("membersInjectors.put($key, $value);")
+  private fun Type.Object.getClassName(): String {
+    return internalName.replace('/', '.')
   }
 
   private fun Type.Object.getClassReference(packageInvader: PackageInvader?): String {
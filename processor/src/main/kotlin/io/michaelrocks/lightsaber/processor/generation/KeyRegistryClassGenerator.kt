@@ -33,6 +33,7 @@ import io.michaelrocks.lightsaber.processor.descriptors.MethodDescriptor
 import io.michaelrocks.lightsaber.processor.descriptors.descriptor
 import io.michaelrocks.lightsaber.processor.generation.model.GenerationContext
 import io.michaelrocks.lightsaber.processor.generation.model.Key
+import io.michaelrocks.lightsaber.processor.generation.model.KeyRegistryClass
 import io.michaelrocks.lightsaber.processor.model.Dependency
 import io.michaelrocks.lightsaber.processor.watermark.WatermarkClassVisitor
 import org.objectweb.asm.ClassVisitor
@@ -42,8 +43,10 @@ import org.objectweb.asm.Opcodes.ACC_PUBLIC
 import org.objectweb.asm.Opcodes.ACC_STATIC
 import org.objectweb.asm.Opcodes.ACC_SUPER
 import org.objectweb.asm.Opcodes.V1_6
+import java.util.HashMap
 
-private val KEY_CONSTRUCTOR = MethodDescriptor.forConstructor(Types.TYPE_TYPE, Types.ANNOTATION_TYPE)
+private val KEY_REGISTER_METHOD =
+    MethodDescriptor.forMethod("register", Types.KEY_TYPE, Types.TYPE_TYPE, Types.ANNOTATION_TYPE)
 
 private val PARAMETERIZED_TYPE_IMPL_TYPE = getObjectType<ParameterizedTypeImpl>()
 private val GENERIC_ARRAY_TYPE_IMPL_TYPE = getObjectType<GenericArrayTypeImpl>()
@@ -60,29 +63,36 @@ class KeyRegistryClassGenerator(
     private val generationContext: GenerationContext
 ) {
   private val keyRegistry = generationContext.keyRegistry
+  private val typeLocals = HashMap<String, Int>()
 
   fun generate() {
+    keyRegistry.classes.forEach { generateKeyRegistryClass(it) }
+  }
+
+  private fun generateKeyRegistryClass(keyRegistryClass: KeyRegistryClass) {
     val classWriter = StandaloneClassWriter(ClassWriter.COMPUTE_FRAMES or ClassWriter.COMPUTE_MAXS, classRegistry)
     val classVisitor = WatermarkClassVisitor(classWriter, true)
     classVisitor.visit(
         V1_6,
         ACC_PUBLIC or ACC_SUPER,
-        keyRegistry.type.internalName,
+        keyRegistryClass.type.internalName,
         null,
         Types.OBJECT_TYPE.internalName,
         null)
 
-    generateFields(classVisitor)
-    generateStaticInitializer(classVisitor)
+    generateFields(classVisitor, keyRegistryClass)
+    generateStaticInitializer(classVisitor, keyRegistryClass)
     classVisitor.newDefaultConstructor()
 
     classVisitor.visitEnd()
     val classBytes = classWriter.toByteArray()
-    classProducer.produceClass(keyRegistry.type.internalName, classBytes)
+    classProducer.produceClass(keyRegistryClass.type.internalName, classBytes)
   }
 
-  private fun generateFields(classVisitor: ClassVisitor) {
-    for (key in keyRegistry.keys.values) {
+  private fun generateFields(classVisitor: ClassVisitor, keyRegistryClass: KeyRegistryClass) {
+    // The fields are public only because generated providers in other packages read them. Their names and classes
+    // depend on the other bindings of the project, so they aren't meant to be used as keys by application code.
+    for (key in keyRegistryClass.keys.values) {
       val field = key.field
       val fieldVisitor = classVisitor.visitField(
           ACC_PUBLIC or ACC_STATIC or ACC_FINAL,
@@ -94,14 +104,28 @@ class KeyRegistryClassGenerator(
     }
   }
 
-  private fun generateStaticInitializer(classVisitor: ClassVisitor) {
+  private fun composeTypeSignature(type: GenericType, boxed: Boolean): String? {
+    return when (type) {
+      is GenericType.Raw -> if (boxed) type.type.boxed().descriptor else type.type.descriptor
+      is GenericType.Array -> composeTypeSignature(type.elementType, false)?.let { "[$it" }
+      is GenericType.Parameterized -> {
+        val typeArguments = type.typeArguments.map { composeTypeSignature(it, true) ?: return null }
+        "L${type.type.internalName}<${typeArguments.joinToString("")}>;"
+      }
+      else -> null
+    }
+  }
+
+  private fun generateStaticInitializer(classVisitor: ClassVisitor, keyRegistryClass: KeyRegistryClass) {
     val staticInitializer = MethodDescriptor.forStaticInitializer()
     val generator = GeneratorAdapter(classVisitor, ACC_STATIC, staticInitializer)
     generator.visitCode()
 
-    for ((dependency, key) in keyRegistry.keys.entries) {
+    // Locals belong to the static initializer being generated, so shared types are created once per class.
+    typeLocals.clear()
+    for ((dependency, key) in keyRegistryClass.keys.entries) {
       generator.pushInstanceOfKey(dependency, key)
-      generator.putStatic(keyRegistry.type, key.field)
+      generator.putStatic(keyRegistryClass.type, key.field)
     }
 
     generator.returnValue()
@@ -116,9 +140,6 @@ class KeyRegistryClassGenerator(
   }
 
   private fun GeneratorAdapter.newKey(dependency: Dependency) {
-    newInstance(Types.KEY_TYPE)
-    dup()
-
     push(dependency.type)
     if (dependency.qualifier == null) {
       pushNull()
@@ -126,16 +147,38 @@ class KeyRegistryClassGenerator(
       annotationCreator.newAnnotation(this, dependency.qualifier)
     }
 
-    invokeConstructor(Types.KEY_TYPE, KEY_CONSTRUCTOR)
+    invokeStatic(Types.KEY_TYPE, KEY_REGISTER_METHOD)
   }
 
   private fun GeneratorAdapter.push(type: GenericType) {
     when (type) {
       is GenericType.Raw -> pushType(type.type.boxed())
+      is GenericType.Parameterized, is GenericType.Array -> pushSharedType(type)
+      else -> error("Unsupported generic type $type")
+    }
+  }
+
+  private fun GeneratorAdapter.pushSharedType(type: GenericType) {
+    // Equal generic types are created once and shared by all the keys and type arguments that refer to them.
+    val signature = composeTypeSignature(type, true)
+    val typeLocal = signature?.let { typeLocals[it] }
+    if (typeLocal != null) {
+      loadLocal(typeLocal)
+      return
+    }
+
+    when (type) {
       is GenericType.Parameterized -> newParameterizedType(type)
       is GenericType.Array -> newGenericArrayType(type)
       else -> error("Unsupported generic type $type")
     }
+
+    if (signature != null) {
+      val newTypeLocal = newLocal(Types.TYPE_TYPE)
+      dup()
+      storeLocal(newTypeLocal)
+      typeLocals[signature] = newTypeLocal
+    }
   }
 
   private fun GeneratorAdapter.newParameterizedType(type: GenericType.Parameterized) {
@@ -28,9 +28,13 @@ import io.michaelrocks.lightsaber.processor.commons.cast
 import io.michaelrocks.lightsaber.processor.commons.rawType
 import io.michaelrocks.lightsaber.processor.commons.toFieldDescriptor
 import io.michaelrocks.lightsaber.processor.commons.toMethodDescriptor
+import io.michaelrocks.lightsaber.processor.descriptors.FieldDescriptor
 import io.michaelrocks.lightsaber.processor.descriptors.MethodDescriptor
+import io.michaelrocks.lightsaber.processor.descriptors.descriptor
 import io.michaelrocks.lightsaber.processor.generation.model.KeyRegistry
+import io.michaelrocks.lightsaber.processor.generation.model.MembersInjector
 import io.michaelrocks.lightsaber.processor.model.Injectee
+import io.michaelrocks.lightsaber.processor.model.InjectionPoint
 import io.michaelrocks.lightsaber.processor.model.Provider
 import io.michaelrocks.lightsaber.processor.model.ProvisionPoint
 import io.michaelrocks.lightsaber.processor.model.isConstructorProvider
@@ -40,26 +44,33 @@ import org.objectweb.asm.ClassWriter
 import org.objectweb.asm.Opcodes.ACC_FINAL
 import org.objectweb.asm.Opcodes.ACC_PRIVATE
 import org.objectweb.asm.Opcodes.ACC_PUBLIC
+import org.objectweb.asm.Opcodes.ACC_STATIC
 import org.objectweb.asm.Opcodes.ACC_SUPER
 import org.objectweb.asm.Opcodes.V1_6
 
 class ProviderClassGenerator(
     private val classRegistry: ClassRegistry,
     private val keyRegistry: KeyRegistry,
-    private val provider: Provider
+    private val provider: Provider,
+    private val membersInjectors: List<MembersInjector>
 ) {
   companion object {
     private const val MODULE_FIELD_NAME = "module"
+    private const val MEMBERS_INJECTOR_FIELD_NAME_PREFIX = "membersInjector"
 
     private val ABSTRACT_INJECTING_PROVIDER_TYPE = getObjectType<AbstractInjectingProvider<*>>()
     private val NULL_POINTER_EXCEPTION_TYPE = getObjectType<NullPointerException>()
 
     private val SUPER_CONSTRUCTOR = MethodDescriptor.forConstructor(Types.INJECTOR_TYPE)
+    private val SUPER_CONSTRUCTOR_WITH_DEPENDENCY_COUNT =
+        MethodDescriptor.forConstructor(Types.INJECTOR_TYPE, Type.Primitive.Int)
 
     private val GET_WITH_INJECTOR_METHOD =
         MethodDescriptor.forMethod("getWithInjector", Types.OBJECT_TYPE, Types.INJECTOR_TYPE)
-    private val INJECT_MEMBERS_METHOD =
-        MethodDescriptor.forMethod("injectMembers", Type.Primitive.Void, Types.OBJECT_TYPE)
+    private val INJECT_FIELDS_METHOD =
+        MethodDescriptor.forMethod("injectFields", Type.Primitive.Void, Types.INJECTOR_TYPE, Types.OBJECT_TYPE)
+    private val INJECT_METHODS_METHOD =
+        MethodDescriptor.forMethod("injectMethods", Type.Primitive.Void, Types.INJECTOR_TYPE, Types.OBJECT_TYPE)
   }
 
   private val providerConstructor: MethodDescriptor
@@ -71,6 +82,12 @@ class ProviderClassGenerator(
       }
     }
 
+  private val injectees: List<Injectee>
+    get() {
+      val provisionPoint = provider.provisionPoint as? ProvisionPoint.AbstractMethod ?: return emptyList()
+      return provisionPoint.injectionPoint.injectees
+    }
+
   fun generate(): ByteArray {
     val classWriter = StandaloneClassWriter(ClassWriter.COMPUTE_FRAMES or ClassWriter.COMPUTE_MAXS, classRegistry)
     val classVisitor = WatermarkClassVisitor(classWriter, true)
@@ -84,6 +101,7 @@ class ProviderClassGenerator(
     )
 
     generateFields(classVisitor)
+    generateStaticInitializer(classVisitor)
     generateConstructor(classVisitor)
     generateGetWithInjectorMethod(classVisitor)
 
@@ -95,6 +113,10 @@ class ProviderClassGenerator(
     if (!provider.isConstructorProvider) {
       generateModuleField(classVisitor)
     }
+
+    membersInjectors.forEachIndexed { index, membersInjector ->
+      generateMembersInjectorField(classVisitor, getMembersInjectorField(index, membersInjector))
+    }
   }
 
   private fun generateModuleField(classVisitor: ClassVisitor) {
@@ -107,6 +129,35 @@ class ProviderClassGenerator(
     fieldVisitor.visitEnd()
   }
 
+  private fun generateMembersInjectorField(classVisitor: ClassVisitor, field: FieldDescriptor) {
+    val fieldVisitor = classVisitor.visitField(
+        ACC_PRIVATE or ACC_STATIC or ACC_FINAL,
+        field.name,
+        field.descriptor,
+        null,
+        null)
+    fieldVisitor.visitEnd()
+  }
+
+  private fun generateStaticInitializer(classVisitor: ClassVisitor) {
+    if (membersInjectors.isEmpty()) {
+      return
+    }
+
+    val generator = GeneratorAdapter(classVisitor, ACC_STATIC, MethodDescriptor.forStaticInitializer())
+    generator.visitCode()
+
+    membersInjectors.forEachIndexed { index, membersInjector ->
+      generator.newInstance(membersInjector.type)
+      generator.dup()
+      generator.invokeConstructor(membersInjector.type, MethodDescriptor.forDefaultConstructor())
+      generator.putStatic(provider.type, getMembersInjectorField(index, membersInjector))
+    }
+
+    generator.returnValue()
+    generator.endMethod()
+  }
+
   private fun generateConstructor(classVisitor: ClassVisitor) {
     val generator = GeneratorAdapter(classVisitor, ACC_PUBLIC, providerConstructor)
     generator.visitCode()
@@ -114,10 +165,10 @@ class ProviderClassGenerator(
 
     if (provider.isConstructorProvider) {
       generator.loadArg(0)
-      generator.invokeConstructor(ABSTRACT_INJECTING_PROVIDER_TYPE, SUPER_CONSTRUCTOR)
+      generator.invokeSuperConstructor()
     } else {
       generator.loadArg(1)
-      generator.invokeConstructor(ABSTRACT_INJECTING_PROVIDER_TYPE, SUPER_CONSTRUCTOR)
+      generator.invokeSuperConstructor()
 
       generator.loadThis()
       generator.loadArg(0)
@@ -128,6 +179,16 @@ class ProviderClassGenerator(
     generator.endMethod()
   }
 
+  private fun GeneratorAdapter.invokeSuperConstructor() {
+    val dependencyCount = injectees.size
+    if (dependencyCount == 0) {
+      invokeConstructor(ABSTRACT_INJECTING_PROVIDER_TYPE, SUPER_CONSTRUCTOR)
+    } else {
+      push(dependencyCount)
+      invokeConstructor(ABSTRACT_INJECTING_PROVIDER_TYPE, SUPER_CONSTRUCTOR_WITH_DEPENDENCY_COUNT)
+    }
+  }
+
   private fun generateGetWithInjectorMethod(classVisitor: ClassVisitor) {
     val generator = GeneratorAdapter(classVisitor, ACC_PUBLIC, GET_WITH_INJECTOR_METHOD)
     generator.visitCode()
@@ -182,21 +243,43 @@ class ProviderClassGenerator(
   }
 
   private fun generateProvideMethodArguments(generator: GeneratorAdapter) {
-    val injectees = provider.provisionPoint.cast<ProvisionPoint.AbstractMethod>().injectionPoint.injectees
-    injectees.forEach { injectee ->
-      generateProviderMethodArgument(generator, injectee)
+    injectees.forEachIndexed { index, injectee ->
+      generateProviderMethodArgument(generator, injectee, index)
     }
   }
 
-  private fun generateProviderMethodArgument(generator: GeneratorAdapter, injectee: Injectee) {
+  private fun generateProviderMethodArgument(generator: GeneratorAdapter, injectee: Injectee, index: Int) {
+    generator.loadThis()
     generator.loadArg(0)
-    generator.getDependency(keyRegistry, injectee)
+    generator.getCachedDependency(keyRegistry, provider.type, injectee, index)
   }
 
   private fun generateInjectMembersInvocation(generator: GeneratorAdapter) {
-    generator.dup()
-    generator.loadArg(0)
-    generator.swap()
-    generator.invokeInterface(Types.INJECTOR_TYPE, INJECT_MEMBERS_METHOD)
+    // Members injectors are called directly starting from the topmost class so the order is the same as in
+    // InjectionDispatcher.injectMembers(). Nothing is generated for classes without injectable members.
+    membersInjectors.forEachIndexed { index, membersInjector ->
+      if (membersInjector.target.injectionPoints.any { it is InjectionPoint.Field }) {
+        generator.invokeMembersInjector(index, membersInjector, INJECT_FIELDS_METHOD)
+      }
+    }
+    membersInjectors.forEachIndexed { index, membersInjector ->
+      if (membersInjector.target.injectionPoints.any { it is InjectionPoint.Method }) {
+        generator.invokeMembersInjector(index, membersInjector, INJECT_METHODS_METHOD)
+      }
+    }
+  }
+
+  private fun GeneratorAdapter.invokeMembersInjector(index: Int, membersInjector: MembersInjector,
+      method: MethodDescriptor) {
+    dup()
+    getStatic(provider.type, getMembersInjectorField(index, membersInjector))
+    swap()
+    loadArg(0)
+    swap()
+    invokeVirtual(membersInjector.type, method)
+  }
+
+  private fun getMembersInjectorField(index: Int, membersInjector: MembersInjector): FieldDescriptor {
+    return FieldDescriptor(MEMBERS_INJECTOR_FIELD_NAME_PREFIX + index, membersInjector.type)
   }
 }
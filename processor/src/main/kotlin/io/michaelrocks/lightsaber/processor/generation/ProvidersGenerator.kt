@@ -17,9 +17,15 @@
 package io.michaelrocks.lightsaber.processor.generation
 
 import io.michaelrocks.grip.ClassRegistry
+import io.michaelrocks.grip.mirrors.Type
+import io.michaelrocks.lightsaber.processor.commons.Types
+import io.michaelrocks.lightsaber.processor.commons.rawType
 import io.michaelrocks.lightsaber.processor.generation.model.GenerationContext
+import io.michaelrocks.lightsaber.processor.generation.model.MembersInjector
 import io.michaelrocks.lightsaber.processor.logging.getLogger
 import io.michaelrocks.lightsaber.processor.model.InjectionContext
+import io.michaelrocks.lightsaber.processor.model.isConstructorProvider
+import java.util.ArrayList
 
 class ProvidersGenerator(
     private val classProducer: ClassProducer,
@@ -28,14 +34,35 @@ class ProvidersGenerator(
   private val logger = getLogger()
 
   fun generate(injectionContext: InjectionContext, generationContext: GenerationContext) {
+    val membersInjectorsByTargetType = generationContext.membersInjectors.associateBy { it.target.type }
     injectionContext.allComponents.asSequence()
         .flatMap { it.modules.asSequence() }
         .flatMap { it.providers.asSequence() }
         .forEach { provider ->
           logger.debug("Generating provider {}", provider.type.internalName)
-          val generator = ProviderClassGenerator(classRegistry, generationContext.keyRegistry, provider)
+          val membersInjectors =
+              if (provider.isConstructorProvider) {
+                findMembersInjectors(provider.dependency.type.rawType as Type.Object, membersInjectorsByTargetType)
+              } else {
+                emptyList()
+              }
+          val generator =
+              ProviderClassGenerator(classRegistry, generationContext.keyRegistry, provider, membersInjectors)
           val providerClassData = generator.generate()
           classProducer.produceClass(provider.type.internalName, providerClassData)
         }
   }
+
+  private fun findMembersInjectors(
+      type: Type.Object,
+      membersInjectorsByTargetType: Map<Type.Object, MembersInjector>
+  ): List<MembersInjector> {
+    val membersInjectors = ArrayList<MembersInjector>()
+    var currentType: Type.Object? = type
+    while (currentType != null && currentType != Types.OBJECT_TYPE) {
+      membersInjectorsByTargetType[currentType]?.let { membersInjectors += it }
+      currentType = classRegistry.getClassMirror(currentType).superType
+    }
+    return membersInjectors.reversed()
+  }
 }
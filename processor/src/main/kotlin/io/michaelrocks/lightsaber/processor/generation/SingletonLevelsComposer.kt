@@ -0,0 +1,117 @@
+/*
+ * Copyright 2017 Michael Rozumyanskiy
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.michaelrocks.lightsaber.processor.generation
+
+import io.michaelrocks.lightsaber.LightsaberTypes
+import io.michaelrocks.lightsaber.processor.model.Converter
+import io.michaelrocks.lightsaber.processor.model.Dependency
+import io.michaelrocks.lightsaber.processor.model.Injectee
+import io.michaelrocks.lightsaber.processor.model.Provider
+import io.michaelrocks.lightsaber.processor.model.ProvisionPoint
+import io.michaelrocks.lightsaber.processor.model.Scope
+import java.util.ArrayList
+import java.util.HashMap
+import java.util.HashSet
+
+// A constructed instance is members-injected before its provider returns it, so the dependencies of its injectable
+// fields and methods count as much as the parameters of its constructor.
+class SingletonLevelsComposer(
+    providers: Collection<Provider>,
+    private val getMembersInjectees: (Provider) -> Collection<Injectee>,
+    private val isExternalDependencyResolved: (Dependency) -> Boolean
+) {
+  private val providersByDependency = providers.associateBy { it.dependency.box() }
+  private val injecteesByProvider = HashMap<Provider, List<Injectee>>()
+  private val depths = HashMap<Dependency, Int>()
+  private val pendingDependencies = HashSet<Dependency>()
+  private val unresolvedDependencies by lazy { findUnresolvedDependencies() }
+
+  fun composeSingletonLevels(): List<List<Dependency>> {
+    return providersByDependency.values
+        .filter { it.isSingleton }
+        .map { it.dependency.box() }
+        .filter { isResolved(it) }
+        .groupBy { getSingletonDepth(it) - 1 }
+        .toSortedMap()
+        .values
+        .toList()
+  }
+
+  // Returns the number of singleton levels that must be created before the dependency can be instantiated, including
+  // the dependency itself if it's a singleton. Only instance dependencies are taken into account because Provider and
+  // Lazy dependencies aren't resolved at construction time. Fields and methods may inject each other's classes, and
+  // such a cycle is broken at the singleton visited last, which keeps the singletons of the cycle in different levels.
+  private fun getSingletonDepth(dependency: Dependency): Int {
+    depths[dependency]?.let { return it }
+
+    val provider = providersByDependency[dependency] ?: return 0
+    if (!pendingDependencies.add(dependency)) {
+      return 0
+    }
+
+    val dependenciesDepth = provider.injectees
+        .filter { it.converter == Converter.Instance }
+        .map { getSingletonDepth(it.dependency.box()) }
+        .max() ?: 0
+    val depth = if (provider.isSingleton) dependenciesDepth + 1 else dependenciesDepth
+    pendingDependencies.remove(dependency)
+    depths.put(dependency, depth)
+    return depth
+  }
+
+  private fun isResolved(dependency: Dependency): Boolean {
+    return dependency !in unresolvedDependencies
+  }
+
+  // A dependency is unresolved if it transitively depends on an external dependency that cannot be resolved. The
+  // search goes from such external dependencies to their dependents, so cycles need no special handling.
+  private fun findUnresolvedDependencies(): Set<Dependency> {
+    val dependents = HashMap<Dependency, MutableList<Dependency>>()
+    for (provider in providersByDependency.values) {
+      for (injectee in provider.injectees) {
+        dependents.getOrPut(injectee.dependency.box()) { ArrayList() } += provider.dependency.box()
+      }
+    }
+
+    val unresolvedDependencies = HashSet<Dependency>()
+    val dependenciesToVisit = ArrayList<Dependency>()
+    for (dependency in dependents.keys) {
+      if (dependency !in providersByDependency && !isExternalDependencyResolved(dependency)) {
+        unresolvedDependencies += dependency
+        dependenciesToVisit += dependency
+      }
+    }
+    while (dependenciesToVisit.isNotEmpty()) {
+      val dependency = dependenciesToVisit.removeAt(dependenciesToVisit.size - 1)
+      dependents[dependency]?.forEach { dependent ->
+        if (unresolvedDependencies.add(dependent)) {
+          dependenciesToVisit += dependent
+        }
+      }
+    }
+    return unresolvedDependencies
+  }
+
+  private val Provider.isSingleton: Boolean
+    get() = scope is Scope.Class && scope.scopeType == LightsaberTypes.SINGLETON_PROVIDER_TYPE
+
+  private val Provider.injectees: List<Injectee>
+    get() = injecteesByProvider.getOrPut(this) {
+      val method = provisionPoint as? ProvisionPoint.AbstractMethod
+      method?.injectionPoint?.injectees.orEmpty() + getMembersInjectees(this)
+    }
+}
@@ -0,0 +1,83 @@
+/*
+ * Copyright 2016 Michael Rozumyanskiy
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.michaelrocks.lightsaber.processor.generation
+
+import java.util.ArrayList
+
+private const val PART_CLASS_PREFIX = "Part"
+private const val METHOD_PREFIX = "initialize"
+
+// Statements of a generated static initializer can be moved to static methods of nested part classes, so neither a
+// method nor the constant pool of a class overflows in projects with thousands of classes.
+internal class StaticInitializerSourceBuilder(
+    private val maxStatementsPerMethod: Int = 256,
+    private val maxStatementsPerClass: Int = 2048
+) {
+  private val initializer = StringBuilder()
+  private val partClasses = ArrayList<StringBuilder>()
+  private var partStatementCount = 0
+  private var methodCount = 0
+
+  fun appendln(statement: String = "") = apply {
+    initializer.appendln(statement)
+  }
+
+  // Every statement may refer to the parameters only, which are passed from the static initializer by name.
+  fun appendlnChunked(parameters: List<Parameter>, statements: List<String>) = apply {
+    val arguments = parameters.joinToString(", ") { it.name }
+    val declarations = parameters.joinToString(", ") { "final ${it.type} ${it.name}" }
+    statements.chunked(maxStatementsPerMethod).forEach { chunk ->
+      val partClass = getPartClass(chunk.size)
+      val methodName = "$METHOD_PREFIX${methodCount++}"
+      initializer.appendln("$PART_CLASS_PREFIX${partClasses.size}.$methodName($arguments);")
+
+      partClass.appendln()
+      partClass.appendln("  static void $methodName($declarations) {")
+      chunk.forEach { partClass.appendln("    $it") }
+      partClass.appendln("  }")
+    }
+  }
+
+  fun buildStaticInitializer(): String = initializer.toString()
+
+  fun buildPartClasses(): String {
+    return buildString {
+      partClasses.forEachIndexed { index, body ->
+        val partClassName = "$PART_CLASS_PREFIX${index + 1}"
+        if (index > 0) {
+          appendln()
+        }
+        appendln("private static final class $partClassName {")
+        appendln("  private $partClassName() {")
+        appendln("  }")
+        append(body)
+        appendln("}")
+      }
+    }
+  }
+
+  private fun getPartClass(statementCount: Int): StringBuilder {
+    if (partClasses.isEmpty() || partStatementCount + statementCount > maxStatementsPerClass) {
+      partClasses += StringBuilder()
+      partStatementCount = 0
+    }
+    partStatementCount += statementCount
+    return partClasses.last()
+  }
+
+  class Parameter(val type: String, val name: String)
+}
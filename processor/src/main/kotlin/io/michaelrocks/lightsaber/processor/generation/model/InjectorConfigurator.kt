@@ -18,8 +18,11 @@ package io.michaelrocks.lightsaber.processor.generation.model
 
 import io.michaelrocks.grip.mirrors.Type
 import io.michaelrocks.lightsaber.processor.model.Component
+import io.michaelrocks.lightsaber.processor.model.Dependency
 
 data class InjectorConfigurator(
     val type: Type.Object,
-    val component: Component
+    val component: Component,
+    val singletonLevels: List<List<Dependency>> = emptyList(),
+    val disposalLevels: List<List<Dependency>> = emptyList()
 )
@@ -20,8 +20,9 @@ import io.michaelrocks.lightsaber.processor.descriptors.FieldDescriptor
 
 sealed class Key {
   abstract val field: FieldDescriptor
+  abstract val slot: Int
 
-  data class Class(override val field: FieldDescriptor) : Key()
-  data class Type(override val field: FieldDescriptor) : Key()
-  data class QualifiedType(override val field: FieldDescriptor) : Key()
+  data class Class(override val field: FieldDescriptor, override val slot: Int) : Key()
+  data class Type(override val field: FieldDescriptor, override val slot: Int) : Key()
+  data class QualifiedType(override val field: FieldDescriptor, override val slot: Int) : Key()
 }
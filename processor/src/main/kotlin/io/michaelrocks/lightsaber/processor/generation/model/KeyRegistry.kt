@@ -18,8 +18,25 @@ package io.michaelrocks.lightsaber.processor.generation.model
 
 import io.michaelrocks.grip.mirrors.Type
 import io.michaelrocks.lightsaber.processor.model.Dependency
+import java.util.HashMap
+import java.util.LinkedHashMap
 
+// Keys are split between several classes, so neither a static initializer nor a constant pool of a class overflows in
+// large projects.
 data class KeyRegistry(
-    val type: Type.Object,
-    val keys: Map<Dependency, Key>
-)
+    val classes: List<KeyRegistryClass>,
+    val requestSlots: Map<Dependency, Int>
+) {
+  val keys: Map<Dependency, Key> =
+      classes.fold(LinkedHashMap<Dependency, Key>()) { keys, keyRegistryClass ->
+        keys.apply { putAll(keyRegistryClass.keys) }
+      }
+
+  private val typesByKey: Map<Key, Type.Object> =
+      classes.fold(HashMap<Key, Type.Object>()) { types, keyRegistryClass ->
+        keyRegistryClass.keys.values.associateTo(types) { it to keyRegistryClass.type }
+      }
+
+  fun getType(key: Key): Type.Object =
+      typesByKey[key] ?: error("Key registry class for $key not found")
+}
@@ -16,16 +16,30 @@
 
 package io.michaelrocks.lightsaber.processor.validation
 
+import io.michaelrocks.grip.ClassRegistry
+import io.michaelrocks.grip.mirrors.Type
 import io.michaelrocks.grip.mirrors.signature.GenericType
 import io.michaelrocks.lightsaber.processor.commons.Types
+import io.michaelrocks.lightsaber.processor.commons.rawType
 import io.michaelrocks.lightsaber.processor.generation.box
 import io.michaelrocks.lightsaber.processor.graph.DirectedGraph
 import io.michaelrocks.lightsaber.processor.graph.HashDirectedGraph
 import io.michaelrocks.lightsaber.processor.model.Dependency
+import io.michaelrocks.lightsaber.processor.model.Injectee
+import io.michaelrocks.lightsaber.processor.model.InjectionContext
+import io.michaelrocks.lightsaber.processor.model.InjectionPoint
 import io.michaelrocks.lightsaber.processor.model.Module
+import io.michaelrocks.lightsaber.processor.model.Provider
 import io.michaelrocks.lightsaber.processor.model.ProvisionPoint
+import io.michaelrocks.lightsaber.processor.model.isConstructorProvider
+import java.util.ArrayList
 
-fun buildDependencyGraph(modules: Collection<Module>): DirectedGraph<Dependency> {
+// Members injectees of a provider are the injectees of the fields and methods injected into the provided instance
+// before it's returned.
+fun buildDependencyGraph(
+    modules: Collection<Module>,
+    getMembersInjectees: (Provider) -> Collection<Injectee> = { emptyList() }
+): DirectedGraph<Dependency> {
   return HashDirectedGraph<Dependency>().apply {
     val rootType = Dependency(GenericType.Raw(Types.INJECTOR_TYPE))
     put(rootType, emptyList())
@@ -33,10 +47,33 @@ fun buildDependencyGraph(modules: Collection<Module>): DirectedGraph<Dependency>
       for (provider in module.providers) {
         val returnType = provider.dependency.box()
         val method = provider.provisionPoint as? ProvisionPoint.AbstractMethod
-        val injectees = method?.injectionPoint?.injectees.orEmpty()
+        val injectees = method?.injectionPoint?.injectees.orEmpty() + getMembersInjectees(provider)
         val dependencies = injectees.map { it.dependency.box() }
         put(returnType, dependencies)
       }
     }
   }
 }
+
+fun findMembersInjectees(
+    classRegistry: ClassRegistry,
+    context: InjectionContext,
+    provider: Provider
+): Collection<Injectee> {
+  if (!provider.isConstructorProvider) {
+    return emptyList()
+  }
+
+  val injectees = ArrayList<Injectee>()
+  var currentType: Type.Object? = provider.dependency.type.rawType as Type.Object
+  while (currentType != null && currentType != Types.OBJECT_TYPE) {
+    context.findInjectableTargetByType(currentType)?.injectionPoints?.forEach { injectionPoint ->
+      when (injectionPoint) {
+        is InjectionPoint.Field -> injectees += injectionPoint.injectee
+        is InjectionPoint.Method -> injectees += injectionPoint.injectees
+      }
+    }
+    currentType = classRegistry.getClassMirror(currentType).superType
+  }
+  return injectees
+}
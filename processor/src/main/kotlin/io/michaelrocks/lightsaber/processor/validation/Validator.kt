@@ -17,6 +17,7 @@
 package io.michaelrocks.lightsaber.processor.validation
 
 import io.michaelrocks.grip.ClassRegistry
+import io.michaelrocks.lightsaber.LightsaberTypes
 import io.michaelrocks.lightsaber.processor.ErrorReporter
 import io.michaelrocks.lightsaber.processor.commons.cast
 import io.michaelrocks.lightsaber.processor.generation.box
@@ -31,6 +32,9 @@ import io.michaelrocks.lightsaber.processor.model.Dependency
 import io.michaelrocks.lightsaber.processor.model.Injectee
 import io.michaelrocks.lightsaber.processor.model.InjectionContext
 import io.michaelrocks.lightsaber.processor.model.InjectionPoint
+import io.michaelrocks.lightsaber.processor.model.Module
+import io.michaelrocks.lightsaber.processor.model.Provider
+import io.michaelrocks.lightsaber.processor.model.Scope
 import java.util.ArrayList
 import java.util.HashSet
 
@@ -124,6 +128,33 @@ class Validator(
     for (cycle in cycles) {
       errorReporter.reportError("Cycled dependency: ${cycle.joinToString(" -> ")}")
     }
+
+    validateRequestScopedDependencies(context, modules)
+  }
+
+  // A singleton or a thread-scoped instance outlives a request context, so it must not capture request-scoped
+  // instances directly, via Provider and Lazy or through unscoped bindings.
+  private fun validateRequestScopedDependencies(context: InjectionContext, modules: Collection<Module>) {
+    val providers = modules.flatMap { it.providers }
+    val requestScopedDependencies = providers.filter { it.isRequestScoped }.map { it.dependency.box() }
+    if (requestScopedDependencies.isEmpty()) {
+      return
+    }
+
+    val dependencyGraph = buildDependencyGraph(modules) { findMembersInjectees(classRegistry, context, it) }
+    val dependentGraph = dependencyGraph.reversed()
+    val providersByDependency = providers.associateBy { it.dependency.box() }
+    for (requestScopedDependency in requestScopedDependencies) {
+      val dependents = dependentGraph.findReachableVertices(requestScopedDependency)
+      for (dependent in dependents) {
+        val provider = providersByDependency[dependent] ?: continue
+        if (provider.isSingleton || provider.isThreadScoped) {
+          errorReporter.reportError(
+              "Request-scoped dependency $requestScopedDependency is captured by a longer-lived $dependent"
+          )
+        }
+      }
+    }
   }
 
   private fun extractComponentChain(
@@ -202,3 +233,12 @@ class Validator(
     }
   }
 }
+
+private val Provider.isSingleton: Boolean
+  get() = scope is Scope.Class && scope.scopeType == LightsaberTypes.SINGLETON_PROVIDER_TYPE
+
+private val Provider.isThreadScoped: Boolean
+  get() = scope is Scope.Class && scope.scopeType == LightsaberTypes.THREAD_SCOPE_PROVIDER_TYPE
+
+private val Provider.isRequestScoped: Boolean
+  get() = scope is Scope.Class && scope.scopeType == LightsaberTypes.REQUEST_SCOPE_PROVIDER_TYPE
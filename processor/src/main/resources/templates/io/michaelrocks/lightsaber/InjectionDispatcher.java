@@ -16,15 +16,20 @@
 
 package io.michaelrocks.lightsaber;
 
-import io.michaelrocks.lightsaber.internal.LightweightHashMap;
+import io.michaelrocks.lightsaber.internal.ClassTable;
 
 import java.util.Map;
+import java.util.WeakHashMap;
 
 public class InjectionDispatcher {
-  private static final Map<Class<?>, InjectorConfigurator> injectorConfigurators =
-      new LightweightHashMap<Class<?>, InjectorConfigurator>();
-  private static final Map<Class<?>, MembersInjector<?>> membersInjectors =
-      new LightweightHashMap<Class<?>, MembersInjector<?>>();
+  private static final MembersInjector<?>[] EMPTY_INJECTION_PLAN = new MembersInjector<?>[0];
+
+  private static final InjectorConfigurator packageInjectorConfigurator;
+  private static final ClassTable<InjectorConfigurator> injectorConfigurators;
+  private static final ClassTable<MembersInjector<?>[]> injectionPlans;
+  // Guarded by itself.
+  private static final Map<Class<?>, MembersInjector<?>[]> inheritedInjectionPlans =
+      new WeakHashMap<Class<?>, MembersInjector<?>[]>();
 
   static {
     /*%STATIC_INITIALIZER%*/
@@ -36,8 +41,8 @@ public class InjectionDispatcher {
     }
 
     final LightsaberInjector injector = (LightsaberInjector) injectorObject;
-    final Class<?> componentClass = component == null ? null : component.getClass();
-    final InjectorConfigurator injectorConfigurator = injectorConfigurators.get(componentClass);
+    final InjectorConfigurator injectorConfigurator =
+        component == null ? packageInjectorConfigurator : injectorConfigurators.get(component.getClass());
     if (injectorConfigurator == null) {
       throw new ConfigurationException("The component hasn't been processed with Lightsaber: " + component);
     }
@@ -47,33 +52,47 @@ public class InjectionDispatcher {
 
   public static void injectMembers(final Object injectorObject, final Object object) {
     final Injector injector = (Injector) injectorObject;
-    injectFieldsIntoObject(injector, object, object.getClass());
-    injectMethodsIntoObject(injector, object, object.getClass());
+    final MembersInjector<?>[] injectionPlan = getInjectionPlan(object.getClass());
+    for (final MembersInjector<?> membersInjector : injectionPlan) {
+      // noinspection unchecked
+      ((MembersInjector<Object>) membersInjector).injectFields(injector, object);
+    }
+    for (final MembersInjector<?> membersInjector : injectionPlan) {
+      // noinspection unchecked
+      ((MembersInjector<Object>) membersInjector).injectMethods(injector, object);
+    }
   }
 
-  private static void injectFieldsIntoObject(final Injector injector, final Object object, final Class<?> type) {
-    if (type == Object.class) {
-      return;
-    }
+  private static MembersInjector<?>[] getInjectionPlan(final Class<?> type) {
+    // Plans of processed classes are composed at compile time, so they're found with a single lookup.
+    final MembersInjector<?>[] injectionPlan = injectionPlans.get(type);
+    return injectionPlan != null ? injectionPlan : getInheritedInjectionPlan(type);
+  }
 
-    injectFieldsIntoObject(injector, object, type.getSuperclass());
-    // noinspection unchecked
-    final MembersInjector<Object> membersInjector = (MembersInjector<Object>) membersInjectors.get(type);
-    if (membersInjector != null) {
-      membersInjector.injectFields(injector, object);
+  private static MembersInjector<?>[] getInheritedInjectionPlan(final Class<?> type) {
+    // Classes that haven't been processed, e.g. proxies, have nothing to inject below the nearest processed superclass,
+    // so they share its plan. The result is cached weakly, so such classes and their class loaders can be unloaded.
+    synchronized (inheritedInjectionPlans) {
+      final MembersInjector<?>[] injectionPlan = inheritedInjectionPlans.get(type);
+      if (injectionPlan != null) {
+        return injectionPlan;
+      }
     }
-  }
 
-  private static void injectMethodsIntoObject(final Injector injector, final Object object, final Class<?> type) {
-    if (type == Object.class) {
-      return;
+    MembersInjector<?>[] injectionPlan = EMPTY_INJECTION_PLAN;
+    for (Class<?> superType = type.getSuperclass(); superType != null; superType = superType.getSuperclass()) {
+      final MembersInjector<?>[] superInjectionPlan = injectionPlans.get(superType);
+      if (superInjectionPlan != null) {
+        injectionPlan = superInjectionPlan;
+        break;
+      }
     }
 
-    injectMethodsIntoObject(injector, object, type.getSuperclass());
-    // noinspection unchecked
-    final MembersInjector<Object> membersInjector = (MembersInjector<Object>) membersInjectors.get(type);
-    if (membersInjector != null) {
-      membersInjector.injectMethods(injector, object);
+    synchronized (inheritedInjectionPlans) {
+      inheritedInjectionPlans.put(type, injectionPlan);
     }
+    return injectionPlan;
   }
+
+  /*%PART_CLASSES%*/
 }
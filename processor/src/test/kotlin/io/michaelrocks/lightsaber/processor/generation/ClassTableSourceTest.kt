@@ -0,0 +1,101 @@
+/*
+ * Copyright 2016 Michael Rozumyanskiy
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.michaelrocks.lightsaber.processor.generation
+
+import io.michaelrocks.lightsaber.internal.ClassTable
+import org.junit.Assert.assertEquals
+import org.junit.Assert.assertNull
+import org.junit.Rule
+import org.junit.Test
+import org.junit.rules.TemporaryFolder
+import java.io.File
+import java.net.URLClassLoader
+import javax.tools.ToolProvider
+
+class ClassTableSourceTest {
+  @get:Rule
+  val temporaryFolder = TemporaryFolder()
+
+  @Test
+  fun testSmallClassTable() {
+    val table = compileClassTable(10)
+    assertClassTable(table, 10)
+  }
+
+  @Test
+  fun testLargeClassTable() {
+    // A single static initializer filling a table of this size would exceed the 64 KB limit of a method.
+    val table = compileClassTable(LARGE_CLASS_COUNT)
+    assertClassTable(table, LARGE_CLASS_COUNT)
+  }
+
+  private fun compileClassTable(classCount: Int): TableHolder {
+    val entries = (0 until classCount).map { index ->
+      ClassTableEntry("$PACKAGE_NAME.$CLASS_NAME\$C$index", "C$index.class", "\"C$index\"")
+    }
+    val builder = StaticInitializerSourceBuilder()
+    builder.putClassTable(FIELD_NAME, "String", entries)
+
+    val sourceCode = buildString {
+      appendln("package $PACKAGE_NAME;")
+      appendln()
+      appendln("import io.michaelrocks.lightsaber.internal.ClassTable;")
+      appendln()
+      appendln("public class $CLASS_NAME {")
+      appendln("  public static final ClassTable<String> $FIELD_NAME;")
+      appendln()
+      appendln("  static {")
+      builder.buildStaticInitializer().lineSequence().forEach { appendln("    $it") }
+      appendln("  }")
+      appendln()
+      builder.buildPartClasses().lineSequence().forEach { appendln("  $it") }
+      (0 until classCount).forEach { appendln("  public static final class C$it {}") }
+      appendln("}")
+    }
+
+    val sourceDirectory = File(temporaryFolder.root, "src/${PACKAGE_NAME.replace('.', '/')}")
+    val sourceFile = File(sourceDirectory.apply { mkdirs() }, "$CLASS_NAME.java").apply { writeText(sourceCode) }
+    val classesDirectory = temporaryFolder.newFolder("classes")
+    val compiler = ToolProvider.getSystemJavaCompiler()
+    val classPath = System.getProperty("java.class.path")
+    val result = compiler.run(null, null, null,
+        "-classpath", classPath, "-d", classesDirectory.path, "-nowarn", sourceFile.path)
+    assertEquals("Generated class table doesn't compile", 0, result)
+
+    val classLoader = URLClassLoader(arrayOf(classesDirectory.toURI().toURL()), javaClass.classLoader)
+    return TableHolder(classLoader, Class.forName("$PACKAGE_NAME.$CLASS_NAME", true, classLoader))
+  }
+
+  private fun assertClassTable(holder: TableHolder, classCount: Int) {
+    @Suppress("UNCHECKED_CAST")
+    val table = holder.tableClass.getField(FIELD_NAME).get(null) as ClassTable<String>
+    for (index in 0 until classCount) {
+      val type = Class.forName("$PACKAGE_NAME.$CLASS_NAME\$C$index", false, holder.classLoader)
+      assertEquals("C$index", table.get(type))
+    }
+    assertNull(table.get(String::class.java))
+  }
+
+  private class TableHolder(val classLoader: ClassLoader, val tableClass: Class<*>)
+
+  companion object {
+    private const val LARGE_CLASS_COUNT = 6000
+    private const val PACKAGE_NAME = "io.michaelrocks.lightsaber.test"
+    private const val CLASS_NAME = "Tables"
+    private const val FIELD_NAME = "table"
+  }
+}
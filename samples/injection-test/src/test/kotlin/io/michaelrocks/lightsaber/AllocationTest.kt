@@ -0,0 +1,147 @@
+/*
+ * Copyright 2016 Michael Rozumyanskiy
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.michaelrocks.lightsaber
+
+import org.junit.Assert.assertEquals
+import org.junit.Assert.assertTrue
+import org.junit.Assume.assumeTrue
+import org.junit.Before
+import org.junit.Test
+import java.lang.management.ManagementFactory
+import javax.inject.Inject
+import javax.inject.Named
+import javax.inject.Singleton
+
+class AllocationTest {
+  private lateinit var lightsaber: Lightsaber
+  private lateinit var threadBean: com.sun.management.ThreadMXBean
+
+  @Before
+  fun createLightsaber() {
+    val bean = ManagementFactory.getThreadMXBean() as? com.sun.management.ThreadMXBean
+    assumeTrue(bean != null && bean.isThreadAllocatedMemorySupported)
+    threadBean = bean!!
+    threadBean.isThreadAllocatedMemoryEnabled = true
+    lightsaber = Lightsaber()
+  }
+
+  @Test
+  fun testGetSingletonDoesNotAllocate() {
+    val injector = lightsaber.createInjector(ParentComponent())
+    assertNoAllocations { injector.getInstance<String>() }
+  }
+
+  @Test
+  fun testGetProviderDoesNotAllocate() {
+    val injector = lightsaber.createInjector(ParentComponent())
+    assertNoAllocations { injector.getProvider<String>() }
+    assertNoAllocations { injector.getProvider<String>().get() }
+  }
+
+  @Test
+  fun testGetInheritedSingletonDoesNotAllocate() {
+    val parentInjector = lightsaber.createInjector(ParentComponent())
+    val childInjector = lightsaber.createChildInjector(parentInjector, ChildComponent())
+    assertNoAllocations { childInjector.getInstance<String>() }
+  }
+
+  @Test
+  fun testInjectMembersWithSingletonsDoesNotAllocate() {
+    val injector = lightsaber.createInjector(ParentComponent())
+    val target = Target()
+    assertNoAllocations { injector.injectMembers(target) }
+    assertEquals("Parent String", target.string)
+    assertEquals("Qualified String", target.qualifiedString)
+  }
+
+  @Test
+  fun testChildInjectorAllocationIsBounded() {
+    val parentInjector = lightsaber.createInjector(ParentComponent())
+    val bytes = measure(CHILD_INJECTOR_ITERATIONS) { lightsaber.createChildInjector(parentInjector, ChildComponent()) }
+    val bytesPerInjector = bytes / CHILD_INJECTOR_ITERATIONS
+    assertTrue("Child injector allocates $bytesPerInjector bytes", bytesPerInjector <= MAX_CHILD_INJECTOR_BYTES)
+  }
+
+  private inline fun assertNoAllocations(operation: () -> Unit) {
+    val bytes = measure(ITERATIONS, operation)
+    // A single allocation per iteration takes at least 16 bytes, so anything below the iteration count is noise.
+    assertTrue("$ITERATIONS operations allocated $bytes bytes", bytes < ITERATIONS)
+  }
+
+  private inline fun measure(iterations: Int, operation: () -> Unit): Long {
+    for (i in 0 until WARMUP_ITERATIONS) {
+      operation()
+    }
+
+    val threadId = Thread.currentThread().id
+    val overheadStart = threadBean.getThreadAllocatedBytes(threadId)
+    val overhead = threadBean.getThreadAllocatedBytes(threadId) - overheadStart
+    val start = threadBean.getThreadAllocatedBytes(threadId)
+    for (i in 0 until iterations) {
+      operation()
+    }
+    val end = threadBean.getThreadAllocatedBytes(threadId)
+    return Math.max(0L, end - start - overhead)
+  }
+
+  @Module
+  private class ParentModule {
+    @Provides
+    @Singleton
+    fun provideString(): String = StringBuilder("Parent String").toString()
+
+    @Provides
+    @Singleton
+    @Named("Qualified")
+    fun provideQualifiedString(): String = StringBuilder("Qualified String").toString()
+  }
+
+  @Module
+  private class ChildModule {
+    @Provides
+    @Singleton
+    fun provideObject(): Any = StringBuilder("Child Object").toString()
+  }
+
+  @Component
+  private class ParentComponent {
+    @Provides
+    private fun provideParentModule(): ParentModule = ParentModule()
+  }
+
+  @Component(parents = arrayOf(ParentComponent::class))
+  private class ChildComponent {
+    @Provides
+    private fun provideChildModule(): ChildModule = ChildModule()
+  }
+
+  private class Target {
+    @Inject
+    lateinit var string: String
+
+    @Inject
+    @Named("Qualified")
+    lateinit var qualifiedString: String
+  }
+
+  companion object {
+    private const val WARMUP_ITERATIONS = 20000
+    private const val ITERATIONS = 100000
+    private const val CHILD_INJECTOR_ITERATIONS = 100
+    private const val MAX_CHILD_INJECTOR_BYTES = 4096L
+  }
+}
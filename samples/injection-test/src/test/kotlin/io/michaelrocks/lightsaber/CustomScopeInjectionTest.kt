@@ -0,0 +1,78 @@
+/*
+ * Copyright 2017 Michael Rozumyanskiy
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.michaelrocks.lightsaber
+
+import io.michaelrocks.lightsaber.internal.InjectingProvider
+import org.junit.Assert.assertEquals
+import org.junit.Assert.assertNotSame
+import org.junit.Assert.assertSame
+import org.junit.Test
+import javax.inject.Inject
+import javax.inject.Scope
+
+class CustomScopeInjectionTest {
+  @Test
+  fun testCustomScopedProviderMethod() {
+    val injector = lightsaber.createInjector(CustomScopeComponent())
+    val instance1 = injector.getInstance<String>()
+    val instance2 = injector.getInstance<String>()
+    assertEquals("String", instance1)
+    assertSame(instance1, instance2)
+  }
+
+  @Test
+  fun testCustomScopedClass() {
+    val injector = lightsaber.createInjector(CustomScopeComponent())
+    val instance1 = injector.getInstance<CachedTarget>()
+    val instance2 = injector.getInstance<CachedTarget>()
+    assertSame(instance1, instance2)
+  }
+
+  @Test
+  fun testCustomScopeIsPerInjector() {
+    val injector1 = lightsaber.createInjector(CustomScopeComponent())
+    val injector2 = lightsaber.createInjector(CustomScopeComponent())
+    assertNotSame(injector1.getInstance<CachedTarget>(), injector2.getInstance<CachedTarget>())
+  }
+
+  @Component
+  private class CustomScopeComponent {
+    @Provides
+    @Cached
+    fun provideString(): String = StringBuilder("String").toString()
+  }
+
+  @Cached
+  private class CachedTarget @Inject constructor()
+}
+
+@Scope
+@ProvidedBy(CachingProvider::class)
+@Retention(AnnotationRetention.RUNTIME)
+annotation class Cached
+
+class CachingProvider<T>(private val provider: InjectingProvider<T>) : InjectingProvider<T> {
+  private var instance: T? = null
+
+  override fun get(): T {
+    return instance ?: provider.get().also { instance = it }
+  }
+
+  override fun getWithInjector(injector: Injector): T {
+    return instance ?: provider.getWithInjector(injector).also { instance = it }
+  }
+}
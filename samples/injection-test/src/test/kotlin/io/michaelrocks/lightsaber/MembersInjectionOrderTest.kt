@@ -0,0 +1,109 @@
+/*
+ * Copyright 2016 Michael Rozumyanskiy
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.michaelrocks.lightsaber
+
+import org.junit.Assert.assertEquals
+import org.junit.Before
+import org.junit.Test
+import javax.inject.Inject
+
+class MembersInjectionOrderTest {
+  private lateinit var injector: Injector
+
+  @Before
+  fun createInjector() {
+    injector = Lightsaber().createInjector(OrderComponent())
+  }
+
+  @Test
+  fun testFieldsAreInjectedBeforeMethodsInHierarchy() {
+    val target = Child()
+    injector.injectMembers(target)
+    assertEquals(listOf("Parent method [parent, child]", "Child method [parent, child]"), target.events)
+  }
+
+  @Test
+  fun testInjectionPlanIsReused() {
+    val target1 = Child()
+    val target2 = Child()
+    injector.injectMembers(target1)
+    injector.injectMembers(target2)
+    assertEquals(listOf("Parent method [parent, child]", "Child method [parent, child]"), target1.events)
+    assertEquals(target1.events, target2.events)
+  }
+
+  @Test
+  fun testInjectionPlanOfSuperclassIsNotAffectedBySubclass() {
+    injector.injectMembers(Child())
+    val target = Parent()
+    injector.injectMembers(target)
+    assertEquals(listOf("Parent method [parent]"), target.events)
+  }
+
+  @Test
+  fun testSubclassWithoutInjectableMembersUsesSuperclassPlan() {
+    val target = object : Child() {}
+    injector.injectMembers(target)
+    injector.injectMembers(Child())
+    val anotherTarget = object : Child() {}
+    injector.injectMembers(anotherTarget)
+    assertEquals(listOf("Parent method [parent, child]", "Child method [parent, child]"), target.events)
+    assertEquals(target.events, anotherTarget.events)
+  }
+
+  @Module
+  private class OrderModule {
+    @Provides
+    fun provideString(): String = "String"
+  }
+
+  @Component
+  private class OrderComponent {
+    @Provides
+    private fun provideOrderModule(): OrderModule = OrderModule()
+  }
+
+  open class Parent {
+    val events = ArrayList<String>()
+
+    @Inject
+    lateinit var parentField: String
+
+    @Inject
+    fun injectParent(value: String) {
+      events.add("Parent method " + getInjectedFields())
+    }
+
+    protected open fun getInjectedFields(): List<String> {
+      return if (this::parentField.isInitialized) listOf("parent") else emptyList()
+    }
+  }
+
+  open class Child : Parent() {
+    @Inject
+    lateinit var childField: String
+
+    @Inject
+    fun injectChild(value: String) {
+      events.add("Child method " + getInjectedFields())
+    }
+
+    override fun getInjectedFields(): List<String> {
+      return super.getInjectedFields() + if (this::childField.isInitialized) listOf("child") else emptyList()
+    }
+  }
+}
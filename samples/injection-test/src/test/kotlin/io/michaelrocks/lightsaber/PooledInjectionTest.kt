@@ -0,0 +1,93 @@
+/*
+ * Copyright 2016 Michael Rozumyanskiy
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.michaelrocks.lightsaber
+
+import org.junit.Assert.assertEquals
+import org.junit.Assert.assertNotSame
+import org.junit.Assert.assertSame
+import org.junit.Before
+import org.junit.Test
+import javax.inject.Inject
+
+class PooledInjectionTest {
+  private lateinit var injector: Injector
+
+  @Before
+  fun createInjector() {
+    injector = Lightsaber().createInjector(PooledComponent())
+  }
+
+  @Test
+  fun testPooledConstructorInjectionReusesReleasedInstance() {
+    val buffer = injector.getInstance<Buffer>()
+    assertNotSame(buffer, injector.getInstance<Buffer>())
+    Lightsaber.releasePooledInstance(injector, Buffer::class.java, buffer)
+    assertSame(buffer, injector.getInstance<Buffer>())
+  }
+
+  @Test
+  fun testPooledProvisionReusesReleasedInstance() {
+    val codec = injector.getInstance<Codec>()
+    Lightsaber.releasePooledInstance(injector, Codec::class.java, codec)
+    assertSame(codec, injector.getInstance<Codec>())
+
+    val statistics = Lightsaber.getPoolStatistics(injector.getProvider<Codec>())
+    assertEquals(1, statistics.hitCount)
+    assertEquals(1, statistics.missCount)
+    assertEquals(1, statistics.releaseCount)
+  }
+
+  @Test
+  fun testPooledDependencyIsBorrowedFromPool() {
+    val codec = injector.getInstance<Codec>()
+    Lightsaber.releasePooledInstance(injector, Codec::class.java, codec)
+    val target = injector.getInstance<CodecTarget>()
+    assertSame(codec, target.codec)
+  }
+
+  @Test(expected = IllegalArgumentException::class)
+  fun testPooledInstanceCannotBeReleasedTwice() {
+    val buffer = injector.getInstance<Buffer>()
+    Lightsaber.releasePooledInstance(injector, Buffer::class.java, buffer)
+    Lightsaber.releasePooledInstance(injector, Buffer::class.java, buffer)
+  }
+
+  @Test(expected = IllegalArgumentException::class)
+  fun testForeignInstanceCannotBeReleased() {
+    Lightsaber.releasePooledInstance(injector, Codec::class.java, Codec())
+  }
+
+  @Pooled
+  class Buffer @Inject private constructor()
+
+  class Codec
+
+  class CodecTarget @Inject private constructor(val codec: Codec)
+
+  @Module
+  private class PooledModule {
+    @Provides
+    @Pooled
+    fun provideCodec(): Codec = Codec()
+  }
+
+  @Component
+  private class PooledComponent {
+    @Provides
+    private fun providePooledModule(): PooledModule = PooledModule()
+  }
+}
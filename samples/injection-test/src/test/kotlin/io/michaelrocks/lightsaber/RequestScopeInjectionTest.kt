@@ -0,0 +1,67 @@
+/*
+ * Copyright 2017 Michael Rozumyanskiy
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.michaelrocks.lightsaber
+
+import org.junit.Assert.assertNotSame
+import org.junit.Assert.assertSame
+import org.junit.Test
+import javax.inject.Inject
+
+class RequestScopeInjectionTest {
+  @Test
+  fun testInstanceIsSharedWithinRequest() {
+    val injector = lightsaber.createInjector(RequestComponent())
+    val context = Lightsaber.openRequestContext(injector)
+    val handler1 = context.getInstance<Handler>()
+    val handler2 = context.getInstance<Handler>()
+    assertNotSame(handler1, handler2)
+    assertSame(handler1.state, handler2.state)
+    assertSame(handler1.state, context.getInstance<RequestState>())
+    context.close()
+  }
+
+  @Test
+  fun testInstancesAreNotSharedBetweenRequests() {
+    val injector = lightsaber.createInjector(RequestComponent())
+    val context1 = Lightsaber.openRequestContext(injector)
+    val context2 = Lightsaber.openRequestContext(injector)
+    assertNotSame(context1.getInstance<RequestState>(), context2.getInstance<RequestState>())
+    context1.close()
+    context2.close()
+  }
+
+  @Test(expected = ConfigurationException::class)
+  fun testRequestScopedInstanceCannotBeProvidedWithoutContext() {
+    val injector = lightsaber.createInjector(RequestComponent())
+    injector.getInstance<RequestState>()
+  }
+
+  @Test(expected = IllegalStateException::class)
+  fun testClosedContextCannotProvideRequestScopedInstances() {
+    val injector = lightsaber.createInjector(RequestComponent())
+    val context = Lightsaber.openRequestContext(injector)
+    context.close()
+    context.getInstance<RequestState>()
+  }
+
+  @Component
+  private class RequestComponent
+
+  @RequestScoped
+  private class RequestState @Inject constructor()
+
+  private class Handler @Inject constructor(val state: RequestState)
+}
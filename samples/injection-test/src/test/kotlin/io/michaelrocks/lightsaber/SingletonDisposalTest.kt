@@ -0,0 +1,92 @@
+/*
+ * Copyright 2016 Michael Rozumyanskiy
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.michaelrocks.lightsaber
+
+import org.junit.After
+import org.junit.Assert.assertEquals
+import org.junit.Before
+import org.junit.Test
+import java.util.ArrayList
+import java.util.Collections
+import java.util.concurrent.ExecutorService
+import java.util.concurrent.Executors
+import javax.inject.Inject
+import javax.inject.Provider
+import javax.inject.Singleton
+
+class SingletonDisposalTest {
+  private val disposalLog = Collections.synchronizedList(ArrayList<Any>())
+  private lateinit var executor: ExecutorService
+
+  @Before
+  fun createExecutor() {
+    executor = Executors.newFixedThreadPool(3)
+  }
+
+  @After
+  fun shutdownExecutor() {
+    executor.shutdownNow()
+  }
+
+  @Test
+  fun testFieldInjectedSingletonIsDisposedAfterDependentSingleton() {
+    val injector = Lightsaber().createInjector(DisposalComponent())
+    val service = injector.getInstance<Service>()
+    val repository = service.repository
+
+    Lightsaber.closeInjector(injector, DisposalHook { disposalLog.add(it) }, executor)
+
+    assertEquals(listOf(service, repository), disposalLog)
+  }
+
+  @Test
+  fun testSingletonsAreDisposedInReverseDependencyOrder() {
+    val injector = Lightsaber().createInjector(DisposalComponent())
+    Lightsaber.warmUpSingletons(injector, executor)
+    val controller = injector.getInstance<Controller>()
+    val service = controller.serviceProvider.get()
+    val repository = service.repository
+
+    Lightsaber.closeInjector(injector, DisposalHook { disposalLog.add(it) }, executor)
+
+    assertEquals(listOf(controller, service, repository), disposalLog)
+  }
+
+  class Repository
+
+  @Singleton
+  class Service @Inject private constructor() {
+    @Inject
+    lateinit var repository: Repository
+  }
+
+  @Singleton
+  class Controller @Inject private constructor(val serviceProvider: Provider<Service>)
+
+  @Module
+  private class DisposalModule {
+    @Provides
+    @Singleton
+    fun provideRepository(): Repository = Repository()
+  }
+
+  @Component
+  private class DisposalComponent {
+    @Provides
+    private fun provideDisposalModule(): DisposalModule = DisposalModule()
+  }
+}